@@ -27,4 +27,14 @@ import java.lang.annotation.Target;
  */
 @Target({ElementType.METHOD})
 public @interface BindingConversion {
+    /**
+     * Declares that the conversion has no side effects and returns an equivalent result
+     * whenever it is called with an equal value. The generated code then keeps the last result
+     * of each binding that uses the conversion and reuses it while the value does not change,
+     * instead of calling the conversion again.
+     * <p>
+     * Only mark conversions pure when their result can be safely given to the same setter
+     * again, for example a Drawable that is set on a single View.
+     */
+    boolean pure() default false;
 }
@@ -17,6 +17,7 @@ package android.databinding;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * A utility for storing and notifying callbacks. This class supports reentrant modification
@@ -37,6 +38,12 @@ import java.util.List;
  * must be used, <code>A</code> should be some kind of containing structure that
  * the subclass may reuse between notifications.</p>
  *
+ * <p>A registry created in copy-on-write mode never locks. Its callbacks are kept in an
+ * immutable array that is replaced atomically on every add or remove, and notification
+ * iterates over the array that was current when it started. This favors registries that are
+ * notified far more often than they are modified, or that are notified from several
+ * threads.</p>
+ *
  * @param <C> The callback type.
  * @param <T> The notification sender type. Typically this is the containing class.
  * @param <A> Opaque argument used to pass additional data beyond an int.
@@ -44,8 +51,23 @@ import java.util.List;
 public class CallbackRegistry<C, T, A> implements Cloneable {
     private static final String TAG = "CallbackRegistry";
 
-    /** An ordered collection of listeners waiting to be notified. */
-    private List<C> mCallbacks = new ArrayList<C>();
+    private static final Object[] NO_CALLBACKS = new Object[0];
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<CallbackRegistry, Object[]> SNAPSHOT_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(CallbackRegistry.class, Object[].class,
+                    "mSnapshot");
+
+    /**
+     * An ordered collection of listeners waiting to be notified. null in copy-on-write mode.
+     */
+    private List<C> mCallbacks;
+
+    /**
+     * The listeners in copy-on-write mode, null otherwise. The array is never modified once
+     * it has been published, it is replaced instead.
+     */
+    private volatile Object[] mSnapshot;
 
     /**
      * A bit flag for the first 64 listeners that are removed during notification.
@@ -73,7 +95,29 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * @param notifier The class to use to notify events.
      */
     public CallbackRegistry(NotifierCallback<C, T, A> notifier) {
+        this(notifier, false);
+    }
+
+    /**
+     * Creates an EventRegistry that notifies the event with notifier.
+     * @param notifier The class to use to notify events.
+     * @param copyOnWrite true to keep the callbacks in an immutable array that is replaced on
+     *                    modification, so that notification never locks.
+     */
+    public CallbackRegistry(NotifierCallback<C, T, A> notifier, boolean copyOnWrite) {
         mNotifier = notifier;
+        if (copyOnWrite) {
+            mSnapshot = NO_CALLBACKS;
+        } else {
+            mCallbacks = new ArrayList<C>();
+        }
+    }
+
+    /**
+     * @return true if this registry was created in copy-on-write mode.
+     */
+    public boolean isCopyOnWrite() {
+        return mCallbacks == null;
     }
 
     /**
@@ -86,25 +130,53 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * @param arg2 An opaque parameter passed to
      * {@link CallbackRegistry.NotifierCallback#onNotifyCallback(Object, Object, int, Object)}
      */
-    public synchronized void notifyCallbacks(T sender, int arg, A arg2) {
-        mNotificationLevel++;
-        notifyRecurse(sender, arg, arg2);
-        mNotificationLevel--;
-        if (mNotificationLevel == 0) {
-            if (mRemainderRemoved != null) {
-                for (int i = mRemainderRemoved.length - 1; i >= 0; i--) {
-                    final long removedBits = mRemainderRemoved[i];
-                    if (removedBits != 0) {
-                        removeRemovedCallbacks((i + 1) * Long.SIZE, removedBits);
-                        mRemainderRemoved[i] = 0;
+    public void notifyCallbacks(T sender, int arg, A arg2) {
+        final Object[] snapshot = mSnapshot;
+        if (snapshot != null) {
+            notifySnapshot(snapshot, sender, arg, arg2);
+            return;
+        }
+        synchronized (this) {
+            mNotificationLevel++;
+            notifyRecurse(sender, arg, arg2);
+            mNotificationLevel--;
+            if (mNotificationLevel == 0) {
+                if (mRemainderRemoved != null) {
+                    for (int i = mRemainderRemoved.length - 1; i >= 0; i--) {
+                        final long removedBits = mRemainderRemoved[i];
+                        if (removedBits != 0) {
+                            removeRemovedCallbacks((i + 1) * Long.SIZE, removedBits);
+                            mRemainderRemoved[i] = 0;
+                        }
                     }
                 }
+                if (mFirst64Removed != 0) {
+                    removeRemovedCallbacks(0, mFirst64Removed);
+                    mFirst64Removed = 0;
+                }
             }
-            if (mFirst64Removed != 0) {
-                removeRemovedCallbacks(0, mFirst64Removed);
-                mFirst64Removed = 0;
+        }
+    }
+
+    /**
+     * Notifies the callbacks in a copy-on-write snapshot. Like the locking implementation,
+     * changes made during notification take effect with the next notification, including
+     * reentrant ones.
+     */
+    @SuppressWarnings("unchecked")
+    private void notifySnapshot(Object[] snapshot, T sender, int arg, A arg2) {
+        for (int i = 0; i < snapshot.length; i++) {
+            mNotifier.onNotifyCallback((C) snapshot[i], sender, arg, arg2);
+        }
+    }
+
+    private static int indexOf(Object[] callbacks, Object callback) {
+        for (int i = callbacks.length - 1; i >= 0; i--) {
+            if (callback.equals(callbacks[i])) {
+                return i;
             }
         }
+        return -1;
     }
 
     /**
@@ -209,13 +281,46 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      * be added. This does not affect current notifications.
      * @param callback The callback to add.
      */
-    public synchronized void add(C callback) {
+    public void add(C callback) {
         if (callback == null) {
             throw new IllegalArgumentException("callback cannot be null");
         }
-        int index = mCallbacks.lastIndexOf(callback);
-        if (index < 0 || isRemoved(index)) {
-            mCallbacks.add(callback);
+        if (isCopyOnWrite()) {
+            while (true) {
+                final Object[] snapshot = mSnapshot;
+                if (indexOf(snapshot, callback) >= 0) {
+                    return;
+                }
+                final Object[] updated = new Object[snapshot.length + 1];
+                System.arraycopy(snapshot, 0, updated, 0, snapshot.length);
+                updated[snapshot.length] = callback;
+                if (SNAPSHOT_UPDATER.compareAndSet(this, snapshot, updated)) {
+                    return;
+                }
+            }
+        }
+        synchronized (this) {
+            int index = mCallbacks.lastIndexOf(callback);
+            if (index < 0 || isRemoved(index)) {
+                mCallbacks.add(callback);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the callback is registered and has not been removed.
+     *
+     * @param callback The callback to look for.
+     * @return true if the callback will be notified by the next notification.
+     */
+    public boolean contains(C callback) {
+        final Object[] snapshot = mSnapshot;
+        if (snapshot != null) {
+            return callback != null && indexOf(snapshot, callback) >= 0;
+        }
+        synchronized (this) {
+            final int index = mCallbacks.lastIndexOf(callback);
+            return index >= 0 && !isRemoved(index);
         }
     }
 
@@ -273,13 +378,39 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      *
      * @param callback The callback to remove.
      */
-    public synchronized void remove(C callback) {
-        if (mNotificationLevel == 0) {
-            mCallbacks.remove(callback);
-        } else {
-            int index = mCallbacks.lastIndexOf(callback);
-            if (index >= 0) {
-                setRemovalBit(index);
+    public void remove(C callback) {
+        if (isCopyOnWrite()) {
+            if (callback == null) {
+                return;
+            }
+            while (true) {
+                final Object[] snapshot = mSnapshot;
+                final int index = indexOf(snapshot, callback);
+                if (index < 0) {
+                    return;
+                }
+                final Object[] updated;
+                if (snapshot.length == 1) {
+                    updated = NO_CALLBACKS;
+                } else {
+                    updated = new Object[snapshot.length - 1];
+                    System.arraycopy(snapshot, 0, updated, 0, index);
+                    System.arraycopy(snapshot, index + 1, updated, index,
+                            updated.length - index);
+                }
+                if (SNAPSHOT_UPDATER.compareAndSet(this, snapshot, updated)) {
+                    return;
+                }
+            }
+        }
+        synchronized (this) {
+            if (mNotificationLevel == 0) {
+                mCallbacks.remove(callback);
+            } else {
+                int index = mCallbacks.lastIndexOf(callback);
+                if (index >= 0) {
+                    setRemovalBit(index);
+                }
             }
         }
     }
@@ -309,14 +440,9 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      *
      * @return a copy of the registered callbacks.
      */
-    public synchronized ArrayList<C> copyCallbacks() {
-        ArrayList<C> callbacks = new ArrayList<C>(mCallbacks.size());
-        int numListeners = mCallbacks.size();
-        for (int i = 0; i < numListeners; i++) {
-            if (!isRemoved(i)) {
-                callbacks.add(mCallbacks.get(i));
-            }
-        }
+    public ArrayList<C> copyCallbacks() {
+        ArrayList<C> callbacks = new ArrayList<C>();
+        copyCallbacks(callbacks);
         return callbacks;
     }
 
@@ -325,12 +451,22 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      *
      * @param callbacks modified to contain all callbacks registered to receive events.
      */
-    public synchronized void copyCallbacks(List<C> callbacks) {
+    @SuppressWarnings("unchecked")
+    public void copyCallbacks(List<C> callbacks) {
         callbacks.clear();
-        int numListeners = mCallbacks.size();
-        for (int i = 0; i < numListeners; i++) {
-            if (!isRemoved(i)) {
-                callbacks.add(mCallbacks.get(i));
+        final Object[] snapshot = mSnapshot;
+        if (snapshot != null) {
+            for (Object callback : snapshot) {
+                callbacks.add((C) callback);
+            }
+            return;
+        }
+        synchronized (this) {
+            int numListeners = mCallbacks.size();
+            for (int i = 0; i < numListeners; i++) {
+                if (!isRemoved(i)) {
+                    callbacks.add(mCallbacks.get(i));
+                }
             }
         }
     }
@@ -340,31 +476,43 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
      *
      * @return true if there are no registered callbacks or false otherwise.
      */
-    public synchronized boolean isEmpty() {
-        if (mCallbacks.isEmpty()) {
-            return true;
-        } else if (mNotificationLevel == 0) {
-            return false;
-        } else {
-            int numListeners = mCallbacks.size();
-            for (int i = 0; i < numListeners; i++) {
-                if (!isRemoved(i)) {
-                    return false;
+    public boolean isEmpty() {
+        final Object[] snapshot = mSnapshot;
+        if (snapshot != null) {
+            return snapshot.length == 0;
+        }
+        synchronized (this) {
+            if (mCallbacks.isEmpty()) {
+                return true;
+            } else if (mNotificationLevel == 0) {
+                return false;
+            } else {
+                int numListeners = mCallbacks.size();
+                for (int i = 0; i < numListeners; i++) {
+                    if (!isRemoved(i)) {
+                        return false;
+                    }
                 }
+                return true;
             }
-            return true;
         }
     }
 
     /**
      * Removes all callbacks from the list.
      */
-    public synchronized void clear() {
-        if (mNotificationLevel == 0) {
-            mCallbacks.clear();
-        } else if (!mCallbacks.isEmpty()) {
-            for (int i = mCallbacks.size() - 1; i >= 0; i--) {
-                setRemovalBit(i);
+    public void clear() {
+        if (isCopyOnWrite()) {
+            mSnapshot = NO_CALLBACKS;
+            return;
+        }
+        synchronized (this) {
+            if (mNotificationLevel == 0) {
+                mCallbacks.clear();
+            } else if (!mCallbacks.isEmpty()) {
+                for (int i = mCallbacks.size() - 1; i >= 0; i--) {
+                    setRemovalBit(i);
+                }
             }
         }
     }
@@ -380,11 +528,16 @@ public class CallbackRegistry<C, T, A> implements Cloneable {
             clone.mFirst64Removed = 0;
             clone.mRemainderRemoved = null;
             clone.mNotificationLevel = 0;
-            clone.mCallbacks = new ArrayList<C>();
-            final int numListeners = mCallbacks.size();
-            for (int i = 0; i < numListeners; i++) {
-                if (!isRemoved(i)) {
-                    clone.mCallbacks.add(mCallbacks.get(i));
+            if (isCopyOnWrite()) {
+                // The snapshot is immutable, so it can be shared.
+                clone.mSnapshot = mSnapshot;
+            } else {
+                clone.mCallbacks = new ArrayList<C>();
+                final int numListeners = mCallbacks.size();
+                for (int i = 0; i < numListeners; i++) {
+                    if (!isRemoved(i)) {
+                        clone.mCallbacks.add(mCallbacks.get(i));
+                    }
                 }
             }
         } catch (CloneNotSupportedException e) {
@@ -88,4 +88,12 @@ public @interface InverseBindingAdapter {
      * data binding system to set the event listener when two-way binding is used.
      */
     String event() default "";
+
+    /**
+     * Declares that the event fires often, for example on every keystroke or drag step. When
+     * true, the generated code calls the inverse binding at most once per animation frame
+     * instead of once per event, always with the View's latest value. A value that is still
+     * pending when the binding executes is delivered first.
+     */
+    boolean coalesce() default false;
 }
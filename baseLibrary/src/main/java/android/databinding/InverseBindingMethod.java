@@ -95,4 +95,11 @@ public @interface InverseBindingMethod {
      * the bean method name based on the attribute name.
      */
     String method() default "";
+
+    /**
+     * Whether the events are delivered at most once per animation frame.
+     *
+     * @see InverseBindingAdapter#coalesce()
+     */
+    boolean coalesce() default false;
 }
@@ -234,7 +234,8 @@ public class ProcessMethodAdapters extends ProcessDataBinding.ProcessingStep {
                 L.e(element, "@BindingConversion method must return a value %s", element);
                 continue;
             }
-            store.addConversionMethod(executableElement);
+            store.addConversionMethod(executableElement,
+                    element.getAnnotation(BindingConversion.class).pure());
         }
     }
 
@@ -269,7 +270,7 @@ public class ProcessMethodAdapters extends ProcessDataBinding.ProcessingStep {
             }
             try {
                 store.addInverseAdapter(processingEnv, attribute, event, executableElement,
-                        takesComponent);
+                        takesComponent, inverseBindingAdapter.coalesce());
             } catch (IllegalArgumentException e) {
                 L.e(element, "@InverseBindingAdapter for duplicate View and parameter type: %s",
                         element);
@@ -297,7 +298,8 @@ public class ProcessMethodAdapters extends ProcessDataBinding.ProcessingStep {
                 } catch (MirroredTypeException e) {
                     type = e.getTypeMirror().toString();
                 }
-                store.addInverseMethod(attribute, event, type, method, (TypeElement) element);
+                store.addInverseMethod(attribute, event, type, method, (TypeElement) element,
+                        bindingMethod.coalesce());
             }
         }
     }
@@ -192,6 +192,38 @@ public class Binding implements LocationScopeProvider {
         return getSetterCall().getBindingAdapterInstanceClass();
     }
 
+    /**
+     * @return Whether the value is converted by a pure {@code @BindingConversion} whose result
+     * can be kept and reused while the value does not change.
+     */
+    public boolean hasPureConversion() {
+        final BindingSetterCall setterCall = getSetterCall();
+        return setterCall instanceof SetterCall && ((SetterCall) setterCall).hasPureConverter()
+                && getConversionType() != null;
+    }
+
+    /**
+     * @return The type the value is converted to.
+     */
+    public ModelClass getConversionType() {
+        return ((SetterCall) getSetterCall()).getConverterReturnType(mExpr.getResolvedType());
+    }
+
+    /**
+     * @return The code converting valueExpression with the pure conversion.
+     */
+    public String getConversionCall(String valueExpression) {
+        return ((SetterCall) getSetterCall()).getConverterCall(valueExpression);
+    }
+
+    /**
+     * Makes the setter call the given method of the binding, which remembers the last
+     * conversion, instead of calling the pure conversion itself.
+     */
+    public void setConversionMemo(String memoMethod) {
+        ((SetterCall) getSetterCall()).setConverterMemo(memoMethod);
+    }
+
     public Expr[] getComponentExpressions() {
         return new Expr[] { mExpr };
     }
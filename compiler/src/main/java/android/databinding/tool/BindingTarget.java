@@ -99,6 +99,13 @@ public class BindingTarget implements LocationScopeProvider {
         return mBundle.getOriginalTag();
     }
 
+    /**
+     * @return The tag of the closest binding target containing this one in the layout or null.
+     */
+    public String getParentTag() {
+        return mBundle.getParentTag();
+    }
+
     public String getViewClass() {
         return mBundle.getFullClassName();
     }
@@ -178,6 +178,13 @@ public class InverseBinding implements LocationScopeProvider {
         return getGetterCall().getEventAttribute();
     }
 
+    /**
+     * @return true if the View's events should be delivered at most once per frame.
+     */
+    public boolean isCoalesced() {
+        return !isOnBinder() && getGetterCall().isCoalesced();
+    }
+
     public ExprModel getModel() {
         if (mExpr != null) {
             return mExpr.getModel();
@@ -348,6 +348,14 @@ public class LayoutBinder implements FileScopeProvider {
         return mBundle.isMerge();
     }
 
+    /**
+     * @return true if the layout's data element allows its expressions to be evaluated on a
+     * worker thread and only the results to be applied on the UI thread.
+     */
+    public boolean isEvaluateAsync() {
+        return mBundle.isEvaluateAsync();
+    }
+
     public String getModulePackage() {
         return mModulePackage;
     }
@@ -54,6 +54,10 @@ public class BracketExpr extends Expr {
                     "expression. Cast the value to List, Map, " +
                     "or array. Type detected: " + targetType.toJavaCode());
         }
+        if (mAccessor == BracketAccessor.LIST && targetType.isPrimitiveList()) {
+            // Read through the unboxed getFromList overloads.
+            return targetType.getComponentType().unbox();
+        }
         return targetType.getComponentType();
     }
 
@@ -130,7 +134,8 @@ public class BracketExpr extends Expr {
                 ModelClass listType = ModelAnalyzer.getInstance().findClass(java.util.List.class).
                         erasure();
                 ModelClass targetType = getTarget().getResolvedType().erasure();
-                if (listType.isAssignableFrom(targetType)) {
+                if (listType.isAssignableFrom(targetType) ||
+                        getTarget().getResolvedType().isPrimitiveList()) {
                     return new KCode().
                             app("getFromList(", getTarget().toCode()).
                             app(", ").
@@ -163,7 +168,7 @@ public class BracketExpr extends Expr {
                 model.staticIdentifier(ModelAnalyzer.VIEW_DATA_BINDING);
         viewDataBinding.setUserDefinedType(ModelAnalyzer.VIEW_DATA_BINDING);
         ModelClass targetType = getTarget().getResolvedType();
-        if ((targetType.isList() || targetType.isMap()) &&
+        if ((targetType.isList() || targetType.isMap()) && !targetType.isPrimitiveList() &&
                 value.getResolvedType().isPrimitive()) {
             ModelClass boxed = value.getResolvedType().box();
             value = model.castExpr(boxed.toJavaCode(), value);
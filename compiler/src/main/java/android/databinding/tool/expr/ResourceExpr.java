@@ -21,9 +21,12 @@ import android.databinding.tool.reflection.ModelClass;
 import android.databinding.tool.writer.KCode;
 import android.databinding.tool.writer.LayoutBinderWriterKt;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ResourceExpr extends Expr {
 
@@ -38,6 +41,12 @@ public class ResourceExpr extends Expr {
         RESOURCE_TYPE_TO_R_OBJECT.put("stringArray", "array  ");
         RESOURCE_TYPE_TO_R_OBJECT.put("typedArray", "array");
     }
+
+    // Types whose value depends only on the id and the Configuration and is either immutable or
+    // safe to share between evaluations of the same expression.
+    private final static Set<String> CACHEABLE_TYPES = new HashSet<String>(Arrays.asList(
+            "bool", "color", "colorStateList", "dimen", "dimenOffset", "dimenSize", "fraction",
+            "integer", "string"));
     // lazily initialized
     private Map<String, ModelClass> mResourceToTypeMapping;
 
@@ -49,6 +58,9 @@ public class ResourceExpr extends Expr {
 
     protected final BindingTarget mTarget;
 
+    // the name of the generated method that caches the value, if any
+    private String mCacheAccessor;
+
     public ResourceExpr(BindingTarget target, String packageName, String resourceType,
             String resourceName, List<Expr> args) {
         super(args);
@@ -165,7 +177,38 @@ public class ResourceExpr extends Expr {
                 "transition".equals(mResourceType));
     }
 
+    /**
+     * @return true if the expression has a constant id and no arguments, so that its value only
+     * changes with the Configuration and can be read once per Configuration.
+     */
+    public boolean isCacheable() {
+        if (!getChildren().isEmpty()) {
+            return false;
+        }
+        if ("drawable".equals(mResourceType)) {
+            // A binder target shares the expression between all includes of the same layout
+            // and a Drawable must not be set on more than one View.
+            return !mTarget.isBinder();
+        }
+        return CACHEABLE_TYPES.contains(mResourceType);
+    }
+
+    /**
+     * Makes {@link #toJava()} call the given method instead of reading the resource. The method
+     * must return the value of {@link #toJavaUncached()} for the current Configuration.
+     */
+    public void setCacheAccessor(String cacheAccessor) {
+        mCacheAccessor = cacheAccessor;
+    }
+
     public String toJava() {
+        if (mCacheAccessor != null) {
+            return mCacheAccessor + "()";
+        }
+        return toJavaUncached();
+    }
+
+    public String toJavaUncached() {
         final String context = "getRoot().getContext()";
         final String viewName = requiresView() ? LayoutBinderWriterKt.getFieldName(mTarget) :
                 "getRoot()";
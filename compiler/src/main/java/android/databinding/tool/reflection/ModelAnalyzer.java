@@ -42,6 +42,16 @@ public abstract class ModelAnalyzer {
             "android.support.v4.util.LongSparseArray",
     };
 
+    /**
+     * Observable collections of primitives. Bracket expressions on them read and write the
+     * values unboxed.
+     */
+    public static final String[] PRIMITIVE_LIST_CLASS_NAMES = {
+            "android.databinding.ObservableIntArrayList",
+            "android.databinding.ObservableLongArrayList",
+            "android.databinding.ObservableSparseIntArray",
+    };
+
     public static final String MAP_CLASS_NAME = "java.util.Map";
 
     public static final String STRING_CLASS_NAME = "java.lang.String";
@@ -73,6 +83,7 @@ public abstract class ModelAnalyzer {
     public static final String VIEW_STUB_CLASS_NAME = "android.view.ViewStub";
 
     private ModelClass[] mListTypes;
+    private ModelClass[] mPrimitiveListTypes;
     private ModelClass mMapType;
     private ModelClass mStringType;
     private ModelClass mObjectType;
@@ -279,6 +290,19 @@ public abstract class ModelAnalyzer {
         return mListTypes;
     }
 
+    ModelClass[] getPrimitiveListTypes() {
+        if (mPrimitiveListTypes == null) {
+            mPrimitiveListTypes = new ModelClass[PRIMITIVE_LIST_CLASS_NAMES.length];
+            for (int i = 0; i < mPrimitiveListTypes.length; i++) {
+                final ModelClass modelClass = findClass(PRIMITIVE_LIST_CLASS_NAMES[i], null);
+                if (modelClass != null) {
+                    mPrimitiveListTypes[i] = modelClass.erasure();
+                }
+            }
+        }
+        return mPrimitiveListTypes;
+    }
+
     public ModelClass getMapType() {
         if (mMapType == null) {
             mMapType = loadClassErasure(MAP_CLASS_NAME);
@@ -58,6 +58,21 @@ public abstract class ModelClass {
                 }
             }
         }
+        return isPrimitiveList();
+    }
+
+    /**
+     * @return Whether or not this ModelClass is one of the observable collections of
+     * primitives, such as ObservableIntArrayList, whose elements are accessed unboxed.
+     */
+    public boolean isPrimitiveList() {
+        for (ModelClass listType : ModelAnalyzer.getInstance().getPrimitiveListTypes()) {
+            if (listType != null) {
+                if (listType.isAssignableFrom(this)) {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 
@@ -190,7 +190,7 @@ public class SetterStore {
     }
 
     public void addInverseMethod(String attribute, String event, String declaringClass,
-            String method, TypeElement declaredOn) {
+            String method, TypeElement declaredOn, boolean coalesce) {
         attribute = stripNamespace(attribute);
         event = stripNamespace(event);
         HashMap<String, InverseDescription> inverseMethods = mStore.inverseMethods.get(attribute);
@@ -199,7 +199,7 @@ public class SetterStore {
             mStore.inverseMethods.put(attribute, inverseMethods);
         }
         InverseDescription methodDescription = new InverseDescription(
-                declaredOn.getQualifiedName().toString(), method, event);
+                declaredOn.getQualifiedName().toString(), method, event, coalesce);
         L.d("STORE addInverseMethod desc %s", methodDescription);
         inverseMethods.put(declaringClass, methodDescription);
     }
@@ -230,7 +230,8 @@ public class SetterStore {
     }
 
     public void addInverseAdapter(ProcessingEnvironment processingEnv, String attribute,
-            String event, ExecutableElement bindingMethod, boolean takesComponent) {
+            String event, ExecutableElement bindingMethod, boolean takesComponent,
+            boolean coalesce) {
         attribute = stripNamespace(attribute);
         event = stripNamespace(event);
         L.d("STORE addInverseAdapter %s %s", attribute, bindingMethod);
@@ -252,7 +253,8 @@ public class SetterStore {
             throw new IllegalArgumentException("Already exists!");
         }
 
-        adapters.put(key, new InverseDescription(bindingMethod, event, takesComponent));
+        adapters.put(key, new InverseDescription(bindingMethod, event, takesComponent,
+                coalesce));
     }
 
     private static TypeMirror eraseType(ProcessingEnvironment processingEnv,
@@ -374,11 +376,16 @@ public class SetterStore {
     }
 
     public void addConversionMethod(ExecutableElement conversionMethod) {
-        L.d("STORE addConversionMethod %s", conversionMethod);
+        addConversionMethod(conversionMethod, false);
+    }
+
+    public void addConversionMethod(ExecutableElement conversionMethod, boolean isPure) {
+        L.d("STORE addConversionMethod %s, pure: %s", conversionMethod, isPure);
         List<? extends VariableElement> parameters = conversionMethod.getParameters();
         String fromType = getQualifiedName(parameters.get(0).asType());
         String toType = getQualifiedName(conversionMethod.getReturnType());
-        MethodDescription methodDescription = new MethodDescription(conversionMethod, 1, false);
+        MethodDescription methodDescription = new MethodDescription(conversionMethod, 1, false,
+                isPure);
         HashMap<String, MethodDescription> convertTo = mStore.conversionMethods.get(fromType);
         if (convertTo == null) {
             convertTo = new HashMap<String, MethodDescription>();
@@ -1131,17 +1138,30 @@ public class SetterStore {
 
         public final String componentClass;
 
+        /**
+         * Whether this is a conversion that always returns an equivalent result for equal
+         * inputs, see {@link android.databinding.BindingConversion#pure()}. Stores written
+         * before this field existed read it as false.
+         */
+        public final boolean isPure;
+
         public MethodDescription(String type, String method) {
             this.type = type;
             this.method = method;
             this.requiresOldValue = false;
             this.isStatic = true;
             this.componentClass = null;
+            this.isPure = false;
             L.d("BINARY created method desc 1 %s %s", type, method );
         }
 
         public MethodDescription(ExecutableElement method, int numAttributes,
                 boolean takesComponent) {
+            this(method, numAttributes, takesComponent, false);
+        }
+
+        public MethodDescription(ExecutableElement method, int numAttributes,
+                boolean takesComponent, boolean isPure) {
             TypeElement enclosingClass = (TypeElement) method.getEnclosingElement();
             this.type = enclosingClass.getQualifiedName().toString();
             this.method = method.getSimpleName().toString();
@@ -1151,6 +1171,7 @@ public class SetterStore {
             this.componentClass = takesComponent
                     ? getQualifiedName(method.getParameters().get(0).asType())
                     : null;
+            this.isPure = isPure;
 
             L.d("BINARY created method desc 2 %s %s, %s", type, this.method, method);
         }
@@ -1181,14 +1202,20 @@ public class SetterStore {
 
         public final String event;
 
-        public InverseDescription(String type, String method, String event) {
+        // Whether events are delivered at most once per frame.
+        public final boolean coalesce;
+
+        public InverseDescription(String type, String method, String event, boolean coalesce) {
             super(type, method);
             this.event = event;
+            this.coalesce = coalesce;
         }
 
-        public InverseDescription(ExecutableElement method, String event, boolean takesComponent) {
+        public InverseDescription(ExecutableElement method, String event, boolean takesComponent,
+                boolean coalesce) {
             super(method, 1, takesComponent);
             this.event = event;
+            this.coalesce = coalesce;
         }
 
         @Override
@@ -1196,7 +1223,8 @@ public class SetterStore {
             if (!super.equals(obj) || !(obj instanceof InverseDescription)) {
                 return false;
             }
-            return event.equals(((InverseDescription) obj).event);
+            final InverseDescription other = (InverseDescription) obj;
+            return event.equals(other.event) && coalesce == other.coalesce;
         }
 
         @Override
@@ -1426,6 +1454,7 @@ public class SetterStore {
 
     public static abstract class SetterCall implements BindingSetterCall {
         private MethodDescription mConverter;
+        private String mConverterMemo;
         protected String mCastString = "";
 
         public SetterCall() {
@@ -1435,6 +1464,43 @@ public class SetterStore {
             mConverter = converter;
         }
 
+        /**
+         * @return Whether the value is converted by a pure conversion whose result may be
+         * reused while the value does not change.
+         */
+        public boolean hasPureConverter() {
+            return mConverter != null && mConverter.isPure && !requiresOldValue();
+        }
+
+        /**
+         * @return The type returned by the conversion of a value of the given type or null
+         * if there is no conversion.
+         */
+        public ModelClass getConverterReturnType(ModelClass valueType) {
+            if (mConverter == null) {
+                return null;
+            }
+            final ModelAnalyzer modelAnalyzer = ModelAnalyzer.getInstance();
+            final ModelMethod method = modelAnalyzer.findClass(mConverter.type, null)
+                    .getMethod(mConverter.method, Arrays.asList(valueType), true, false);
+            return method == null ? null : method.getReturnType(null);
+        }
+
+        /**
+         * @return The code calling the conversion on the given value.
+         */
+        public String getConverterCall(String valueExpression) {
+            return mConverter.type + "." + mConverter.method + "(" + valueExpression + ")";
+        }
+
+        /**
+         * Makes the value converted by calling the given method of the binding instead of
+         * the conversion itself. The method is expected to remember the last result.
+         */
+        public void setConverterMemo(String memoMethod) {
+            mConverterMemo = memoMethod;
+        }
+
         protected abstract String toJavaInternal(String componentExpression, String viewExpression,
                 String converted);
 
@@ -1455,8 +1521,13 @@ public class SetterStore {
         }
 
         protected String convertValue(String valueExpression) {
-            return mConverter == null ? valueExpression :
-                    mConverter.type + "." + mConverter.method + "(" + valueExpression + ")";
+            if (mConverter == null) {
+                return valueExpression;
+            } else if (mConverterMemo != null) {
+                return mConverterMemo + "(" + valueExpression + ")";
+            } else {
+                return getConverterCall(valueExpression);
+            }
         }
 
         abstract public int getMinApi();
@@ -1647,6 +1718,11 @@ public class SetterStore {
         BindingSetterCall getEvent();
 
         String getEventAttribute();
+
+        /**
+         * @return true if the events should be delivered at most once per frame.
+         */
+        boolean isCoalesced();
     }
 
     public static class ViewDataBindingGetterCall implements BindingGetterCall {
@@ -1696,6 +1772,11 @@ public class SetterStore {
         public String getEventAttribute() {
             return mAttribute;
         }
+
+        @Override
+        public boolean isCoalesced() {
+            return false;
+        }
     }
 
     public static class ViewGetterCall implements BindingGetterCall {
@@ -1720,6 +1801,11 @@ public class SetterStore {
             return mInverseDescription.event;
         }
 
+        @Override
+        public boolean isCoalesced() {
+            return mInverseDescription.coalesce;
+        }
+
         @Override
         public String toJava(String componentExpression, String viewExpression) {
             return viewExpression + "." + mMethod.getName() + "()";
@@ -1807,6 +1893,11 @@ public class SetterStore {
         public String getEventAttribute() {
             return mInverseDescription.event;
         }
+
+        @Override
+        public boolean isCoalesced() {
+            return mInverseDescription.coalesce;
+        }
     }
 
     private static class InverseMethod {
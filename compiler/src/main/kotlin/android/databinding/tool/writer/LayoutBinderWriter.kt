@@ -26,6 +26,7 @@ import android.databinding.tool.expr.LambdaExpr
 import android.databinding.tool.expr.ListenerExpr
 import android.databinding.tool.expr.ResourceExpr
 import android.databinding.tool.expr.TernaryExpr
+import android.databinding.tool.expr.ViewFieldExpr
 import android.databinding.tool.expr.localizeGlobalVariables
 import android.databinding.tool.expr.shouldLocalizeInCallbacks
 import android.databinding.tool.expr.toCode
@@ -167,6 +168,10 @@ val BindingTarget.interfaceClass by lazyProp { target : BindingTarget ->
     }
 }
 
+val BindingTarget.goneFieldName by lazyProp { target : BindingTarget ->
+    target.model.getUniqueFieldName("m${target.readableName.capitalize()}Gone", false)
+}
+
 val BindingTarget.constructorParamName by lazyProp { target : BindingTarget ->
     target.model.getConstructorParamName(target.readableName)
 }
@@ -279,6 +284,11 @@ fun FlagSet.notEmpty(cb : (suffix : String, value : Long) -> Unit) {
     }
 }
 
+/**
+ * The static AtomicLongFieldUpdater of the dirty flag word with the given suffix.
+ */
+fun dirtyFlagsUpdater(suffix : String) = "sDirtyFlagsUpdater$suffix"
+
 fun getWordSuffix(wordIndex : Int) : String {
     return if(wordIndex == 0) "" else "_$wordIndex"
 }
@@ -341,10 +351,88 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
         variables.filter {it.isUsed || it.isIsUsedInCallback }
     }
 
+    /**
+     * Whether the setters notify property changes, which bindings only do when the library's
+     * ViewDataBinding is Observable.
+     */
+    val notifiesVariableChanges by lazy {
+        // TODO: Remove this condition after releasing version 1.1 of SDK
+        ModelAnalyzer.getInstance().findClass("android.databinding.ViewDataBinding", null)
+                .isObservable
+    }
+
     val callbacks by lazy {
         model.exprMap.values.filterIsInstance(LambdaExpr::class.java)
     }
 
+    /**
+     * Targets with an int android:visibility binding that contain other targets, each with its
+     * visibility binding and the flags that only bindings inside it depend on. While such a
+     * container is GONE, these flags are deferred instead of being evaluated.
+     */
+    val goneContainers by lazy {
+        val targets = layoutBinder.sortedTargets.filter { it.isUsed }
+        val targetsByTag = HashMap<String, BindingTarget>()
+        targets.filter { !it.isBinder && it.tag != null }.forEach { targetsByTag.put(it.tag, it) }
+        val invalidateAny = model.invalidateAnyBitSet
+        targets.map { container ->
+            val visibility = container.bindings.firstOrNull {
+                it.name == "android:visibility" && it.expr.resolvedType.isInt
+            }
+            if (visibility == null || container.isBinder || container.resolvedType == null ||
+                    container.resolvedType.extendsViewStub()) {
+                null
+            } else {
+                val inside = BitSet()
+                val outside = invalidateAny.clone() as BitSet
+                targets.forEach { target ->
+                    var parentTag = if (target == container) null else target.parentTag
+                    while (parentTag != null && parentTag != container.tag) {
+                        parentTag = targetsByTag[parentTag]?.parentTag
+                    }
+                    val flags = if (parentTag == null) outside else inside
+                    target.bindings.forEach { flags.or(it.expr.invalidFlags) }
+                }
+                inside.andNot(outside)
+                if (inside.isEmpty) null
+                else Triple(container, visibility, FlagSet(inside, model.flagBucketCount))
+            }
+        }.filterNotNull()
+    }
+
+    /**
+     * The bindings converting their values with a pure @BindingConversion, each with the name
+     * of the method that keeps the last input and result of the conversion.
+     */
+    val pureConversions by lazy {
+        layoutBinder.sortedTargets.filter { it.isUsed }
+                .flatMap { it.bindings }
+                .filter { it.hasPureConversion() }
+                .map { binding ->
+                    val name = model.getUniqueMethodName("conversion", false)
+                    binding.setConversionMemo(name)
+                    Pair(binding, name)
+                }
+    }
+
+    val cachedResources by lazy {
+        model.exprMap.values.filterIsInstance(ResourceExpr::class.java)
+                .filter { it.isUsed && it.isCacheable }
+                .map { expr ->
+                    val name = model.getUniqueMethodName("resource", false)
+                    expr.setCacheAccessor(name)
+                    Pair(expr, name)
+                }
+    }
+
+    /**
+     * Observable expressions read by evaluateBindings. When the layout evaluates its
+     * expressions asynchronously they are registered in applyBindings, so that observers are
+     * only ever changed on the UI thread. An observable that is first registered there was not
+     * observed when it was read, so its expressions are evaluated again.
+     */
+    val asyncRegistrations = arrayListOf<Expr>()
+
     public fun write(minSdk : kotlin.Int) : String  {
         Scope.reset()
         layoutBinder.resolveWhichExpressionsAreUsed()
@@ -373,8 +461,10 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                 }
                 nl(declareConstructor(minSdk))
                 nl(declareInvalidateAll())
+                nl(declareInvalidateViewStub())
                 nl(declareHasPendingBindings())
                 nl(declareSetVariable())
+                nl(declareSetVariables())
                 nl(variableSettersAndGetters())
                 nl(onFieldChange())
                 try {
@@ -385,6 +475,8 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                 }
 
                 nl(declareListenerImpls())
+                nl(declarePureConversions())
+                nl(declareCachedResources())
                 try {
                     Scope.enter(Scope.CALLBACK)
                     nl(declareCallbackImplementations())
@@ -532,7 +624,9 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
             if (!layoutBinder.hasVariations() || it.id == null) {
                 tab("this.${it.fieldName} = ${fieldConversion(it)};")
             }
-            if (!it.isBinder) {
+            if (it.isBinder) {
+                tab("this.${it.fieldName}.setContainingBinding(this);")
+            } else {
                 if (it.resolvedType != null && it.resolvedType.extendsViewStub()) {
                     tab("this.${it.fieldName}.setContainingBinding(this);")
                 }
@@ -645,10 +739,8 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
         block("public void invalidateAll()") {
             val fs = FlagSet(layoutBinder.model.invalidateAnyBitSet,
                     layoutBinder.model.flagBucketCount);
-            block("synchronized(this)") {
-                for (i in (0..(mDirtyFlags.buckets.size - 1))) {
-                    tab("${mDirtyFlags.localValue(i)} = ${fs.localValue(i)};")
-                }
+            for (i in (0..(mDirtyFlags.buckets.size - 1))) {
+                tab("${mDirtyFlags.localValue(i)} = ${fs.localValue(i)};")
             }
             includedBinders.filter{it.isUsed }.forEach { binder ->
                 nl("${binder.fieldName}.invalidateAll();")
@@ -657,18 +749,49 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
         }
     }
 
+    fun declareInvalidateViewStub() = kcode("") {
+        val invalidateAny = model.invalidateAnyBitSet
+        // When a stub inflates, only the expressions bound to it need to be evaluated again.
+        // Bindings that depend on nothing but constants can only be refreshed through the
+        // invalidate-any flag, so such stubs keep the default of invalidating everything.
+        val stubFlags = layoutBinder.sortedTargets.filter {
+            it.isUsed && it.resolvedType != null && it.resolvedType.extendsViewStub()
+        }.map { stub ->
+            val bits = BitSet()
+            val targeted = stub.bindings.all { binding ->
+                val flags = binding.expr.invalidFlags.clone() as BitSet
+                flags.andNot(invalidateAny)
+                bits.or(flags)
+                !flags.isEmpty
+            }
+            Pair(stub, if (targeted) FlagSet(bits, model.flagBucketCount) else null)
+        }.filter { it.second != null }
+        if (stubFlags.isNotEmpty()) {
+            nl("@Override")
+            block("protected void invalidateViewStub(android.databinding.ViewStubProxy viewStub)") {
+                stubFlags.forEachIndexed { i, pair ->
+                    val flagSet = pair.second!!
+                    val condition = "if (viewStub == this.${pair.first.fieldName})"
+                    block(if (i == 0) condition else "else $condition") {
+                        nl(setDirtyFlags(flagSet))
+                    }
+                }
+                block("else") {
+                    nl("super.invalidateViewStub(viewStub);")
+                }
+            }
+        }
+    }
+
     fun declareHasPendingBindings()  = kcode("") {
         nl("@Override")
         nl("public boolean hasPendingBindings() {") {
             if (mDirtyFlags.buckets.size > 0) {
-                tab("synchronized(this) {") {
-                    val flagCheck = 0.rangeTo(mDirtyFlags.buckets.size - 1).map {
-                            "${mDirtyFlags.localValue(it)} != 0"
-                    }.joinToString(" || ")
-                    tab("if ($flagCheck) {") {
-                        tab("return true;")
-                    }
-                    tab("}")
+                val flagCheck = 0.rangeTo(mDirtyFlags.buckets.size - 1).map {
+                        "${mDirtyFlags.localValue(it)} != 0"
+                }.joinToString(" || ")
+                tab("if ($flagCheck) {") {
+                    tab("return true;")
                 }
                 tab("}")
             }
@@ -707,6 +830,50 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
         nl("}")
     }
 
+    /**
+     * Variables assigned by setVariables(), sorted by name so that all variations of a layout
+     * agree on the order of the parameters. Empty if there are fewer than two variables.
+     */
+    val bulkSetVariables by lazy {
+        val declared = variables.filter { it.userDefinedType != null }.sortedBy { it.name }
+        if (declared.size < 2) emptyList<IdentifierExpr>() else declared
+    }
+
+    fun declareSetVariables() = kcode("") {
+        if (bulkSetVariables.isNotEmpty()) {
+            val params = bulkSetVariables.map { "${it.resolvedType.toJavaCode()} ${it.readableName}" }
+            val assigned = bulkSetVariables.filter { usedVariables.contains(it) }
+            block("public void setVariables(${params.joinToString(", ")})") {
+                assigned.forEach {
+                    if (it.isObservable) {
+                        nl("updateRegistration(${it.id}, ${it.readableName});");
+                    }
+                    nl("this.${it.fieldName} = ${it.readableName};")
+                }
+                if (assigned.isEmpty()) {
+                    nl("// not used, ignore")
+                } else {
+                    // one flag update and one rebind for all of them
+                    nl(setDirtyFlags(assigned.fold(FlagSet(), { flags, variable ->
+                        flags.or(variable.invalidateFlagSet)
+                    })))
+                    if (notifiesVariableChanges) {
+                        nl("beginBatch();")
+                        block("try") {
+                            assigned.forEach {
+                                nl("notifyPropertyChanged(${it.name.br()});")
+                            }
+                        }
+                        block("finally") {
+                            nl("endBatch();")
+                        }
+                    }
+                    nl("super.requestRebind();")
+                }
+            }
+        }
+    }
+
     fun variableSettersAndGetters() = kcode("") {
         variables.filterNot{ usedVariables.contains(it) }.forEach {
             nl("public void ${it.setterName}(${it.resolvedType.toJavaCode()} ${it.readableName}) {") {
@@ -727,14 +894,8 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                     }
                     nl("this.${it.fieldName} = ${it.readableName};")
                     // set dirty flags!
-                    val flagSet = it.invalidateFlagSet
-                    block("synchronized(this)") {
-                        mDirtyFlags.mapOr(flagSet) { suffix, index ->
-                            nl("${mDirtyFlags.localName}$suffix |= ${flagSet.localValue(index)};")
-                        }
-                    }
-                    // TODO: Remove this condition after releasing version 1.1 of SDK
-                    if (ModelAnalyzer.getInstance().findClass("android.databinding.ViewDataBinding", null).isObservable) {
+                    nl(setDirtyFlags(it.invalidateFlagSet))
+                    if (notifiesVariableChanges) {
                         nl("notifyPropertyChanged(${it.name.br()});")
                     }
                     nl("super.requestRebind();")
@@ -774,24 +935,14 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                                 // we are not yet able to merge them. This is why we merge their
                                 // flags below.
                                 block("case ${it.key}:") {
-                                    block("synchronized(this)") {
-                                        val flagSet = it.value.foldRight(FlagSet()) { l, r -> l.invalidateFlagSet.or(r) }
-
-                                        mDirtyFlags.mapOr(flagSet) { suffix, index ->
-                                            tab("${mDirtyFlags.localValue(index)} |= ${flagSet.localValue(index)};")
-                                        }
-                                    }
+                                    val flagSet = it.value.foldRight(FlagSet()) { l, r -> l.invalidateFlagSet.or(r) }
+                                    nl(setDirtyFlags(flagSet))
                                     nl("return true;")
                                 }
 
                             }
                     block("case ${"".br()}:") {
-                        val flagSet = it.invalidateFlagSet
-                        block("synchronized(this)") {
-                            mDirtyFlags.mapOr(flagSet) { suffix, index ->
-                                tab("${mDirtyFlags.localName}$suffix |= ${flagSet.localValue(index)};")
-                            }
-                        }
+                        nl(setDirtyFlags(it.invalidateFlagSet))
                         nl("return true;")
                     }
                 })
@@ -799,6 +950,36 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
             }
             nl("")
         }
+
+        // one array per observable, shared by all instances and subscriptions
+        val propertyIdFields = model.observables.map {
+            // Must match the cases of the onChange method above. _all is always delivered.
+            val brNames = it.parents.filterIsInstance(FieldAccessExpr::class.java)
+                    .filter { it.isUsed && it.hasBindableAnnotations() }
+                    .map { it.brName }
+                    .distinct()
+            val fieldName = model.getUniqueFieldName(
+                    "s${it.readableName.capitalize()}PropertyIds", false)
+            nl("private static final int[] $fieldName = new int[] {${brNames.joinToString(", ")}};")
+            Pair(it, fieldName)
+        }
+        if (propertyIdFields.isNotEmpty()) {
+            nl("")
+        }
+        nl("@Override")
+        nl("protected int[] getObservedPropertyIds(int localFieldId) {") {
+            tab("switch (localFieldId) {") {
+                propertyIdFields.forEach {
+                    tab("case ${it.first.id} :") {
+                        tab("return ${it.second};")
+                    }
+                }
+            }
+            tab("}")
+            tab("return null;")
+        }
+        nl("}")
+        nl("")
     }
 
     fun declareViews() = kcode("// views") {
@@ -818,10 +999,64 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
         usedVariables.forEach {
             nl("private ${it.resolvedType.toJavaCode()} ${it.fieldName};")
         }
+        if (goneContainers.isNotEmpty()) {
+            goneContainers.forEach {
+                nl("private boolean ${it.first.goneFieldName};")
+            }
+            for (i in (0..mDirtyFlags.buckets.size - 1)) {
+                nl("private long mDeferredDirtyFlags${getWordSuffix(i)};")
+            }
+        }
         callbacks.forEach {
             val wrapper = it.callbackWrapper
             nl("private final ${wrapper.klass.canonicalName} ${it.fieldName}").app(";")
         }
+        pureConversions.forEach {
+            val prefix = "m${it.second.capitalize()}"
+            nl("private boolean ${prefix}Memoized;")
+            nl("private ${it.first.expr.resolvedType.toJavaCode()} ${prefix}Input;")
+            nl("private ${it.first.conversionType.toJavaCode()} ${prefix}Output;")
+        }
+        cachedResources.forEach {
+            val prefix = "m${it.second.capitalize()}"
+            nl("private int ${prefix}Generation;")
+            nl("private ${it.first.resolvedType.toJavaCode()} ${prefix};")
+        }
+    }
+
+    fun declareCachedResources() = kcode("// resources read once per configuration") {
+        cachedResources.forEach {
+            val prefix = "m${it.second.capitalize()}"
+            block("private ${it.first.resolvedType.toJavaCode()} ${it.second}()") {
+                nl("final int generation = getResourceGeneration();")
+                block("if (${prefix}Generation != generation)") {
+                    nl("$prefix = ${it.first.toJavaUncached()};")
+                    nl("${prefix}Generation = generation;")
+                }
+                nl("return $prefix;")
+            }
+        }
+    }
+
+    fun declarePureConversions() = kcode("// pure conversions") {
+        pureConversions.forEach {
+            val binding = it.first
+            val prefix = "m${it.second.capitalize()}"
+            val inputType = binding.expr.resolvedType
+            val changed = if (inputType.isPrimitive) {
+                "${prefix}Input != value"
+            } else {
+                "(value == null ? ${prefix}Input != null : !value.equals(${prefix}Input))"
+            }
+            block("private ${binding.conversionType.toJavaCode()} ${it.second}(${inputType.toJavaCode()} value)") {
+                block("if (!${prefix}Memoized || $changed)") {
+                    nl("${prefix}Input = value;")
+                    nl("${prefix}Output = ${binding.getConversionCall("value")};")
+                    nl("${prefix}Memoized = true;")
+                }
+                nl("return ${prefix}Output;")
+            }
+        }
     }
 
     fun declareBoundValues() = kcode("// values") {
@@ -848,16 +1083,19 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
     fun declareInverseBindingImpls() = kcode("// Inverse Binding Event Handlers") {
         layoutBinder.sortedTargets.filter { it.isUsed }.forEach { target ->
             target.inverseBindings.forEach { inverseBinding ->
-                val className : String
+                val listenerClass : String
                 val param : String
                 if (inverseBinding.isOnBinder) {
-                    className = "android.databinding.ViewDataBinding.PropertyChangedInverseListener"
+                    listenerClass = "android.databinding.ViewDataBinding.PropertyChangedInverseListener"
                     param = "BR.${inverseBinding.eventAttribute}"
                 } else {
-                    className = "android.databinding.InverseBindingListener"
+                    listenerClass = "android.databinding.InverseBindingListener"
                     param = ""
                 }
-                block("private $className ${inverseBinding.fieldName} = new $className($param)") {
+                val declaration = "private $listenerClass ${inverseBinding.fieldName} = "
+                val coalesced = inverseBinding.isCoalesced
+                val listener = "new $listenerClass($param)"
+                block(if (coalesced) "${declaration}coalesceInverseBinding($listener" else "$declaration$listener") {
                     nl("@Override")
                     block("public void onChange()") {
                         if (inverseBinding.inverseExpr != null) {
@@ -869,18 +1107,14 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                             nl(inverseBinding.callbackExprModel.localizeGlobalVariables(valueExpr))
                             nl(inverseBinding.executionPath.toCode())
                         } else {
-                            block("synchronized(this)") {
-                                val flagSet = inverseBinding.chainedExpressions.fold(FlagSet(), { initial, expr ->
-                                    initial.or(FlagSet(expr.id))
-                                })
-                                mDirtyFlags.mapOr(flagSet) { suffix, index ->
-                                    tab("${mDirtyFlags.localValue(index)} |= ${flagSet.binaryCode(index)};")
-                                }
-                            }
+                            val flagSet = inverseBinding.chainedExpressions.fold(FlagSet(), { initial, expr ->
+                                initial.or(FlagSet(expr.id))
+                            })
+                            nl(setDirtyFlags(flagSet, "$className.this"))
                             nl("requestRebind();")
                         }
                     }
-                }.app(";")
+                }.app(if (coalesced) ");" else ";")
             }
         }
     }
@@ -888,10 +1122,27 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
         model.ext.localizedFlags.forEach { flag ->
             flag.notEmpty { suffix, value ->
                 nl("private")
-                app(" ", if(flag.isDynamic) null else "static final");
+                app(" ", if(flag.isDynamic) "volatile" else "static final");
                 app(" ", " ${flag.type} ${flag.localName}$suffix = ${longToBinary(value)};")
             }
         }
+        for (i in (0..mDirtyFlags.buckets.size - 1)) {
+            val suffix = getWordSuffix(i)
+            val updaterType = "java.util.concurrent.atomic.AtomicLongFieldUpdater<$className>"
+            nl("private static final $updaterType ${dirtyFlagsUpdater(suffix)} =") {
+                tab("java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater($className.class, \"${mDirtyFlags.localName}$suffix\");")
+            }
+        }
+    }
+
+    /**
+     * Sets the dirty flags of the given set with a compare-and-set per word so that
+     * notifications arriving on several threads never lose each other's flags.
+     */
+    fun setDirtyFlags(flagSet : FlagSet, owner : String = "this") = kcode(null) {
+        mDirtyFlags.mapOr(flagSet) { suffix, index ->
+            nl("setDirtyFlags(${dirtyFlagsUpdater(suffix)}, $owner, ${flagSet.binaryCode(index)});")
+        }
     }
 
     fun flagMapping() = kcode("/* flag mapping") {
@@ -905,21 +1156,87 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
     }
 
     fun executePendingBindings() = kcode("") {
+        val tmpDirtyFlags = FlagSet(mDirtyFlags.buckets)
+        tmpDirtyFlags.localName = "dirtyFlags";
+        // reading marks the model's expressions as read, so take the locals first
+        val localized = model.pendingExpressions.filter { it.needsLocalField }
+        val async = layoutBinder.isEvaluateAsync
+        val valuesName = if (!async) "" else
+                model.ext.getUniqueName("values", Scope.EXECUTE_PENDING_METHOD, false)
+        val pendingFlagsName = if (!async) "" else
+                model.ext.getUniqueName("pendingFlags", Scope.EXECUTE_PENDING_METHOD, false)
+        if (async) {
+            model.exprMap.values.firstOrNull { it is ViewFieldExpr && it.isUsed }?.let {
+                L.e("Layouts declaring evaluateAsync cannot access Views in expressions: %s", it)
+            }
+            nl("@Override")
+            block("protected boolean supportsAsyncEvaluation()") {
+                nl("return true;")
+            }
+            nl("")
+            nl("@Override")
+            block("protected void executeBindings()") {
+                nl("applyBindings(evaluateBindingsExclusively());")
+            }
+            nl("")
+            nl("@Override")
+            block("protected void restoreDirtyFlags(Object[] $valuesName)") {
+                nl("final long[] restored = (long[]) $valuesName[0];")
+                for (i in (0..mDirtyFlags.buckets.size - 1)) {
+                    nl("setDirtyFlags(${dirtyFlagsUpdater(getWordSuffix(i))}, this, restored[$i]);")
+                }
+            }
+            nl("")
+        }
         nl("@Override")
-        block("protected void executeBindings()") {
-            val tmpDirtyFlags = FlagSet(mDirtyFlags.buckets)
-            tmpDirtyFlags.localName = "dirtyFlags";
+        block(if (async) "protected Object[] evaluateBindings()" else "protected void executeBindings()") {
             for (i in (0..mDirtyFlags.buckets.size - 1)) {
                 nl("${tmpDirtyFlags.type} ${tmpDirtyFlags.localValue(i)} = 0;")
             }
-            block("synchronized(this)") {
+            if (async) {
+                localized.forEach {
+                    nl("${it.resolvedType.toJavaCode()} ${it.executePendingLocalName} = ${it.defaultValue};")
+                }
+            }
+            // each word is taken and cleared atomically; a setter stores its variable before it
+            // sets its flag so the variables read afterwards are at least as new as the flags
+            for (i in (0..mDirtyFlags.buckets.size - 1)) {
+                nl("${tmpDirtyFlags.localValue(i)} = ${dirtyFlagsUpdater(getWordSuffix(i))}.getAndSet(this, 0);")
+            }
+            if (async) {
+                localized.filter { it.isVariable() }.forEach {
+                    nl("${it.executePendingLocalName} = ${it.fieldName};")
+                }
+            }
+            if (goneContainers.isNotEmpty()) {
+                nl("// flags deferred while views containing their bindings were gone")
                 for (i in (0..mDirtyFlags.buckets.size - 1)) {
-                    nl("${tmpDirtyFlags.localValue(i)} = ${mDirtyFlags.localValue(i)};")
-                    nl("${mDirtyFlags.localValue(i)} = 0;")
+                    val suffix = getWordSuffix(i)
+                    nl("${tmpDirtyFlags.localValue(i)} |= mDeferredDirtyFlags$suffix;")
+                    nl("mDeferredDirtyFlags$suffix = 0;")
+                }
+                goneContainers.forEach {
+                    val container = it.first
+                    val visibilityFlags = it.second.expr.dirtyFlagSet
+                    val deferred = it.third
+                    val visibilityClean = tmpDirtyFlags.mapOr(visibilityFlags) { suffix, index ->
+                        "(${tmpDirtyFlags.localValue(index)} & ${visibilityFlags.localValue(index)}) == 0"
+                    }.joinToString(" && ")
+                    block("if (${container.goneFieldName} && $visibilityClean)") {
+                        tmpDirtyFlags.mapOr(deferred) { suffix, index ->
+                            nl("mDeferredDirtyFlags$suffix |= ${tmpDirtyFlags.localValue(index)} & ${deferred.localValue(index)};")
+                            nl("${tmpDirtyFlags.localValue(index)} &= ~${deferred.localValue(index)};")
+                        }
+                    }
                 }
             }
-            model.pendingExpressions.filter { it.needsLocalField }.forEach {
-                nl("${it.resolvedType.toJavaCode()} ${it.executePendingLocalName} = ${if (it.isVariable()) it.fieldName else it.defaultValue};")
+            val pendingFlags = (0..mDirtyFlags.buckets.size - 1).map { tmpDirtyFlags.localValue(it) }
+            if (async) {
+                nl("final long[] $pendingFlagsName = new long[] {${pendingFlags.joinToString(", ")}};")
+            } else {
+                localized.forEach {
+                    nl("${it.resolvedType.toJavaCode()} ${it.executePendingLocalName} = ${if (it.isVariable()) it.fieldName else it.defaultValue};")
+                }
             }
             L.d("writing executePendingBindings for %s", className)
             do {
@@ -944,58 +1261,107 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                         + "Please report on b.android.com. %d %s %s", layoutBinder.layoutname,
                         batch.size, batch[0], batch[0].toCode().generate())
             }
-            //
-            layoutBinder.sortedTargets.filter { it.isUsed }
-                    .flatMap { it.bindings }
-                    .groupBy {
-                        "${tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { suffix, index ->
-                            "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
-                        }.joinToString(" || ") }"
-                    }.forEach {
-                block("if (${it.key})") {
-                    it.value.groupBy { Math.max(1, it.minApi) }.forEach {
-                        val setterValues = kcode("") {
-                            it.value.forEach { binding ->
-                                nl(binding.toAssignmentCode()).app(";")
+            if (async) {
+                val values = pendingFlags + localized.map { it.executePendingLocalName }
+                nl("return new Object[] {$pendingFlagsName, ${values.joinToString(", ")}};")
+            } else {
+                nl(applyBindingsCode(tmpDirtyFlags))
+            }
+        }
+        if (async) {
+            nl("")
+            nl("@Override")
+            nl("@SuppressWarnings(\"unchecked\")")
+            block("protected void applyBindings(Object[] $valuesName)") {
+                for (i in (0..mDirtyFlags.buckets.size - 1)) {
+                    nl("final ${tmpDirtyFlags.type} ${tmpDirtyFlags.localValue(i)} = (Long) $valuesName[${i + 1}];")
+                }
+                localized.forEachIndexed { i, expr ->
+                    val type = expr.resolvedType
+                    val cast = if (type.isPrimitive) type.box().toJavaCode() else type.toJavaCode()
+                    nl("${type.toJavaCode()} ${expr.executePendingLocalName} = ($cast) $valuesName[${i + 1 + mDirtyFlags.buckets.size}];")
+                }
+                asyncRegistrations.groupBy { it.shouldReadFlagSet }.forEach {
+                    val flagSet = it.key
+                    block("if (${tmpDirtyFlags.mapOr(flagSet) { suffix, index ->
+                        "(${tmpDirtyFlags.localValue(index)} & ${flagSet.localValue(index)}) != 0"
+                    }.joinToString(" || ")})") {
+                        it.value.forEach { expr ->
+                            block("if (updateRegistration(${expr.id}, ${expr.executePendingLocalName}) && isApplyingEvaluatedBindings())") {
+                                nl("// it may have changed after it was read")
+                                nl(setDirtyFlags(expr.invalidateFlagSet))
                             }
                         }
-                        nl("// api target ${it.key}")
-                        if (it.key > 1) {
-                            block("if(getBuildSdkInt() >= ${it.key})") {
-                                nl(setterValues)
-                            }
-                        } else {
+                    }
+                }
+                nl(applyBindingsCode(tmpDirtyFlags))
+            }
+        }
+    }
+
+    /**
+     * The View setters of executeBindings, which only use the locals assigned while reading.
+     */
+    fun applyBindingsCode(tmpDirtyFlags : FlagSet) = kcode("") {
+        layoutBinder.sortedTargets.filter { it.isUsed }
+                .flatMap { it.bindings }
+                .groupBy {
+                    "${tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { suffix, index ->
+                        "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
+                    }.joinToString(" || ") }"
+                }.forEach {
+            block("if (${it.key})") {
+                it.value.groupBy { Math.max(1, it.minApi) }.forEach {
+                    val setterValues = kcode("") {
+                        it.value.forEach { binding ->
+                            nl(binding.toAssignmentCode()).app(";")
+                        }
+                    }
+                    nl("// api target ${it.key}")
+                    if (it.key > 1) {
+                        block("if(getBuildSdkInt() >= ${it.key})") {
                             nl(setterValues)
                         }
+                    } else {
+                        nl(setterValues)
                     }
                 }
             }
+        }
 
 
-            layoutBinder.sortedTargets.filter { it.isUsed }
-                    .flatMap { it.bindings }
-                    .filter { it.requiresOldValue() }
-                    .groupBy {"${tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { suffix, index ->
-                        "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
-                    }.joinToString(" || ")
-                    }"}.forEach {
-                block("if (${it.key})") {
-                    it.value.groupBy { it.expr }.map { it.value.first() }.forEach {
-                        it.componentExpressions.forEach { expr ->
-                            nl("this.${expr.oldValueName} = ${expr.toCode().generate()};")
-                        }
+        layoutBinder.sortedTargets.filter { it.isUsed }
+                .flatMap { it.bindings }
+                .filter { it.requiresOldValue() }
+                .groupBy {"${tmpDirtyFlags.mapOr(it.expr.dirtyFlagSet) { suffix, index ->
+                    "(${tmpDirtyFlags.localValue(index)} & ${it.expr.dirtyFlagSet.localValue(index)}) != 0"
+                }.joinToString(" || ")
+                }"}.forEach {
+            block("if (${it.key})") {
+                it.value.groupBy { it.expr }.map { it.value.first() }.forEach {
+                    it.componentExpressions.forEach { expr ->
+                        nl("this.${expr.oldValueName} = ${expr.toCode().generate()};")
                     }
                 }
             }
-            includedBinders.filter{it.isUsed }.forEach { binder ->
-                nl("${binder.fieldName}.executePendingBindings();")
+        }
+        goneContainers.forEach {
+            val visibilityFlags = it.second.expr.dirtyFlagSet
+            val visibilityDirty = tmpDirtyFlags.mapOr(visibilityFlags) { suffix, index ->
+                "(${tmpDirtyFlags.localValue(index)} & ${visibilityFlags.localValue(index)}) != 0"
+            }.joinToString(" || ")
+            block("if ($visibilityDirty)") {
+                nl("this.${it.first.goneFieldName} = ${it.second.expr.toCode().generate()} == android.view.View.GONE;")
             }
-            layoutBinder.sortedTargets.filter{
-                it.isUsed && it.resolvedType != null && it.resolvedType.extendsViewStub()
-            }.forEach {
-                block("if (${it.fieldName}.getBinding() != null)") {
-                    nl("${it.fieldName}.getBinding().executePendingBindings();")
-                }
+        }
+        includedBinders.filter{it.isUsed }.forEach { binder ->
+            nl("${binder.fieldName}.executePendingBindings();")
+        }
+        layoutBinder.sortedTargets.filter{
+            it.isUsed && it.resolvedType != null && it.resolvedType.extendsViewStub()
+        }.forEach {
+            block("if (${it.fieldName}.getBinding() != null)") {
+                nl("${it.fieldName}.getBinding().executePendingBindings();")
             }
         }
     }
@@ -1032,7 +1398,11 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                             app("", assignment)
                         }
                         it.value.filter { it.isObservable }.forEach { expr: Expr ->
-                            tab("updateRegistration(${expr.id}, ${expr.executePendingLocalName});")
+                            if (layoutBinder.isEvaluateAsync) {
+                                asyncRegistrations.add(expr)
+                            } else {
+                                tab("updateRegistration(${expr.id}, ${expr.executePendingLocalName});")
+                            }
                         }
                     }
 
@@ -1257,6 +1627,12 @@ class LayoutBinderWriter(val layoutBinder : LayoutBinder) {
                     tab("public abstract void ${it.setterName}($type ${it.readableName});")
                 }
             }
+            if (bulkSetVariables.isNotEmpty()) {
+                val params = bulkSetVariables.map {
+                    "${ModelAnalyzer.getInstance().applyImports(it.userDefinedType, model.imports)} ${it.readableName}"
+                }
+                tab("public abstract void setVariables(${params.joinToString(", ")});")
+            }
             tab("public static $baseClassName inflate(android.view.LayoutInflater inflater, android.view.ViewGroup root, boolean attachToRoot) {") {
                 tab("return inflate(inflater, root, attachToRoot, android.databinding.DataBindingUtil.getDefaultComponent());")
             }
@@ -36,6 +36,11 @@ public class CallbackRegistryTest {
     int[] deepNotifyCount = new int[300];
     Integer argValue;
 
+    protected CallbackRegistry<Integer, CallbackRegistryTest, Integer> newRegistry(
+            CallbackRegistry.NotifierCallback<Integer, CallbackRegistryTest, Integer> notifier) {
+        return new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+    }
+
     private void addNotifyCount(Integer callback) {
         if (callback == callback1) {
             notify1++;
@@ -56,7 +61,7 @@ public class CallbackRegistryTest {
                             int arg, Integer arg2) {
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         Integer callback = 0;
 
         assertNotNull(registry.copyCallbacks());
@@ -99,7 +104,7 @@ public class CallbackRegistryTest {
                         argValue = arg;
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         registry.add(callback2);
         Integer arg = 1;
         registry.notifyCallbacks(this, arg, arg);
@@ -121,7 +126,7 @@ public class CallbackRegistryTest {
                         }
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         registry.add(callback1);
         registry.add(callback2);
         registry.add(callback3);
@@ -147,7 +152,7 @@ public class CallbackRegistryTest {
                         registry.notifyCallbacks(CallbackRegistryTest.this, arg1, null);
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         registry.add(callback1);
         registry.add(callback2);
         registry.add(callback3);
@@ -176,7 +181,7 @@ public class CallbackRegistryTest {
                         }
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
 
         registry.add(callback1);
         registry.add(callback2);
@@ -210,7 +215,7 @@ public class CallbackRegistryTest {
                         registry.notifyCallbacks(CallbackRegistryTest.this, arg1, null);
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         for (int i = 0; i < callbacks.length; i++) {
             registry.add(callbacks[i]);
         }
@@ -234,7 +239,7 @@ public class CallbackRegistryTest {
                         addNotifyCount(callback);
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         for (int i = 0; i < deepNotifyCount.length; i++) {
             registry.add(i);
         }
@@ -260,7 +265,7 @@ public class CallbackRegistryTest {
                         registry.clear();
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         for (int i = 0; i < deepNotifyCount.length; i++) {
             registry.add(i);
         }
@@ -282,7 +287,7 @@ public class CallbackRegistryTest {
                             int arg, Integer arg2) {
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
         Integer callback = 0;
 
         assertTrue(registry.isEmpty());
@@ -299,7 +304,7 @@ public class CallbackRegistryTest {
                             int arg, Integer arg2) {
                     }
                 };
-        registry = new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier);
+        registry = newRegistry(notifier);
 
         assertTrue(registry.isEmpty());
         CallbackRegistry<Integer, CallbackRegistryTest, Integer> registry2 = registry.clone();
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs all of the CallbackRegistryTest tests against the copy-on-write mode, plus tests for
+ * concurrent modification.
+ */
+public class CopyOnWriteCallbackRegistryTest extends CallbackRegistryTest {
+
+    @Override
+    protected CallbackRegistry<Integer, CallbackRegistryTest, Integer> newRegistry(
+            CallbackRegistry.NotifierCallback<Integer, CallbackRegistryTest, Integer> notifier) {
+        return new CallbackRegistry<Integer, CallbackRegistryTest, Integer>(notifier, true);
+    }
+
+    @Test
+    public void testIsCopyOnWrite() {
+        CallbackRegistry.NotifierCallback<Integer, CallbackRegistryTest, Integer> notifier =
+                new CallbackRegistry.NotifierCallback<Integer, CallbackRegistryTest, Integer>() {
+                    @Override
+                    public void onNotifyCallback(Integer callback, CallbackRegistryTest sender,
+                            int arg, Integer arg2) {
+                    }
+                };
+        assertTrue(newRegistry(notifier).isCopyOnWrite());
+        assertTrue(newRegistry(notifier).clone().isCopyOnWrite());
+    }
+
+    @Test
+    public void testConcurrentAddRemove() throws Exception {
+        final AtomicInteger notified = new AtomicInteger();
+        CallbackRegistry.NotifierCallback<Integer, CallbackRegistryTest, Integer> notifier =
+                new CallbackRegistry.NotifierCallback<Integer, CallbackRegistryTest, Integer>() {
+                    @Override
+                    public void onNotifyCallback(Integer callback, CallbackRegistryTest sender,
+                            int arg, Integer arg2) {
+                        notified.incrementAndGet();
+                    }
+                };
+        registry = newRegistry(notifier);
+        final int threadCount = 4;
+        final int perThread = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int base = t * perThread;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            registry.add(base + i);
+                            registry.notifyCallbacks(CopyOnWriteCallbackRegistryTest.this, 0,
+                                    null);
+                        }
+                        // Remove the odd ones again.
+                        for (int i = 1; i < perThread; i += 2) {
+                            registry.remove(base + i);
+                        }
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+        done.await();
+
+        ArrayList<Integer> callbacks = registry.copyCallbacks();
+        assertEquals(threadCount * perThread / 2, callbacks.size());
+        for (Integer callback : callbacks) {
+            assertEquals(0, callback % 2);
+        }
+        assertTrue(notified.get() > 0);
+        notified.set(0);
+        registry.notifyCallbacks(this, 0, null);
+        assertEquals(callbacks.size(), notified.get());
+    }
+}
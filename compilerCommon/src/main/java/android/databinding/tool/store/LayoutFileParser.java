@@ -246,6 +246,8 @@ public class LayoutFileParser {
             final ResourceBundle.BindingTargetBundle bindingTargetBundle =
                     bundle.createBindingTarget(id, viewName, true, tag, originalTag,
                             new Location(parent));
+            // Ancestors are visited first, so their tags are already known.
+            bindingTargetBundle.setParentTag(findParentTag(parent, nodeTagMap));
             nodeTagMap.put(parent, tag);
             bindingTargetBundle.setIncludedLayout(includedLayoutName);
 
@@ -281,6 +283,18 @@ public class LayoutFileParser {
         }
     }
 
+    private static String findParentTag(XMLParser.ElementContext element,
+            Map<XMLParser.ElementContext, String> nodeTagMap) {
+        for (ParserRuleContext ctx = element.getParent(); ctx != null; ctx = ctx.getParent()) {
+            //noinspection SuspiciousMethodCalls
+            final String tag = nodeTagMap.get(ctx);
+            if (tag != null) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
     private String getViewName(XMLParser.ElementContext elm) {
         String viewName = elm.elmName.getText();
         if ("view".equals(viewName)) {
@@ -350,6 +364,13 @@ public class LayoutFileParser {
                 bundle.setBindingClass(name, location);
             }
         }
+
+        // 表达式是否可以在工作线程中求值
+        final XMLParser.AttributeContext evaluateAsync = findAttribute(data, "evaluateAsync");
+        if (evaluateAsync != null) {
+            final String value = escapeQuotes(evaluateAsync.attrValue.getText(), true);
+            bundle.setEvaluateAsync(Boolean.parseBoolean(value.trim()));
+        }
     }
 
     private XMLParser.ElementContext getDataNode(XMLParser.ElementContext root) {
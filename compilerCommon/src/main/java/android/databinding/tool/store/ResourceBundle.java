@@ -423,6 +423,10 @@ public class ResourceBundle implements Serializable {
         @XmlAttribute(name="isMerge", required = true)
         private boolean mIsMerge;
 
+        // Whether the expressions may be evaluated off the UI thread, as given by the user
+        @XmlAttribute(name="evaluateAsync", required = false)
+        private boolean mEvaluateAsync;
+
         private LocationScopeProvider mClassNameLocationProvider;
 
         // for XML binding
@@ -522,6 +526,14 @@ public class ResourceBundle implements Serializable {
             return mIsMerge;
         }
 
+        public boolean isEvaluateAsync() {
+            return mEvaluateAsync;
+        }
+
+        public void setEvaluateAsync(boolean evaluateAsync) {
+            mEvaluateAsync = evaluateAsync;
+        }
+
         public String getBindingClassName() {
             if (mBindingClassName == null) {
                 String fullClass = getFullBindingClass();
@@ -759,6 +771,8 @@ public class ResourceBundle implements Serializable {
         public List<BindingBundle> mBindingBundleList = new ArrayList<BindingBundle>();
         @XmlAttribute(name="include")
         public String mIncludedLayout;
+        @XmlAttribute(name="parentTag")
+        public String mParentTag;
         @XmlElement(name="location")
         public Location mLocation;
         private String mInterfaceType;
@@ -793,6 +807,18 @@ public class ResourceBundle implements Serializable {
             return mIncludedLayout != null;
         }
 
+        /**
+         * @return The tag of the closest ancestor in the layout that is a binding target itself
+         * or null if there is none.
+         */
+        public String getParentTag() {
+            return mParentTag;
+        }
+
+        public void setParentTag(String parentTag) {
+            mParentTag = parentTag;
+        }
+
         public void setInterfaceType(String interfaceType) {
             mInterfaceType = interfaceType;
         }
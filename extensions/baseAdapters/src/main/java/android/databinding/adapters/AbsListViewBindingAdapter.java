@@ -20,6 +20,9 @@ import android.databinding.BindingMethod;
 import android.databinding.BindingMethods;
 import android.widget.AbsListView;
 import android.widget.AbsListView.OnScrollListener;
+import android.widget.ListAdapter;
+
+import java.util.List;
 
 @BindingMethods({
         @BindingMethod(type = AbsListView.class, attribute = "android:listSelector", method = "setSelector"),
@@ -52,6 +55,24 @@ public class AbsListViewBindingAdapter {
         });
     }
 
+    @BindingAdapter({"android:entries", "android:entryLayout", "android:entryVariable"})
+    public static <T> void setEntries(AbsListView view, List<T> entries, int layoutId,
+            int variableId) {
+        if (entries != null) {
+            ListAdapter oldAdapter = view.getAdapter();
+            if (oldAdapter instanceof ObservableListBindingAdapter &&
+                    ((ObservableListBindingAdapter) oldAdapter).getLayoutId() == layoutId &&
+                    ((ObservableListBindingAdapter) oldAdapter).getVariableId() == variableId) {
+                ((ObservableListBindingAdapter<T>) oldAdapter).setList(entries);
+            } else {
+                view.setAdapter(new ObservableListBindingAdapter<T>(entries, layoutId, 0,
+                        variableId, null));
+            }
+        } else {
+            view.setAdapter(null);
+        }
+    }
+
     public interface OnScroll {
         void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
                 int totalItemCount);
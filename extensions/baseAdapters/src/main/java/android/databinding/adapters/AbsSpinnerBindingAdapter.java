@@ -65,4 +65,22 @@ public class AbsSpinnerBindingAdapter {
             view.setAdapter(null);
         }
     }
+
+    @BindingAdapter({"android:entries", "android:entryLayout", "android:entryVariable"})
+    public static <T> void setEntries(AbsSpinner view, List<T> entries, int layoutId,
+            int variableId) {
+        if (entries != null) {
+            SpinnerAdapter oldAdapter = view.getAdapter();
+            if (oldAdapter instanceof ObservableListBindingAdapter &&
+                    ((ObservableListBindingAdapter) oldAdapter).getLayoutId() == layoutId &&
+                    ((ObservableListBindingAdapter) oldAdapter).getVariableId() == variableId) {
+                ((ObservableListBindingAdapter<T>) oldAdapter).setList(entries);
+            } else {
+                view.setAdapter(new ObservableListBindingAdapter<T>(entries, layoutId, 0,
+                        variableId, null));
+            }
+        } else {
+            view.setAdapter(null);
+        }
+    }
 }
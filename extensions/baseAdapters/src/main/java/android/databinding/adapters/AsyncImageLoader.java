@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.adapters;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads images on an Executor and keeps the results in a least recently used cache bounded by
+ * the number of bytes of the cached images.
+ * <p>
+ * Requests are made on behalf of an owner, usually the View showing the image. A new request
+ * for an owner cancels the request it made before, so a recycled View that is bound to another
+ * image never receives the image it was bound to earlier.
+ * <p>
+ * This class does not depend on the Android framework. The {@link Decoder} decides what an
+ * image is and how it is read.
+ *
+ * @param <T> The type of the images.
+ */
+public class AsyncImageLoader<T> {
+    /**
+     * Reads images. Decoders are called on the decode Executor.
+     */
+    public interface Decoder<T> {
+        /**
+         * Reads the image at uri, scaled down to about the given size when it is larger.
+         *
+         * @param uri The location of the image.
+         * @param width The width the image is shown at or 0 if it is not known.
+         * @param height The height the image is shown at or 0 if it is not known.
+         * @return The image, never null.
+         * @throws Exception When the image cannot be read.
+         */
+        T decode(String uri, int width, int height) throws Exception;
+
+        /**
+         * @return The number of bytes used by image.
+         */
+        int sizeOf(T image);
+    }
+
+    /**
+     * Receives the result of a request on the delivery Executor.
+     */
+    public interface Target<T> {
+        void onImageLoaded(T image);
+
+        void onImageFailed(Exception e);
+    }
+
+    private final Decoder<T> mDecoder;
+    private final Executor mDecodeExecutor;
+    private final Executor mDeliveryExecutor;
+    private final long mMaxBytes;
+
+    // guarded by mCache
+    private final LinkedHashMap<String, T> mCache = new LinkedHashMap<String, T>(16, 0.75f, true);
+    private long mCacheBytes;
+
+    // guarded by mRequests
+    private final WeakHashMap<Object, Request> mRequests = new WeakHashMap<Object, Request>();
+
+    /**
+     * @param decoder Reads the images.
+     * @param maxBytes The maximum number of bytes of the cached images.
+     * @param decodeExecutor Runs the decoder.
+     * @param deliveryExecutor Delivers the results to the Targets, usually on the main thread.
+     */
+    public AsyncImageLoader(Decoder<T> decoder, long maxBytes, Executor decodeExecutor,
+            Executor deliveryExecutor) {
+        mDecoder = decoder;
+        mMaxBytes = maxBytes;
+        mDecodeExecutor = decodeExecutor;
+        mDeliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * Loads the image at uri for owner, cancelling the previous request of owner. When the
+     * image is in the cache, target receives it before this method returns.
+     *
+     * @param owner The object the image is loaded for.
+     * @param uri The location of the image.
+     * @param width The width the image is shown at or 0 if it is not known.
+     * @param height The height the image is shown at or 0 if it is not known.
+     * @param target Receives the image.
+     */
+    public void load(Object owner, String uri, int width, int height, Target<T> target) {
+        cancel(owner);
+        final String key = getKey(uri, width, height);
+        final T cached = getCached(key);
+        if (cached != null) {
+            target.onImageLoaded(cached);
+            return;
+        }
+        final Request request = new Request(owner, key, uri, width, height, target);
+        synchronized (mRequests) {
+            mRequests.put(owner, request);
+        }
+        mDecodeExecutor.execute(request);
+    }
+
+    /**
+     * Cancels the request made for owner, if any.
+     *
+     * @param owner The object the image was loaded for.
+     */
+    public void cancel(Object owner) {
+        synchronized (mRequests) {
+            final Request request = mRequests.remove(owner);
+            if (request != null) {
+                request.mCancelled = true;
+            }
+        }
+    }
+
+    /**
+     * @return The cached image of uri at the given size or null if it is not cached.
+     */
+    public T getCached(String uri, int width, int height) {
+        return getCached(getKey(uri, width, height));
+    }
+
+    /**
+     * @return The number of bytes of the cached images.
+     */
+    public long getCacheBytes() {
+        synchronized (mCache) {
+            return mCacheBytes;
+        }
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    public void clearCache() {
+        synchronized (mCache) {
+            mCache.clear();
+            mCacheBytes = 0;
+        }
+    }
+
+    private T getCached(String key) {
+        synchronized (mCache) {
+            return mCache.get(key);
+        }
+    }
+
+    private void putCached(String key, T image) {
+        final int size = mDecoder.sizeOf(image);
+        if (size > mMaxBytes) {
+            return;
+        }
+        synchronized (mCache) {
+            final T old = mCache.put(key, image);
+            if (old != null) {
+                mCacheBytes -= mDecoder.sizeOf(old);
+            }
+            mCacheBytes += size;
+            final Iterator<Map.Entry<String, T>> iterator = mCache.entrySet().iterator();
+            while (mCacheBytes > mMaxBytes && iterator.hasNext()) {
+                final Map.Entry<String, T> eldest = iterator.next();
+                mCacheBytes -= mDecoder.sizeOf(eldest.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String getKey(String uri, int width, int height) {
+        return width + "x" + height + ":" + uri;
+    }
+
+    private class Request implements Runnable {
+        // Only used to find this request when it completes, so the owner is not kept.
+        private final WeakReference<Object> mOwner;
+        private final String mKey;
+        private final String mUri;
+        private final int mWidth;
+        private final int mHeight;
+        private final Target<T> mTarget;
+        volatile boolean mCancelled;
+        private T mImage;
+        private Exception mError;
+        private boolean mDecoded;
+
+        Request(Object owner, String key, String uri, int width, int height, Target<T> target) {
+            mOwner = new WeakReference<Object>(owner);
+            mKey = key;
+            mUri = uri;
+            mWidth = width;
+            mHeight = height;
+            mTarget = target;
+        }
+
+        @Override
+        public void run() {
+            if (mDecoded) {
+                deliver();
+                return;
+            }
+            if (mCancelled) {
+                return;
+            }
+            try {
+                mImage = getCached(mKey);
+                if (mImage == null) {
+                    mImage = mDecoder.decode(mUri, mWidth, mHeight);
+                    if (mImage == null) {
+                        throw new IllegalStateException("No image decoded from " + mUri);
+                    }
+                    putCached(mKey, mImage);
+                }
+            } catch (Exception e) {
+                mError = e;
+            }
+            mDecoded = true;
+            if (!mCancelled) {
+                mDeliveryExecutor.execute(this);
+            }
+        }
+
+        private void deliver() {
+            final Object owner = mOwner.get();
+            synchronized (mRequests) {
+                if (mCancelled || owner == null) {
+                    return;
+                }
+                mRequests.remove(owner);
+            }
+            if (mError != null) {
+                mTarget.onImageFailed(mError);
+            } else {
+                mTarget.onImageLoaded(mImage);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.adapters;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes Bitmaps from file paths and content, file and android.resource Uris, sampled down to
+ * no less than the requested size.
+ */
+class BitmapImageDecoder implements AsyncImageLoader.Decoder<Bitmap> {
+    private final Context mContext;
+
+    BitmapImageDecoder(Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @Override
+    public Bitmap decode(String uri, int width, int height) throws Exception {
+        Uri parsed = Uri.parse(uri);
+        if (parsed.getScheme() == null) {
+            parsed = Uri.fromFile(new File(uri));
+        }
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        if (width > 0 && height > 0) {
+            options.inJustDecodeBounds = true;
+            decodeStream(parsed, options);
+            options.inSampleSize = getSampleSize(options.outWidth, options.outHeight, width,
+                    height);
+            options.inJustDecodeBounds = false;
+        }
+        final Bitmap bitmap = decodeStream(parsed, options);
+        if (bitmap == null) {
+            throw new IOException("Cannot decode " + uri);
+        }
+        return bitmap;
+    }
+
+    @Override
+    public int sizeOf(Bitmap image) {
+        return image.getRowBytes() * image.getHeight();
+    }
+
+    private Bitmap decodeStream(Uri uri, BitmapFactory.Options options) throws IOException {
+        final InputStream in = mContext.getContentResolver().openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        try {
+            return BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return The largest power of two that keeps the image at least as large as the view.
+     */
+    static int getSampleSize(int imageWidth, int imageHeight, int width, int height) {
+        int sampleSize = 1;
+        while (imageWidth / (sampleSize * 2) >= width && imageHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
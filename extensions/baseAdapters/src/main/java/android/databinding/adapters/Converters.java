@@ -20,12 +20,12 @@ import android.content.res.ColorStateList;
 import android.graphics.drawable.ColorDrawable;
 
 public class Converters {
-    @BindingConversion
+    @BindingConversion(pure = true)
     public static ColorDrawable convertColorToDrawable(int color) {
         return new ColorDrawable(color);
     }
 
-    @BindingConversion
+    @BindingConversion(pure = true)
     public static ColorStateList convertColorToColorStateList(int color) {
         return ColorStateList.valueOf(color);
     }
@@ -15,13 +15,24 @@
  */
 package android.databinding.adapters;
 
+import android.content.Context;
 import android.databinding.BindingAdapter;
 import android.databinding.BindingMethod;
 import android.databinding.BindingMethods;
+import android.databinding.DataBindingComponent;
+import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.ViewTreeObserver.OnPreDrawListener;
 import android.widget.ImageView;
 
+import com.android.databinding.library.baseAdapters.R;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
 @BindingMethods({
         @BindingMethod(type = android.widget.ImageView.class, attribute = "android:tint", method = "setImageTintList"),
         @BindingMethod(type = android.widget.ImageView.class, attribute = "android:tintMode", method = "setImageTintMode"),
@@ -45,4 +56,91 @@ public class ImageViewBindingAdapter {
     public static void setImageDrawable(ImageView view, Drawable drawable) {
         view.setImageDrawable(drawable);
     }
+
+    private static AsyncImageLoader<Bitmap> sAsyncImageLoader;
+
+    /**
+     * Loads the image off the UI thread, sampled down to the size of the view. The loader is
+     * taken from the DataBindingComponent when it implements {@link AsyncImageLoaderProvider}.
+     * Otherwise a shared loader caching up to an eighth of the heap is used.
+     */
+    @BindingAdapter("android:asyncSrc")
+    public static void setAsyncImageUri(DataBindingComponent component, final ImageView view,
+            final String imageUri) {
+        final AsyncImageLoader<Bitmap> loader = getAsyncImageLoader(component, view.getContext());
+        final OnPreDrawListener oldListener =
+                ListenerUtil.trackListener(view, null, R.id.asyncSrcPreDraw);
+        if (oldListener != null) {
+            view.getViewTreeObserver().removeOnPreDrawListener(oldListener);
+        }
+        if (imageUri == null || (view.getWidth() > 0 && view.getHeight() > 0)) {
+            loadImage(loader, view, imageUri);
+            return;
+        }
+        // Not measured yet, load once the size is known.
+        loader.cancel(view);
+        view.setImageDrawable(null);
+        final OnPreDrawListener listener = new OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                ListenerUtil.trackListener(view, null, R.id.asyncSrcPreDraw);
+                loadImage(loader, view, imageUri);
+                return true;
+            }
+        };
+        ListenerUtil.trackListener(view, listener, R.id.asyncSrcPreDraw);
+        view.getViewTreeObserver().addOnPreDrawListener(listener);
+    }
+
+    private static void loadImage(AsyncImageLoader<Bitmap> loader, final ImageView view,
+            String imageUri) {
+        if (imageUri == null) {
+            loader.cancel(view);
+            view.setImageDrawable(null);
+            return;
+        }
+        if (loader.getCached(imageUri, view.getWidth(), view.getHeight()) == null) {
+            // Don't show the previous image of a recycled view while loading.
+            view.setImageDrawable(null);
+        }
+        loader.load(view, imageUri, view.getWidth(), view.getHeight(),
+                new AsyncImageLoader.Target<Bitmap>() {
+                    @Override
+                    public void onImageLoaded(Bitmap image) {
+                        view.setImageBitmap(image);
+                    }
+
+                    @Override
+                    public void onImageFailed(Exception e) {
+                        view.setImageDrawable(null);
+                    }
+                });
+    }
+
+    private static synchronized AsyncImageLoader<Bitmap> getAsyncImageLoader(
+            DataBindingComponent component, Context context) {
+        if (component instanceof AsyncImageLoaderProvider) {
+            return ((AsyncImageLoaderProvider) component).getAsyncImageLoader();
+        }
+        if (sAsyncImageLoader == null) {
+            final Handler handler = new Handler(Looper.getMainLooper());
+            sAsyncImageLoader = new AsyncImageLoader<Bitmap>(new BitmapImageDecoder(context),
+                    Runtime.getRuntime().maxMemory() / 8, Executors.newFixedThreadPool(2),
+                    new Executor() {
+                        @Override
+                        public void execute(Runnable command) {
+                            handler.post(command);
+                        }
+                    });
+        }
+        return sAsyncImageLoader;
+    }
+
+    /**
+     * Implemented by a DataBindingComponent to provide the loader used by "android:asyncSrc".
+     */
+    public interface AsyncImageLoaderProvider {
+        AsyncImageLoader<Bitmap> getAsyncImageLoader();
+    }
 }
@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.adapters;
+
+import android.databinding.DataBindingComponent;
+import android.databinding.DataBindingUtil;
+import android.databinding.ObservableList;
+import android.databinding.ObservableList.OnListChangedCallback;
+import android.databinding.ViewDataBinding;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import com.android.databinding.library.baseAdapters.R;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+/**
+ * An Adapter for AdapterViews whose rows are data binding layouts. Each row is bound by
+ * setting the item as a variable of the row's binding, so recycled rows are rebound in place
+ * rather than inflated again.
+ * <p>
+ * Items have stable ids that follow them through insertions, removals and moves reported by an
+ * {@link ObservableList}. Insertions, removals and moves are reported to the AdapterView right
+ * away, because it must not lay out with a count it has not been notified of. Changes to the
+ * contents of items reported within a frame are handled together on the next frame: only the
+ * visible rows showing those items are rebound and the AdapterView is not asked to lay out
+ * again.
+ * <p>
+ * The list must only be changed on the main thread.
+ *
+ * @param <T> The type of the items.
+ */
+public class ObservableListBindingAdapter<T> extends BaseAdapter {
+    private static final boolean USE_CHOREOGRAPHER = VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN;
+
+    private final int mLayoutId;
+    private final int mDropDownLayoutId;
+    private final int mVariableId;
+    private final DataBindingComponent mBindingComponent;
+
+    private List<T> mList;
+    private OnListChangedCallback mListChangedCallback;
+
+    /**
+     * The ids of the items, in list order. Only the first mIdCount are used.
+     */
+    private long[] mIds = new long[0];
+    private int mIdCount;
+    private long mNextId;
+
+    /**
+     * The last parents passed to getView and getDropDownView. Their children are the rows
+     * that are shown.
+     */
+    private WeakReference<ViewGroup> mParent;
+    private WeakReference<ViewGroup> mDropDownParent;
+
+    /**
+     * Ids of the items whose contents changed since the last frame.
+     */
+    private long[] mChangedIds = new long[0];
+    private int mChangedCount;
+
+    private boolean mScheduled;
+
+    // api >= 16
+    private Choreographer.FrameCallback mFrameCallback;
+
+    // api < 16
+    private Handler mHandler;
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * @param list The items to show.
+     * @param layoutId The data binding layout of the rows.
+     * @param dropDownLayoutId The data binding layout of drop down rows or 0 to use layoutId.
+     * @param variableId The BR id of the row layout variable that is set to the item.
+     * @param bindingComponent The DataBindingComponent used to inflate the rows or null to use
+     *                         the default.
+     */
+    public ObservableListBindingAdapter(List<T> list, int layoutId, int dropDownLayoutId,
+            int variableId, DataBindingComponent bindingComponent) {
+        mLayoutId = layoutId;
+        mDropDownLayoutId = dropDownLayoutId == 0 ? layoutId : dropDownLayoutId;
+        mVariableId = variableId;
+        mBindingComponent = bindingComponent == null ?
+                DataBindingUtil.getDefaultComponent() : bindingComponent;
+        setList(list);
+    }
+
+    /**
+     * @return The layout id of the rows.
+     */
+    public int getLayoutId() {
+        return mLayoutId;
+    }
+
+    /**
+     * @return The BR id of the variable set to the item.
+     */
+    public int getVariableId() {
+        return mVariableId;
+    }
+
+    /**
+     * @return The list of items shown.
+     */
+    public List<T> getList() {
+        return mList;
+    }
+
+    /**
+     * Replaces the list of items. All items get new ids.
+     *
+     * @param list The items to show.
+     */
+    public void setList(List<T> list) {
+        if (mList == list) {
+            return;
+        }
+        if (mList instanceof ObservableList) {
+            ((ObservableList) mList).removeOnListChangedCallback(mListChangedCallback);
+        }
+        mList = list;
+        if (mList instanceof ObservableList) {
+            if (mListChangedCallback == null) {
+                mListChangedCallback = new ListChangedCallback();
+            }
+            ((ObservableList) mList).addOnListChangedCallback(mListChangedCallback);
+        }
+        resetIds();
+        structureChanged();
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public int getCount() {
+        return mList == null ? 0 : mList.size();
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return mList.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (mIdCount != mList.size()) {
+            // The list is not observable or was changed without notification.
+            resetIds();
+        }
+        return mIds[position];
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        if (mParent == null || mParent.get() != parent) {
+            mParent = new WeakReference<ViewGroup>(parent);
+        }
+        return getViewForLayout(mLayoutId, position, convertView, parent);
+    }
+
+    @Override
+    public View getDropDownView(int position, View convertView, ViewGroup parent) {
+        if (mDropDownParent == null || mDropDownParent.get() != parent) {
+            mDropDownParent = new WeakReference<ViewGroup>(parent);
+        }
+        return getViewForLayout(mDropDownLayoutId, position, convertView, parent);
+    }
+
+    private View getViewForLayout(int layoutId, int position, View convertView,
+            ViewGroup parent) {
+        ViewDataBinding binding = null;
+        Row row = convertView == null ? null : getRow(convertView);
+        if (row != null && row.layoutId == layoutId) {
+            binding = DataBindingUtil.getBinding(convertView);
+        }
+        if (binding == null) {
+            final LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+            binding = DataBindingUtil.inflate(inflater, layoutId, parent, false,
+                    mBindingComponent);
+            if (binding == null) {
+                throw new IllegalArgumentException("Layout " + layoutId
+                        + " is not a data binding layout");
+            }
+            row = new Row(layoutId);
+            binding.getRoot().setTag(R.id.listBindingRow, row);
+        }
+        row.id = getItemId(position);
+        bind(binding, position);
+        return binding.getRoot();
+    }
+
+    private void bind(ViewDataBinding binding, int position) {
+        if (!binding.setVariable(mVariableId, mList.get(position))) {
+            throw new IllegalStateException("The row layout does not have the variable "
+                    + mVariableId + " to set the item to");
+        }
+        // The AdapterView measures the row right away.
+        binding.executePendingBindings();
+    }
+
+    /**
+     * @return The row information of a View created by an ObservableListBindingAdapter or
+     * null if the View is not such a row.
+     */
+    private static Row getRow(View view) {
+        final Object tag = view.getTag(R.id.listBindingRow);
+        return tag instanceof Row ? (Row) tag : null;
+    }
+
+    private void resetIds() {
+        mIdCount = 0;
+        insertIds(0, mList == null ? 0 : mList.size());
+    }
+
+    private void insertIds(int start, int count) {
+        if (mIdCount + count > mIds.length) {
+            long[] ids = new long[Math.max(mIdCount + count, mIds.length * 2)];
+            System.arraycopy(mIds, 0, ids, 0, mIdCount);
+            mIds = ids;
+        }
+        System.arraycopy(mIds, start, mIds, start + count, mIdCount - start);
+        for (int i = 0; i < count; i++) {
+            mIds[start + i] = mNextId++;
+        }
+        mIdCount += count;
+    }
+
+    private void removeIds(int start, int count) {
+        System.arraycopy(mIds, start + count, mIds, start, mIdCount - start - count);
+        mIdCount -= count;
+    }
+
+    private void moveIds(int from, int to, int count) {
+        final long[] moved = new long[count];
+        System.arraycopy(mIds, from, moved, 0, count);
+        removeIds(from, count);
+        System.arraycopy(mIds, to, mIds, to + count, mIdCount - to);
+        System.arraycopy(moved, 0, mIds, to, count);
+        mIdCount += count;
+    }
+
+    private void addChangedIds(int start, int count) {
+        if (mChangedCount + count > mChangedIds.length) {
+            long[] ids = new long[Math.max(mChangedCount + count, mChangedIds.length * 2)];
+            System.arraycopy(mChangedIds, 0, ids, 0, mChangedCount);
+            mChangedIds = ids;
+        }
+        System.arraycopy(mIds, start, mChangedIds, mChangedCount, count);
+        mChangedCount += count;
+    }
+
+    private boolean isChanged(long id) {
+        for (int i = 0; i < mChangedCount; i++) {
+            if (mChangedIds[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indexOfId(long id) {
+        for (int i = 0; i < mIdCount; i++) {
+            if (mIds[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void scheduleFlush() {
+        if (mScheduled) {
+            return;
+        }
+        mScheduled = true;
+        if (USE_CHOREOGRAPHER) {
+            if (mFrameCallback == null) {
+                mFrameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        flush();
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        } else {
+            if (mHandler == null) {
+                mHandler = new Handler(Looper.getMainLooper());
+            }
+            mHandler.post(mFlushRunnable);
+        }
+    }
+
+    /**
+     * Notifies the AdapterView that items were inserted, removed or moved. It lays out all
+     * visible rows again, so content changes that were not rebound yet need not be.
+     */
+    private void structureChanged() {
+        mChangedCount = 0;
+        // With stable ids the AdapterView keeps its checked items and selection.
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Rebinds the rows of items whose contents changed during the last frame.
+     */
+    private void flush() {
+        mScheduled = false;
+        if (mChangedCount == 0) {
+            return;
+        }
+        rebindChangedRows(mParent);
+        rebindChangedRows(mDropDownParent);
+        mChangedCount = 0;
+    }
+
+    private void rebindChangedRows(WeakReference<ViewGroup> parentRef) {
+        final ViewGroup parent = parentRef == null ? null : parentRef.get();
+        if (parent == null) {
+            return;
+        }
+        final int childCount = parent.getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            final View child = parent.getChildAt(i);
+            final Row row = getRow(child);
+            if (row != null && isChanged(row.id)) {
+                final int position = indexOfId(row.id);
+                final ViewDataBinding binding = DataBindingUtil.getBinding(child);
+                if (position >= 0 && binding != null) {
+                    bind(binding, position);
+                }
+            }
+        }
+    }
+
+    /**
+     * Kept as a tag of each row's root View.
+     */
+    private static class Row {
+        final int layoutId;
+        long id;
+
+        Row(int layoutId) {
+            this.layoutId = layoutId;
+        }
+    }
+
+    private class ListChangedCallback extends OnListChangedCallback {
+        @Override
+        public void onChanged(ObservableList sender) {
+            resetIds();
+            structureChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(ObservableList sender, int positionStart,
+                int itemCount) {
+            addChangedIds(positionStart, itemCount);
+            scheduleFlush();
+        }
+
+        @Override
+        public void onItemRangeInserted(ObservableList sender, int positionStart,
+                int itemCount) {
+            insertIds(positionStart, itemCount);
+            structureChanged();
+        }
+
+        @Override
+        public void onItemRangeMoved(ObservableList sender, int fromPosition, int toPosition,
+                int itemCount) {
+            moveIds(fromPosition, toPosition, itemCount);
+            structureChanged();
+        }
+
+        @Override
+        public void onItemRangeRemoved(ObservableList sender, int positionStart,
+                int itemCount) {
+            removeIds(positionStart, itemCount);
+            structureChanged();
+        }
+    }
+}
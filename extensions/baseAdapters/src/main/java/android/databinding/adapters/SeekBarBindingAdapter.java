@@ -24,6 +24,8 @@ import android.widget.SeekBar.OnSeekBarChangeListener;
 
 @InverseBindingMethods({
         @InverseBindingMethod(type = SeekBar.class, attribute = "android:progress"),
+        @InverseBindingMethod(type = SeekBar.class, attribute = "android:coalescedProgress",
+                method = "getProgress", coalesce = true),
 })
 public class SeekBarBindingAdapter {
 
@@ -34,12 +36,25 @@ public class SeekBarBindingAdapter {
         }
     }
 
+    /**
+     * Like <code>android:progress</code>, but a two-way binding writes the progress into the
+     * model at most once per frame while the user drags the thumb. The last progress is always
+     * written, at the latest before the binding executes again.
+     */
+    @BindingAdapter("android:coalescedProgress")
+    public static void setCoalescedProgress(SeekBar view, int progress) {
+        setProgress(view, progress);
+    }
+
     @BindingAdapter(value = {"android:onStartTrackingTouch", "android:onStopTrackingTouch",
-            "android:onProgressChanged", "android:progressAttrChanged"}, requireAll = false)
+            "android:onProgressChanged", "android:progressAttrChanged",
+            "android:coalescedProgressAttrChanged"}, requireAll = false)
     public static void setOnSeekBarChangeListener(SeekBar view, final OnStartTrackingTouch start,
             final OnStopTrackingTouch stop, final OnProgressChanged progressChanged,
-            final InverseBindingListener attrChanged) {
-        if (start == null && stop == null && progressChanged == null && attrChanged == null) {
+            final InverseBindingListener attrChanged,
+            final InverseBindingListener coalescedAttrChanged) {
+        if (start == null && stop == null && progressChanged == null && attrChanged == null
+                && coalescedAttrChanged == null) {
             view.setOnSeekBarChangeListener(null);
         } else {
             view.setOnSeekBarChangeListener(new OnSeekBarChangeListener() {
@@ -51,6 +66,9 @@ public class SeekBarBindingAdapter {
                     if (attrChanged != null) {
                         attrChanged.onChange();
                     }
+                    if (coalescedAttrChanged != null) {
+                        coalescedAttrChanged.onChange();
+                    }
                 }
 
                 @Override
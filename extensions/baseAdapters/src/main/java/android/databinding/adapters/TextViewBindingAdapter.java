@@ -80,6 +80,22 @@ public class TextViewBindingAdapter {
         return view.getText().toString();
     }
 
+    /**
+     * Like <code>android:text</code>, but a two-way binding writes the text into the model at
+     * most once per frame while the user types. The last text is always written, at the
+     * latest before the binding executes again.
+     */
+    @BindingAdapter("android:coalescedText")
+    public static void setCoalescedText(TextView view, CharSequence text) {
+        setText(view, text);
+    }
+
+    @InverseBindingAdapter(attribute = "android:coalescedText",
+            event = "android:coalescedTextAttrChanged", coalesce = true)
+    public static String getCoalescedTextString(TextView view) {
+        return getTextString(view);
+    }
+
     @BindingAdapter({"android:autoText"})
     public static void setAutoText(TextView view, boolean autoText) {
         KeyListener listener = view.getKeyListener();
@@ -342,12 +358,15 @@ public class TextViewBindingAdapter {
     }
 
     @BindingAdapter(value = {"android:beforeTextChanged", "android:onTextChanged",
-            "android:afterTextChanged", "android:textAttrChanged"}, requireAll = false)
+            "android:afterTextChanged", "android:textAttrChanged",
+            "android:coalescedTextAttrChanged"}, requireAll = false)
     public static void setTextWatcher(TextView view, final BeforeTextChanged before,
             final OnTextChanged on, final AfterTextChanged after,
-            final InverseBindingListener textAttrChanged) {
+            final InverseBindingListener textAttrChanged,
+            final InverseBindingListener coalescedTextAttrChanged) {
         final TextWatcher newValue;
-        if (before == null && after == null && on == null && textAttrChanged == null) {
+        if (before == null && after == null && on == null && textAttrChanged == null
+                && coalescedTextAttrChanged == null) {
             newValue = null;
         } else {
             newValue = new TextWatcher() {
@@ -366,6 +385,9 @@ public class TextViewBindingAdapter {
                     if (textAttrChanged != null) {
                         textAttrChanged.onChange();
                     }
+                    if (coalescedTextAttrChanged != null) {
+                        coalescedTextAttrChanged.onChange();
+                    }
                 }
 
                 @Override
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.adapters;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncImageLoaderTest {
+    private static final int IMAGE_SIZE = 10;
+
+    private QueueExecutor mDecodeExecutor;
+    private QueueExecutor mDeliveryExecutor;
+    private FakeDecoder mDecoder;
+    private AsyncImageLoader<String> mLoader;
+
+    @Before
+    public void setUp() {
+        mDecodeExecutor = new QueueExecutor();
+        mDeliveryExecutor = new QueueExecutor();
+        mDecoder = new FakeDecoder();
+        mLoader = new AsyncImageLoader<String>(mDecoder, 25, mDecodeExecutor, mDeliveryExecutor);
+    }
+
+    @Test
+    public void decodesOnExecutorAtRequestedSize() {
+        RecordingTarget target = new RecordingTarget();
+        mLoader.load("view", "a", 40, 30, target);
+        assertTrue(mDecoder.decoded.isEmpty());
+        mDecodeExecutor.runAll();
+        assertEquals(1, mDecoder.decoded.size());
+        assertNull(target.image);
+        mDeliveryExecutor.runAll();
+        assertEquals("a@40x30", target.image);
+    }
+
+    @Test
+    public void cachedImageIsDeliveredImmediately() {
+        mLoader.load("view", "a", 40, 30, new RecordingTarget());
+        mDecodeExecutor.runAll();
+        mDeliveryExecutor.runAll();
+
+        RecordingTarget target = new RecordingTarget();
+        mLoader.load("other", "a", 40, 30, target);
+        assertEquals("a@40x30", target.image);
+        assertEquals(0, mDecodeExecutor.queue.size());
+        assertEquals(1, mDecoder.decoded.size());
+    }
+
+    @Test
+    public void differentSizeIsDecodedAgain() {
+        mLoader.load("view", "a", 40, 30, new RecordingTarget());
+        mDecodeExecutor.runAll();
+        mDeliveryExecutor.runAll();
+        mLoader.load("view", "a", 20, 15, new RecordingTarget());
+        mDecodeExecutor.runAll();
+        assertEquals(2, mDecoder.decoded.size());
+    }
+
+    @Test
+    public void newRequestCancelsStaleRequestOfSameOwner() {
+        RecordingTarget stale = new RecordingTarget();
+        RecordingTarget current = new RecordingTarget();
+        mLoader.load("view", "a", 10, 10, stale);
+        mLoader.load("view", "b", 10, 10, current);
+        mDecodeExecutor.runAll();
+        mDeliveryExecutor.runAll();
+        assertEquals(1, mDecoder.decoded.size());
+        assertEquals("b@10x10", mDecoder.decoded.get(0));
+        assertNull(stale.image);
+        assertEquals("b@10x10", current.image);
+    }
+
+    @Test
+    public void cancelAfterDecodeSkipsDelivery() {
+        RecordingTarget target = new RecordingTarget();
+        mLoader.load("view", "a", 10, 10, target);
+        mDecodeExecutor.runAll();
+        mLoader.cancel("view");
+        mDeliveryExecutor.runAll();
+        assertNull(target.image);
+        // the decoded image is still cached
+        assertEquals("a@10x10", mLoader.getCached("a", 10, 10));
+    }
+
+    @Test
+    public void cacheIsBoundedByBytesAndEvictsLeastRecentlyUsed() {
+        load("a");
+        load("b");
+        assertEquals(2 * IMAGE_SIZE, mLoader.getCacheBytes());
+        // touch a so that b is the least recently used
+        assertEquals("a@1x1", mLoader.getCached("a", 1, 1));
+        load("c");
+        assertEquals(2 * IMAGE_SIZE, mLoader.getCacheBytes());
+        assertNull(mLoader.getCached("b", 1, 1));
+        assertEquals("a@1x1", mLoader.getCached("a", 1, 1));
+        assertEquals("c@1x1", mLoader.getCached("c", 1, 1));
+    }
+
+    @Test
+    public void failureIsDelivered() {
+        RecordingTarget target = new RecordingTarget();
+        mDecoder.fail = true;
+        mLoader.load("view", "a", 10, 10, target);
+        mDecodeExecutor.runAll();
+        mDeliveryExecutor.runAll();
+        assertNull(target.image);
+        assertSame(mDecoder.failure, target.error);
+        assertEquals(0, mLoader.getCacheBytes());
+    }
+
+    private void load(String uri) {
+        mLoader.load(uri, uri, 1, 1, new RecordingTarget());
+        mDecodeExecutor.runAll();
+        mDeliveryExecutor.runAll();
+    }
+
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> queue = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+
+    private static class FakeDecoder implements AsyncImageLoader.Decoder<String> {
+        final List<String> decoded = new ArrayList<String>();
+        final Exception failure = new Exception("cannot decode");
+        boolean fail;
+
+        @Override
+        public String decode(String uri, int width, int height) throws Exception {
+            if (fail) {
+                throw failure;
+            }
+            String image = uri + "@" + width + "x" + height;
+            decoded.add(image);
+            return image;
+        }
+
+        @Override
+        public int sizeOf(String image) {
+            return IMAGE_SIZE;
+        }
+    }
+
+    private static class RecordingTarget implements AsyncImageLoader.Target<String> {
+        String image;
+        Exception error;
+
+        @Override
+        public void onImageLoaded(String image) {
+            this.image = image;
+        }
+
+        @Override
+        public void onImageFailed(Exception e) {
+            error = e;
+        }
+    }
+}
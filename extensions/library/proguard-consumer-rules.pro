@@ -0,0 +1,7 @@
+# ProGuard rules applied to applications that use data binding.
+
+# Generated bindings update their dirty flags through AtomicLongFieldUpdaters, which look the
+# fields up by name.
+-keepclassmembers class * extends android.databinding.ViewDataBinding {
+    volatile long mDirtyFlags*;
+}
@@ -16,13 +16,36 @@
 
 package android.databinding;
 
+import java.util.Arrays;
+
 /**
  * A convenience class that implements {@link android.databinding.Observable} interface and provides
  * {@link #notifyPropertyChanged(int)} and {@link #notifyChange} methods.
+ * <p>
+ * Notifications can be held back and deduplicated with {@link #beginBatch()} and
+ * {@link #endBatch()}, or for several observables at once with {@link ObservableTransaction}.
  */
 public class BaseObservable implements Observable {
     private transient PropertyChangeRegistry mCallbacks;
 
+    /** The nesting level of beginBatch() calls. */
+    private transient volatile int mBatchDepth;
+
+    /** Whether this is enlisted in an open ObservableTransaction. */
+    private transient boolean mInTransaction;
+
+    /** Whether notifyChange() was called while notifications were held back. */
+    private transient boolean mPendingAll;
+
+    /**
+     * One bit per BR id of the properties notified while notifications were held back.
+     * null if there are none.
+     */
+    private transient long[] mPendingIds;
+
+    /** A cleared bit set kept for the next batch. */
+    private transient long[] mSpareIds;
+
     public BaseObservable() {
     }
 
@@ -34,6 +57,26 @@ public class BaseObservable implements Observable {
         mCallbacks.add(callback);
     }
 
+    /**
+     * Adds a callback that is only notified when one of the given properties changes or
+     * when {@link #notifyChange()} is called. Adding the same callback again adds to the
+     * properties it is notified of. Notifying a property does not visit callbacks that did
+     * not subscribe to it, which helps Observables with many callbacks and properties.
+     * <p>
+     * Subclasses that override {@link #addOnPropertyChangedCallback(OnPropertyChangedCallback)}
+     * should override this method as well.
+     *
+     * @param callback The callback to add.
+     * @param propertyIds The BR ids of the properties the callback is interested in.
+     */
+    public synchronized void addOnPropertyChangedCallback(OnPropertyChangedCallback callback,
+            int... propertyIds) {
+        if (mCallbacks == null) {
+            mCallbacks = new PropertyChangeRegistry();
+        }
+        mCallbacks.add(callback, propertyIds);
+    }
+
     @Override
     public synchronized void removeOnPropertyChangedCallback(OnPropertyChangedCallback callback) {
         if (mCallbacks != null) {
@@ -45,7 +88,7 @@ public class BaseObservable implements Observable {
      * Notifies listeners that all properties of this instance have changed.
      */
     public synchronized void notifyChange() {
-        if (mCallbacks != null) {
+        if (mCallbacks != null && !defer(0)) {
             mCallbacks.notifyCallbacks(this, 0, null);
         }
     }
@@ -58,8 +101,139 @@ public class BaseObservable implements Observable {
      * @param fieldId The generated BR id for the Bindable field.
      */
     public void notifyPropertyChanged(int fieldId) {
-        if (mCallbacks != null) {
+        if (mCallbacks != null && !defer(fieldId)) {
             mCallbacks.notifyCallbacks(this, fieldId, null);
         }
     }
+
+    /**
+     * Holds back notifications until the matching {@link #endBatch()}. Each property
+     * notified in the meantime is notified once when the batch ends, or only one
+     * notification for the whole object is sent if {@link #notifyChange()} was called.
+     * Batches nest; only the outermost {@link #endBatch()} notifies.
+     * <p>
+     * Notifications from all threads are held back. Call {@link #endBatch()} in a
+     * <code>finally</code> block so that they are not held back forever.
+     */
+    public synchronized void beginBatch() {
+        mBatchDepth++;
+    }
+
+    /**
+     * Ends the innermost batch started with {@link #beginBatch()}. Ending the outermost batch
+     * sends the notifications held back, unless an {@link ObservableTransaction} on this
+     * thread is still holding them.
+     *
+     * @throws IllegalStateException if no batch was started.
+     */
+    public void endBatch() {
+        synchronized (this) {
+            if (mBatchDepth == 0) {
+                throw new IllegalStateException("endBatch() called without beginBatch()");
+            }
+            if (--mBatchDepth != 0 || mInTransaction) {
+                return;
+            }
+        }
+        notifyPending();
+    }
+
+    /**
+     * Called by ObservableTransaction when the transaction this was enlisted in ends.
+     */
+    void commitTransaction() {
+        synchronized (this) {
+            mInTransaction = false;
+            if (mBatchDepth != 0) {
+                return; // endBatch will notify
+            }
+        }
+        notifyPending();
+    }
+
+    /**
+     * Records the notification if notifications are held back.
+     *
+     * @return true if the notification was held back and must not be sent now.
+     */
+    private boolean defer(int fieldId) {
+        if (mBatchDepth == 0) {
+            final ObservableTransaction transaction = ObservableTransaction.current();
+            if (transaction == null) {
+                return false;
+            }
+            synchronized (this) {
+                if (!mInTransaction) {
+                    mInTransaction = true;
+                    transaction.enlist(this);
+                }
+                record(fieldId);
+            }
+            return true;
+        }
+        synchronized (this) {
+            if (mBatchDepth == 0 && !mInTransaction) {
+                return false; // the batch ended in the meantime
+            }
+            record(fieldId);
+            return true;
+        }
+    }
+
+    private void record(int fieldId) {
+        if (fieldId == 0) {
+            mPendingAll = true;
+            return;
+        }
+        final int index = fieldId >>> 6;
+        long[] ids = mPendingIds;
+        if (ids == null) {
+            ids = mSpareIds;
+            mSpareIds = null;
+        }
+        if (ids == null || ids.length <= index) {
+            final long[] grown = new long[index + 1];
+            if (ids != null) {
+                System.arraycopy(ids, 0, grown, 0, ids.length);
+            }
+            ids = grown;
+        }
+        ids[index] |= 1L << fieldId;
+        mPendingIds = ids;
+    }
+
+    private void notifyPending() {
+        final boolean all;
+        final long[] ids;
+        final PropertyChangeRegistry callbacks;
+        synchronized (this) {
+            all = mPendingAll;
+            ids = mPendingIds;
+            mPendingAll = false;
+            mPendingIds = null;
+            callbacks = mCallbacks;
+        }
+        if (callbacks != null) {
+            if (all) {
+                callbacks.notifyCallbacks(this, 0, null);
+            } else if (ids != null) {
+                for (int i = 0; i < ids.length; i++) {
+                    long bits = ids[i];
+                    while (bits != 0) {
+                        final int bit = Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        callbacks.notifyCallbacks(this, (i << 6) + bit, null);
+                    }
+                }
+            }
+        }
+        if (ids != null) {
+            Arrays.fill(ids, 0);
+            synchronized (this) {
+                if (mSpareIds == null) {
+                    mSpareIds = ids;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Delivers the events of a two-way binding at most once per animation frame. Events that
+ * arrive while one is pending are dropped. The wrapped listener reads the View's value when it
+ * runs, so the value delivered is always the latest one.
+ * <p>
+ * A pending event is delivered right away by {@link #flush()}, which the binding calls before
+ * it executes so that a new View value is never overwritten by the stale one in the model.
+ * <p>
+ * Events are expected on the thread the View lives on.
+ */
+class CoalescedInverseBindingListener implements InverseBindingListener {
+    private static final boolean USE_CHOREOGRAPHER = ViewDataBinding.SDK_INT >= 16;
+
+    private final InverseBindingListener mListener;
+
+    /**
+     * Whether an event has been received and not delivered yet.
+     */
+    private boolean mPending;
+
+    // api >= 16. Acquired on the first event, on the View's thread.
+    private Choreographer mChoreographer;
+
+    private final Choreographer.FrameCallback mFrameCallback;
+
+    // api < 16. Created on the first event, on the View's thread.
+    private Handler mHandler;
+
+    private final Runnable mDeliverRunnable;
+
+    CoalescedInverseBindingListener(InverseBindingListener listener) {
+        mListener = listener;
+        if (USE_CHOREOGRAPHER) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    deliver();
+                }
+            };
+            mDeliverRunnable = null;
+        } else {
+            mFrameCallback = null;
+            mDeliverRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    deliver();
+                }
+            };
+        }
+    }
+
+    @Override
+    public void onChange() {
+        if (mPending) {
+            return;
+        }
+        mPending = true;
+        if (USE_CHOREOGRAPHER) {
+            if (mChoreographer == null) {
+                mChoreographer = Choreographer.getInstance();
+            }
+            mChoreographer.postFrameCallback(mFrameCallback);
+        } else {
+            if (mHandler == null) {
+                mHandler = new Handler(Looper.myLooper());
+            }
+            mHandler.post(mDeliverRunnable);
+        }
+    }
+
+    /**
+     * Delivers the pending event now, if there is one.
+     */
+    void flush() {
+        if (!mPending) {
+            return;
+        }
+        if (USE_CHOREOGRAPHER) {
+            mChoreographer.removeFrameCallback(mFrameCallback);
+        } else {
+            mHandler.removeCallbacks(mDeliverRunnable);
+        }
+        deliver();
+    }
+
+    private void deliver() {
+        if (mPending) {
+            mPending = false;
+            mListener.onChange();
+        }
+    }
+}
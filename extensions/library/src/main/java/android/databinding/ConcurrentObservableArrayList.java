@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import android.os.Looper;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+/**
+ * An {@link ObservableList} that may be changed from any thread and notifies its callbacks on
+ * the thread of a given Looper, the main thread by default.
+ * <p>
+ * Changes are applied to a pending copy of the contents under a lock, so that writers never
+ * wait for the UI. Once per frame, the pending contents are published and the changes made
+ * since the previous frame are notified, merged into as few range notifications as possible.
+ * All reads, such as {@link #get(int)} and {@link #size()}, return the published contents,
+ * so they always match the notifications callbacks have received. Indices passed to the
+ * mutators, such as {@link #set(int, Object)}, {@link #add(int, Object)} and
+ * {@link #remove(int)}, refer to the pending contents, which include the changes not yet
+ * published. Writers that compute indices should read them with {@link #pendingSize()} and
+ * {@link #getPending(int)}. Iterators and sub lists are read-only views of the published
+ * contents.
+ * <p>
+ * Publishing copies the contents, so this suits lists that are read far more often than they
+ * are published, such as lists filled from background threads in bursts.
+ */
+public class ConcurrentObservableArrayList<T> extends AbstractList<T>
+        implements ObservableList<T>, RandomAccess {
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Object mLock = new Object();
+
+    /** The contents including unpublished changes, guarded by mLock. */
+    private final ArrayList<T> mPending = new ArrayList<T>();
+
+    /** The contents as of the most recent frame. Never modified once published. */
+    private volatile Object[] mPublished = EMPTY;
+
+    /** Callbacks, only notified on the Looper's thread. */
+    private final ListChangeRegistry mListeners = new ListChangeRegistry();
+
+    /**
+     * Records the changes made since the last frame, always in a batch. Swapped with
+     * mSpareRecorder under mLock so that one records while the other notifies.
+     */
+    private ListChangeRegistry mRecorder;
+
+    private ListChangeRegistry mSpareRecorder;
+
+    private boolean mChanged;
+
+    private final FrameScheduler mScheduler;
+
+    /**
+     * Creates a list that notifies its callbacks on the main thread.
+     */
+    public ConcurrentObservableArrayList() {
+        this(Looper.getMainLooper());
+    }
+
+    /**
+     * @param looper The Looper on whose thread the callbacks are notified.
+     */
+    public ConcurrentObservableArrayList(Looper looper) {
+        mRecorder = createRecorder();
+        mSpareRecorder = createRecorder();
+        mScheduler = new FrameScheduler(looper, new Runnable() {
+            @Override
+            public void run() {
+                publish();
+            }
+        });
+    }
+
+    private ListChangeRegistry createRecorder() {
+        ListChangeRegistry recorder = new ListChangeRegistry();
+        recorder.add(new OnListChangedCallback<ObservableList<T>>() {
+            @Override
+            public void onChanged(ObservableList<T> sender) {
+                mListeners.notifyChanged(ConcurrentObservableArrayList.this);
+            }
+
+            @Override
+            public void onItemRangeChanged(ObservableList<T> sender, int start, int count) {
+                mListeners.notifyChanged(ConcurrentObservableArrayList.this, start, count);
+            }
+
+            @Override
+            public void onItemRangeInserted(ObservableList<T> sender, int start, int count) {
+                mListeners.notifyInserted(ConcurrentObservableArrayList.this, start, count);
+            }
+
+            @Override
+            public void onItemRangeMoved(ObservableList<T> sender, int from, int to,
+                    int count) {
+                mListeners.notifyMoved(ConcurrentObservableArrayList.this, from, to, count);
+            }
+
+            @Override
+            public void onItemRangeRemoved(ObservableList<T> sender, int start, int count) {
+                mListeners.notifyRemoved(ConcurrentObservableArrayList.this, start, count);
+            }
+        });
+        recorder.beginBatch();
+        return recorder;
+    }
+
+    @Override
+    public void addOnListChangedCallback(OnListChangedCallback listener) {
+        mListeners.add(listener);
+    }
+
+    @Override
+    public void removeOnListChangedCallback(OnListChangedCallback listener) {
+        mListeners.remove(listener);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) mPublished[index];
+    }
+
+    @Override
+    public int size() {
+        return mPublished.length;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return snapshot().listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        return snapshot().listIterator(index);
+    }
+
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        return snapshot().subList(fromIndex, toIndex);
+    }
+
+    /**
+     * A read-only view of the published contents. Iterating over it sees one snapshot, even
+     * if a frame publishes another meanwhile.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> snapshot() {
+        return Collections.unmodifiableList(Arrays.asList((T[]) mPublished));
+    }
+
+    /**
+     * Returns the element at the given index of the pending contents, which include the
+     * changes not yet published. Use it to find the indices to pass to the mutators.
+     *
+     * @param index The index in the pending contents.
+     * @return The element at <code>index</code> in the pending contents.
+     */
+    public T getPending(int index) {
+        synchronized (mLock) {
+            return mPending.get(index);
+        }
+    }
+
+    /**
+     * Returns the size of the pending contents, which include the changes not yet published.
+     *
+     * @return The number of elements in the pending contents.
+     */
+    public int pendingSize() {
+        synchronized (mLock) {
+            return mPending.size();
+        }
+    }
+
+    @Override
+    public boolean add(T object) {
+        synchronized (mLock) {
+            mPending.add(object);
+            mRecorder.notifyInserted(this, mPending.size() - 1, 1);
+            changed();
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the element at <code>index</code> of the pending contents.
+     */
+    @Override
+    public void add(int index, T object) {
+        synchronized (mLock) {
+            mPending.add(index, object);
+            mRecorder.notifyInserted(this, index, 1);
+            changed();
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        synchronized (mLock) {
+            final int start = mPending.size();
+            if (!mPending.addAll(collection)) {
+                return false;
+            }
+            mRecorder.notifyInserted(this, start, mPending.size() - start);
+            changed();
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the elements at <code>index</code> of the pending contents.
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends T> collection) {
+        synchronized (mLock) {
+            final int oldSize = mPending.size();
+            if (!mPending.addAll(index, collection)) {
+                return false;
+            }
+            mRecorder.notifyInserted(this, index, mPending.size() - oldSize);
+            changed();
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the element at <code>index</code> of the pending contents.
+     */
+    @Override
+    public T set(int index, T object) {
+        synchronized (mLock) {
+            final T old = mPending.set(index, object);
+            mRecorder.notifyChanged(this, index, 1);
+            changed();
+            return old;
+        }
+    }
+
+    /**
+     * Removes the element at <code>index</code> of the pending contents.
+     */
+    @Override
+    public T remove(int index) {
+        synchronized (mLock) {
+            final T old = mPending.remove(index);
+            mRecorder.notifyRemoved(this, index, 1);
+            changed();
+            return old;
+        }
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        synchronized (mLock) {
+            final int index = mPending.indexOf(object);
+            if (index < 0) {
+                return false;
+            }
+            remove(index);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return batchRemove(collection, false);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return batchRemove(collection, true);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mLock) {
+            final int size = mPending.size();
+            if (size != 0) {
+                mPending.clear();
+                mRecorder.notifyRemoved(this, 0, size);
+                changed();
+            }
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        synchronized (mLock) {
+            if (fromIndex == toIndex) {
+                return;
+            }
+            mPending.subList(fromIndex, toIndex).clear();
+            mRecorder.notifyRemoved(this, fromIndex, toIndex - fromIndex);
+            changed();
+        }
+    }
+
+    private boolean batchRemove(Collection<?> collection, boolean retain) {
+        if (collection == null) {
+            throw new NullPointerException();
+        }
+        boolean removed = false;
+        synchronized (mLock) {
+            // From the end, so that the indices recorded before each removal stay valid.
+            for (int i = mPending.size() - 1; i >= 0; i--) {
+                if (collection.contains(mPending.get(i)) != retain) {
+                    mPending.remove(i);
+                    mRecorder.notifyRemoved(this, i, 1);
+                    removed = true;
+                }
+            }
+            if (removed) {
+                changed();
+            }
+        }
+        return removed;
+    }
+
+    /** Called with mLock held after each change. */
+    private void changed() {
+        if (!mChanged) {
+            mChanged = true;
+            mScheduler.schedule();
+        }
+    }
+
+    /**
+     * Publishes the pending contents and notifies the changes recorded since the previous
+     * frame. Runs on the Looper's thread.
+     */
+    private void publish() {
+        final ListChangeRegistry recorder;
+        final Object[] contents;
+        synchronized (mLock) {
+            if (!mChanged) {
+                return;
+            }
+            mChanged = false;
+            recorder = mRecorder;
+            mRecorder = mSpareRecorder;
+            mSpareRecorder = recorder;
+            contents = mPending.toArray();
+        }
+        mPublished = contents;
+        try {
+            recorder.endBatch();
+        } finally {
+            // Writers get this recorder again at the next frame; it must be recording by then.
+            recorder.beginBatch();
+        }
+    }
+}
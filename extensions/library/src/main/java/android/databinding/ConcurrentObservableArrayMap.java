@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import android.os.Looper;
+import android.support.v4.util.ArrayMap;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An {@link ObservableMap} that may be changed from any thread and notifies its callbacks on
+ * the thread of a given Looper, the main thread by default.
+ * <p>
+ * Changes are applied to a pending copy of the contents under a lock, so that writers never
+ * wait for the UI. Once per frame, the pending contents are published and each key changed
+ * since the previous frame is notified once. If more keys changed than the
+ * {@link ObservableArrayMap#DEFAULT_BATCH_NOTIFY_ALL_THRESHOLD threshold}, or the map was
+ * cleared, a single notification with a null key is sent instead. All reads return the
+ * published contents, so they always match the notifications callbacks have received.
+ * <p>
+ * Publishing copies the contents, so this suits maps that are read far more often than they
+ * are published.
+ */
+public class ConcurrentObservableArrayMap<K, V> extends AbstractMap<K, V>
+        implements ObservableMap<K, V> {
+    private final Object mLock = new Object();
+
+    /** The contents including unpublished changes, guarded by mLock. */
+    private final ArrayMap<K, V> mPending = new ArrayMap<K, V>();
+
+    /** The contents as of the most recent frame. Never modified once published. */
+    private volatile Map<K, V> mPublished = Collections.emptyMap();
+
+    private final MapChangeRegistry mListeners = new MapChangeRegistry();
+
+    // The keys changed since the previous frame, guarded by mLock.
+    private LinkedHashSet<Object> mChangedKeys = new LinkedHashSet<Object>();
+    private LinkedHashSet<Object> mSpareChangedKeys = new LinkedHashSet<Object>();
+    private boolean mChangedAll;
+    private boolean mChanged;
+
+    private final FrameScheduler mScheduler;
+
+    /**
+     * Creates a map that notifies its callbacks on the main thread.
+     */
+    public ConcurrentObservableArrayMap() {
+        this(Looper.getMainLooper());
+    }
+
+    /**
+     * @param looper The Looper on whose thread the callbacks are notified.
+     */
+    public ConcurrentObservableArrayMap(Looper looper) {
+        mScheduler = new FrameScheduler(looper, new Runnable() {
+            @Override
+            public void run() {
+                publish();
+            }
+        });
+    }
+
+    @Override
+    public void addOnMapChangedCallback(
+            OnMapChangedCallback<? extends ObservableMap<K, V>, K, V> listener) {
+        mListeners.add(listener);
+    }
+
+    @Override
+    public void removeOnMapChangedCallback(
+            OnMapChangedCallback<? extends ObservableMap<K, V>, K, V> listener) {
+        mListeners.remove(listener);
+    }
+
+    @Override
+    public V get(Object key) {
+        return mPublished.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return mPublished.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return mPublished.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(mPublished).entrySet();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        synchronized (mLock) {
+            final V old = mPending.put(key, value);
+            changed(key);
+            return old;
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        synchronized (mLock) {
+            mPending.ensureCapacity(mPending.size() + map.size());
+            for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                mPending.put(entry.getKey(), entry.getValue());
+                changed(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        synchronized (mLock) {
+            final int index = mPending.indexOfKey(key);
+            if (index < 0) {
+                return null;
+            }
+            final V old = mPending.removeAt(index);
+            changed(key);
+            return old;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mLock) {
+            if (!mPending.isEmpty()) {
+                mPending.clear();
+                changed(null);
+            }
+        }
+    }
+
+    /** Called with mLock held after each change. */
+    private void changed(Object key) {
+        if (!mChangedAll) {
+            if (key == null) {
+                mChangedAll = true;
+                mChangedKeys.clear();
+            } else {
+                mChangedKeys.add(key);
+                if (mChangedKeys.size() > ObservableArrayMap.DEFAULT_BATCH_NOTIFY_ALL_THRESHOLD) {
+                    mChangedAll = true;
+                    mChangedKeys.clear();
+                }
+            }
+        }
+        if (!mChanged) {
+            mChanged = true;
+            mScheduler.schedule();
+        }
+    }
+
+    /**
+     * Publishes the pending contents and notifies the keys changed since the previous frame.
+     * Runs on the Looper's thread.
+     */
+    private void publish() {
+        final Map<K, V> contents;
+        final LinkedHashSet<Object> keys;
+        final boolean changedAll;
+        synchronized (mLock) {
+            if (!mChanged) {
+                return;
+            }
+            mChanged = false;
+            contents = new ArrayMap<K, V>(mPending);
+            keys = mChangedKeys;
+            mChangedKeys = mSpareChangedKeys;
+            mSpareChangedKeys = keys;
+            changedAll = mChangedAll;
+            mChangedAll = false;
+        }
+        mPublished = contents;
+        try {
+            if (changedAll) {
+                mListeners.notifyChange(this, null);
+            } else {
+                for (Object key : keys) {
+                    mListeners.notifyChange(this, key);
+                }
+            }
+        } finally {
+            // Swapped back in at the next frame, on this thread, so this is not raced.
+            keys.clear();
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package android.databinding;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.Nullable;
 import android.view.InflateException;
 import android.view.LayoutInflater;
@@ -24,6 +26,8 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
 
+import java.util.concurrent.Executor;
+
 /**
  * Utility class to create {@link ViewDataBinding} from layouts.
  */
@@ -121,6 +125,54 @@ public class DataBindingUtil {
         }
     }
 
+    /**
+     * Inflates a binding layout and creates its binding on <code>executor</code>, then delivers
+     * the binding to <code>listener</code> on the calling thread. This uses the
+     * DataBindingComponent set in {@link #setDefaultComponent(DataBindingComponent)}.
+     *
+     * @see #inflateAsync(LayoutInflater, int, ViewGroup, Executor, DataBindingComponent,
+     * OnInflateFinishedListener)
+     */
+    public static <T extends ViewDataBinding> void inflateAsync(LayoutInflater inflater,
+            int layoutId, @Nullable ViewGroup parent, Executor executor,
+            OnInflateFinishedListener<T> listener) {
+        inflateAsync(inflater, layoutId, parent, executor, sDefaultComponent, listener);
+    }
+
+    /**
+     * Inflates a binding layout and creates its binding on <code>executor</code>, then delivers
+     * the binding to <code>listener</code> on the calling thread. The binding is the same as
+     * the one returned by {@link #inflate(LayoutInflater, int, ViewGroup, boolean,
+     * DataBindingComponent)} with <code>attachToParent</code> false: its pending bindings are
+     * executed on the calling thread once its root is attached to a window.
+     * <p>
+     * The inflated hierarchy is never attached to <code>parent</code>, so merge layouts cannot
+     * be inflated this way. If the layout cannot be inflated on a background thread, for
+     * example because one of its Views requires a Looper, it is inflated again on the calling
+     * thread before the listener is called.
+     *
+     * @param inflater The LayoutInflater used to inflate the binding layout. The inflation
+     *                 uses a clone of it, so it may keep being used on the calling thread.
+     * @param layoutId The layout resource ID of the layout to inflate.
+     * @param parent Optional view that provides a set of LayoutParams values for root of the
+     *               returned hierarchy. It is only read on the executor's thread.
+     * @param executor The Executor to inflate the layout and create the binding on.
+     * @param bindingComponent The DataBindingComponent to use in the binding.
+     * @param listener Called on the calling thread with the newly-created binding or
+     *                 <code>null</code> if the layoutId wasn't for a binding layout.
+     * @throws IllegalStateException When the calling thread does not have a Looper.
+     */
+    public static <T extends ViewDataBinding> void inflateAsync(LayoutInflater inflater,
+            int layoutId, @Nullable ViewGroup parent, Executor executor,
+            DataBindingComponent bindingComponent, OnInflateFinishedListener<T> listener) {
+        final Looper looper = Looper.myLooper();
+        if (looper == null) {
+            throw new IllegalStateException("inflateAsync must be called from a Looper thread");
+        }
+        executor.execute(new AsyncInflation<T>(inflater, layoutId, parent, bindingComponent,
+                listener, looper));
+    }
+
     /**
      * Returns the binding for the given layout root or creates a binding if one
      * does not exist. This uses the DataBindingComponent set in
@@ -305,4 +357,72 @@ public class DataBindingUtil {
             return bind(component, children, layoutId);
         }
     }
+
+    /**
+     * Receives the binding inflated by
+     * {@link #inflateAsync(LayoutInflater, int, ViewGroup, Executor, OnInflateFinishedListener)}.
+     */
+    public interface OnInflateFinishedListener<T extends ViewDataBinding> {
+        /**
+         * Called on the thread that requested the inflation.
+         *
+         * @param binding The newly-created binding or <code>null</code> if the layout wasn't a
+         *                binding layout.
+         */
+        void onInflateFinished(T binding);
+    }
+
+    /**
+     * Inflates on the executor's thread, then posts itself to the requesting thread to
+     * deliver the result.
+     */
+    private static class AsyncInflation<T extends ViewDataBinding> implements Runnable {
+        private final LayoutInflater mInflater;
+        private final LayoutInflater mWorkerInflater;
+        private final int mLayoutId;
+        private final ViewGroup mParent;
+        private final DataBindingComponent mBindingComponent;
+        private final OnInflateFinishedListener<T> mListener;
+        private final Looper mLooper;
+        private T mBinding;
+        private boolean mInflated;
+        private boolean mFailed;
+
+        AsyncInflation(LayoutInflater inflater, int layoutId, ViewGroup parent,
+                DataBindingComponent bindingComponent, OnInflateFinishedListener<T> listener,
+                Looper looper) {
+            mInflater = inflater;
+            // LayoutInflater is not thread safe, so the worker uses its own.
+            mWorkerInflater = inflater.cloneInContext(inflater.getContext());
+            mLayoutId = layoutId;
+            mParent = parent;
+            mBindingComponent = bindingComponent;
+            mListener = listener;
+            mLooper = looper;
+        }
+
+        @Override
+        public void run() {
+            if (!mInflated) {
+                mInflated = true;
+                RebindQueue.setTargetLooper(mLooper);
+                try {
+                    mBinding = inflate(mWorkerInflater, mLayoutId, mParent, false,
+                            mBindingComponent);
+                } catch (RuntimeException e) {
+                    // Retried on the requesting thread, which reports real errors the same
+                    // way a regular inflate does.
+                    mFailed = true;
+                } finally {
+                    RebindQueue.setTargetLooper(null);
+                }
+                new Handler(mLooper).post(this);
+            } else {
+                if (mFailed) {
+                    mBinding = inflate(mInflater, mLayoutId, mParent, false, mBindingComponent);
+                }
+                mListener.onInflateFinished(mBinding);
+            }
+        }
+    }
 }
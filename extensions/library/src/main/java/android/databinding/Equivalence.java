@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+/**
+ * Decides whether two values are to be treated as the same, for example whether an element of
+ * a list still represents the same item after the list is replaced.
+ *
+ * @param <T> The type of values compared.
+ * @see ObservableArrayList#setAll(java.util.List, Equivalence)
+ */
+public abstract class Equivalence<T> {
+    private static final Equivalence<Object> EQUALITY = new Equivalence<Object>() {
+        @Override
+        public boolean equivalent(Object a, Object b) {
+            return a == b || (a != null && a.equals(b));
+        }
+
+        @Override
+        public int hash(Object value) {
+            return value == null ? 0 : value.hashCode();
+        }
+    };
+
+    private static final Equivalence<Object> IDENTITY = new Equivalence<Object>() {
+        @Override
+        public boolean equivalent(Object a, Object b) {
+            return a == b;
+        }
+
+        @Override
+        public int hash(Object value) {
+            return System.identityHashCode(value);
+        }
+    };
+
+    /**
+     * @return true if <code>a</code> and <code>b</code> are to be treated as the same value.
+     * Either may be null.
+     */
+    public abstract boolean equivalent(T a, T b);
+
+    /**
+     * @return A hash code for <code>value</code> that is equal for all equivalent values.
+     * <code>value</code> may be null.
+     */
+    public abstract int hash(T value);
+
+    /**
+     * @return An Equivalence using {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Equivalence<T> equality() {
+        return (Equivalence<T>) EQUALITY;
+    }
+
+    /**
+     * @return An Equivalence that only treats a value as equivalent to itself.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Equivalence<T> identity() {
+        return (Equivalence<T>) IDENTITY;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs an action on a Looper's thread at the next animation frame (or Handler message prior to
+ * API 16) after {@link #schedule()} is called. However often schedule() is called, the action
+ * runs once per frame.
+ */
+class FrameScheduler implements Runnable {
+    private static final boolean USE_CHOREOGRAPHER = ViewDataBinding.SDK_INT >= 16;
+
+    private final Handler mHandler;
+
+    private final Runnable mAction;
+
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+    // api >= 16. Only accessed on the Looper's thread.
+    private Choreographer mChoreographer;
+
+    private final Choreographer.FrameCallback mFrameCallback;
+
+    /**
+     * @param looper The Looper whose thread runs the action.
+     * @param action The action to run.
+     */
+    FrameScheduler(Looper looper, Runnable action) {
+        mHandler = new Handler(looper);
+        mAction = action;
+        if (USE_CHOREOGRAPHER) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    runAction();
+                }
+            };
+        } else {
+            mFrameCallback = null;
+        }
+    }
+
+    /**
+     * Makes sure the action runs at the next frame. This may be called from any thread.
+     */
+    void schedule() {
+        if (mScheduled.compareAndSet(false, true)) {
+            mHandler.post(this);
+        }
+    }
+
+    /**
+     * Called on the Looper's thread after {@link #schedule()}.
+     */
+    @Override
+    public void run() {
+        if (!USE_CHOREOGRAPHER) {
+            runAction();
+            return;
+        }
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+        mChoreographer.postFrameCallback(mFrameCallback);
+    }
+
+    private void runAction() {
+        // Cleared first so that changes made by or during the action schedule another frame.
+        mScheduled.set(false);
+        mAction.run();
+    }
+}
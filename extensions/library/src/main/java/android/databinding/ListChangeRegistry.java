@@ -19,13 +19,26 @@ import android.support.v4.util.Pools;
 
 /**
  * Utility class for managing ObservableList callbacks.
+ * <p>
+ * Between {@link #beginBatch()} and {@link #endBatch()}, notifications are held back and
+ * adjacent or overlapping ranges are merged, so that a loop of single element changes is
+ * reported as a few range events when the batch ends.
  */
 public class ListChangeRegistry
         extends
         CallbackRegistry<ObservableList.OnListChangedCallback, ObservableList,
                 ListChangeRegistry.ListChanges> {
-    private static final Pools.SynchronizedPool<ListChanges> sListChanges =
-            new Pools.SynchronizedPool<ListChanges>(10);
+    /**
+     * ListChanges are acquired and released on the notifying thread, so each thread keeps its
+     * own pool and never has to lock it.
+     */
+    private static final ThreadLocal<Pools.SimplePool<ListChanges>> sListChanges =
+            new ThreadLocal<Pools.SimplePool<ListChanges>>() {
+                @Override
+                protected Pools.SimplePool<ListChanges> initialValue() {
+                    return new Pools.SimplePool<ListChanges>(10);
+                }
+            };
 
     private static final int ALL = 0;
     private static final int CHANGED = 1;
@@ -33,6 +46,16 @@ public class ListChangeRegistry
     private static final int MOVED = 3;
     private static final int REMOVED = 4;
 
+    /** The number of ints recorded per held back event: type, start, to and count. */
+    private static final int EVENT_SIZE = 4;
+
+    // Batch state, guarded by this.
+    private int mBatchDepth;
+    private ObservableList mBatchSender;
+    private boolean mBatchChanged;
+    private int[] mBatchEvents;
+    private int mBatchEventCount;
+
     private static final CallbackRegistry.NotifierCallback<ObservableList.OnListChangedCallback,
             ObservableList, ListChanges> NOTIFIER_CALLBACK = new CallbackRegistry.NotifierCallback<
             ObservableList.OnListChangedCallback, ObservableList, ListChanges>() {
@@ -66,6 +89,9 @@ public class ListChangeRegistry
      * @param list The list that changed.
      */
     public void notifyChanged(ObservableList list) {
+        if (mBatchDepth != 0 && record(list, ALL, 0, 0, 0)) {
+            return;
+        }
         notifyCallbacks(list, ALL, null);
     }
 
@@ -77,6 +103,9 @@ public class ListChangeRegistry
      * @param count The number of changed elements.
      */
     public void notifyChanged(ObservableList list, int start, int count) {
+        if (mBatchDepth != 0 && record(list, CHANGED, start, 0, count)) {
+            return;
+        }
         ListChanges listChanges = acquire(start, 0, count);
         notifyCallbacks(list, CHANGED, listChanges);
     }
@@ -89,6 +118,9 @@ public class ListChangeRegistry
      * @param count The number of elements that were inserted.
      */
     public void notifyInserted(ObservableList list, int start, int count) {
+        if (mBatchDepth != 0 && record(list, INSERTED, start, 0, count)) {
+            return;
+        }
         ListChanges listChanges = acquire(start, 0, count);
         notifyCallbacks(list, INSERTED, listChanges);
     }
@@ -102,6 +134,9 @@ public class ListChangeRegistry
      * @param count The number of elements moved.
      */
     public void notifyMoved(ObservableList list, int from, int to, int count) {
+        if (mBatchDepth != 0 && record(list, MOVED, from, to, count)) {
+            return;
+        }
         ListChanges listChanges = acquire(from, to, count);
         notifyCallbacks(list, MOVED, listChanges);
     }
@@ -114,12 +149,239 @@ public class ListChangeRegistry
      * @param count The number of elements removed.
      */
     public void notifyRemoved(ObservableList list, int start, int count) {
+        if (mBatchDepth != 0 && record(list, REMOVED, start, 0, count)) {
+            return;
+        }
         ListChanges listChanges = acquire(start, 0, count);
         notifyCallbacks(list, REMOVED, listChanges);
     }
 
+    /**
+     * Holds back notifications until the matching {@link #endBatch()}. Batches nest; only
+     * the outermost {@link #endBatch()} notifies. Must be called on the thread that changes
+     * the list.
+     */
+    public synchronized void beginBatch() {
+        mBatchDepth++;
+    }
+
+    /**
+     * Ends the innermost batch started with {@link #beginBatch()}. Ending the outermost batch
+     * notifies the merged ranges, in order, or a single
+     * {@link ObservableList.OnListChangedCallback#onChanged(ObservableList)} if
+     * {@link #notifyChanged(ObservableList)} was called during the batch.
+     *
+     * @throws IllegalStateException if no batch was started.
+     */
+    public void endBatch() {
+        final ObservableList sender;
+        final boolean changed;
+        final int[] events;
+        final int eventCount;
+        synchronized (this) {
+            if (mBatchDepth == 0) {
+                throw new IllegalStateException("endBatch() called without beginBatch()");
+            }
+            if (--mBatchDepth != 0) {
+                return;
+            }
+            sender = mBatchSender;
+            changed = mBatchChanged;
+            events = mBatchEvents;
+            eventCount = mBatchEventCount;
+            mBatchSender = null;
+            mBatchChanged = false;
+            mBatchEventCount = 0;
+        }
+        if (sender == null) {
+            return;
+        }
+        if (changed) {
+            notifyCallbacks(sender, ALL, null);
+            return;
+        }
+        for (int i = 0; i < eventCount; i += EVENT_SIZE) {
+            notifyCallbacks(sender, events[i],
+                    acquire(events[i + 1], events[i + 2], events[i + 3]));
+        }
+    }
+
+    /**
+     * @return true if notifications are being held back by {@link #beginBatch()}.
+     */
+    public synchronized boolean isBatching() {
+        return mBatchDepth != 0;
+    }
+
+    /**
+     * Adds a notification to the batch, merging it into the previous one where possible.
+     * Each range is relative to the list after all previously recorded changes. Changes and
+     * removals of elements inserted earlier in the batch are folded into that insertion, with
+     * indices translated back over the events recorded since.
+     *
+     * @return false if the batch ended in the meantime and the change must be notified now.
+     */
+    private synchronized boolean record(ObservableList list, int type, int start, int to,
+            int count) {
+        if (mBatchDepth == 0) {
+            return false;
+        }
+        mBatchSender = list;
+        if (mBatchChanged) {
+            return true;
+        }
+        if (type == ALL) {
+            mBatchChanged = true;
+            mBatchEventCount = 0;
+            return true;
+        }
+        if (count == 0) {
+            return true;
+        }
+        while (mBatchEventCount > 0) {
+            final int last = mBatchEventCount - EVENT_SIZE;
+            final int lastType = mBatchEvents[last];
+            final int lastStart = mBatchEvents[last + 1];
+            final int lastCount = mBatchEvents[last + 3];
+            final int lastEnd = lastStart + lastCount;
+            if (type == lastType && type == INSERTED) {
+                if (start >= lastStart && start <= lastEnd) {
+                    // Inserted into or next to the inserted range.
+                    mBatchEvents[last + 3] = lastCount + count;
+                    return true;
+                }
+            } else if (type == lastType && type == REMOVED) {
+                if (start <= lastStart && start + count >= lastStart) {
+                    // Removed the elements around the previously removed range.
+                    mBatchEvents[last + 1] = start;
+                    mBatchEvents[last + 3] = lastCount + count;
+                    return true;
+                }
+            } else if (type == lastType && type == CHANGED) {
+                if (start <= lastEnd && start + count >= lastStart) {
+                    final int end = Math.max(lastEnd, start + count);
+                    mBatchEvents[last + 1] = Math.min(lastStart, start);
+                    mBatchEvents[last + 3] = end - mBatchEvents[last + 1];
+                    return true;
+                }
+            } else if (lastType == CHANGED && type == REMOVED && lastStart >= start
+                    && lastEnd <= start + count) {
+                // The changed elements were removed; try to merge with the one before.
+                mBatchEventCount = last;
+                continue;
+            }
+            break;
+        }
+        if ((type == CHANGED || type == REMOVED) && foldIntoInsert(type, start, count)) {
+            return true;
+        }
+        if (mBatchEvents == null) {
+            mBatchEvents = new int[EVENT_SIZE * 4];
+        } else if (mBatchEventCount == mBatchEvents.length) {
+            final int[] events = new int[mBatchEvents.length * 2];
+            System.arraycopy(mBatchEvents, 0, events, 0, mBatchEventCount);
+            mBatchEvents = events;
+        }
+        mBatchEvents[mBatchEventCount] = type;
+        mBatchEvents[mBatchEventCount + 1] = start;
+        mBatchEvents[mBatchEventCount + 2] = to;
+        mBatchEvents[mBatchEventCount + 3] = count;
+        mBatchEventCount += EVENT_SIZE;
+        return true;
+    }
+
+    /**
+     * Folds a change or removal of elements that were inserted during the batch into the
+     * insertion. Inserted elements are reported as new anyway, and removed ones are simply
+     * not inserted. The range is translated back over the events recorded after the insertion;
+     * the search stops at an event that overlaps the range or splits it.
+     *
+     * @return true if the event was folded and must not be recorded.
+     */
+    private boolean foldIntoInsert(int type, int start, int count) {
+        final boolean isChange = type == CHANGED;
+        int rangeStart = start;
+        int insert = mBatchEventCount - EVENT_SIZE;
+        for (; insert >= 0; insert -= EVENT_SIZE) {
+            final int eventStart = mBatchEvents[insert + 1];
+            if (mBatchEvents[insert] == INSERTED && rangeStart >= eventStart
+                    && rangeStart + count <= eventStart + mBatchEvents[insert + 3]) {
+                break;
+            }
+            rangeStart = translateBack(insert, rangeStart, count, isChange);
+            if (rangeStart < 0) {
+                return false;
+            }
+        }
+        if (insert < 0) {
+            return false;
+        }
+        if (isChange) {
+            return true;
+        }
+        // The events recorded after the insertion still count the removed elements. Shift
+        // those that lie after them.
+        rangeStart = start;
+        for (int i = mBatchEventCount - EVENT_SIZE; i > insert; i -= EVENT_SIZE) {
+            final int before = translateBack(i, rangeStart, count, false);
+            if (mBatchEvents[i + 1] >= rangeStart + count) {
+                mBatchEvents[i + 1] -= count;
+            }
+            rangeStart = before;
+        }
+        final int remaining = mBatchEvents[insert + 3] - count;
+        if (remaining == 0) {
+            System.arraycopy(mBatchEvents, insert + EVENT_SIZE, mBatchEvents, insert,
+                    mBatchEventCount - insert - EVENT_SIZE);
+            mBatchEventCount -= EVENT_SIZE;
+        } else {
+            mBatchEvents[insert + 3] = remaining;
+        }
+        return true;
+    }
+
+    /**
+     * Translates a range of the list after the recorded event at <code>index</code> to the
+     * list before it.
+     *
+     * @param index The index of the event in mBatchEvents.
+     * @param start The start of the range after the event.
+     * @param count The length of the range.
+     * @param overlapChanges Whether the range may overlap a changed range.
+     * @return The start of the range before the event or -1 if the event touches the range
+     * or splits it.
+     */
+    private int translateBack(int index, int start, int count, boolean overlapChanges) {
+        final int eventStart = mBatchEvents[index + 1];
+        final int eventCount = mBatchEvents[index + 3];
+        switch (mBatchEvents[index]) {
+            case CHANGED:
+                if (overlapChanges || start + count <= eventStart
+                        || start >= eventStart + eventCount) {
+                    return start;
+                }
+                return -1;
+            case INSERTED:
+                if (start + count <= eventStart) {
+                    return start;
+                } else if (start >= eventStart + eventCount) {
+                    return start - eventCount;
+                }
+                return -1;
+            case REMOVED:
+                if (start + count <= eventStart) {
+                    return start;
+                } else if (start >= eventStart) {
+                    return start + eventCount;
+                }
+                return -1;
+            default:
+                return -1;
+        }
+    }
+
     private static ListChanges acquire(int start, int to, int count) {
-        ListChanges listChanges = sListChanges.acquire();
+        ListChanges listChanges = sListChanges.get().acquire();
         if (listChanges == null) {
             listChanges = new ListChanges();
         }
@@ -130,11 +392,11 @@ public class ListChangeRegistry
     }
 
     @Override
-    public synchronized void notifyCallbacks(ObservableList sender, int notificationType,
+    public void notifyCallbacks(ObservableList sender, int notificationType,
             ListChanges listChanges) {
         super.notifyCallbacks(sender, notificationType, listChanges);
         if (listChanges != null) {
-            sListChanges.release(listChanges);
+            sListChanges.get().release(listChanges);
         }
     }
 
@@ -142,6 +404,14 @@ public class ListChangeRegistry
         super(NOTIFIER_CALLBACK);
     }
 
+    /**
+     * @param copyOnWrite true to notify without locking, see
+     *                    {@link CallbackRegistry#CallbackRegistry(NotifierCallback, boolean)}.
+     */
+    public ListChangeRegistry(boolean copyOnWrite) {
+        super(NOTIFIER_CALLBACK, copyOnWrite);
+    }
+
     static class ListChanges {
         public int start;
         public int count;
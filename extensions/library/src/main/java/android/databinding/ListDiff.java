@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes which elements of a list are kept when it is replaced by another, using Myers'
+ * O(ND) difference algorithm in its linear space variant. The kept elements form a longest
+ * common subsequence, so the elements left over are the fewest possible removals and
+ * insertions. Optionally, removed and inserted elements that are equivalent are paired up
+ * as moves.
+ */
+class ListDiff<T> {
+    private final List<? extends T> mOldItems;
+    private final List<? extends T> mNewItems;
+    private final Equivalence<? super T> mEquivalence;
+
+    /** The new index of each old element or -1 if it was removed. */
+    final int[] oldToNew;
+
+    /** The old index of each new element or -1 if it was inserted. */
+    final int[] newToOld;
+
+    /** Whether the element at each new index was moved rather than kept in place. */
+    final boolean[] moved;
+
+    /** Whether any element was moved. */
+    boolean hasMoves;
+
+    // Forward and backward furthest reaching x per diagonal, indexed by diagonal + mOffset.
+    private int[] mForward;
+    private int[] mBackward;
+    private int mOffset;
+
+    // The middle snake found by findMiddleSnake.
+    private int mSnakeStartX;
+    private int mSnakeStartY;
+    private int mSnakeEndX;
+    private int mSnakeEndY;
+
+    private ListDiff(List<? extends T> oldItems, List<? extends T> newItems,
+            Equivalence<? super T> equivalence) {
+        mOldItems = oldItems;
+        mNewItems = newItems;
+        mEquivalence = equivalence;
+        oldToNew = new int[oldItems.size()];
+        newToOld = new int[newItems.size()];
+        moved = new boolean[newItems.size()];
+        Arrays.fill(oldToNew, -1);
+        Arrays.fill(newToOld, -1);
+    }
+
+    /**
+     * Computes the difference between two lists. Neither list may change while this runs.
+     *
+     * @param oldItems The current contents.
+     * @param newItems The contents replacing them.
+     * @param equivalence Decides whether an old and a new element are the same item.
+     * @param detectMoves Whether to pair removed and inserted elements into moves.
+     */
+    static <T> ListDiff<T> compute(List<? extends T> oldItems, List<? extends T> newItems,
+            Equivalence<? super T> equivalence, boolean detectMoves) {
+        ListDiff<T> diff = new ListDiff<T>(oldItems, newItems, equivalence);
+        final int size = (oldItems.size() + newItems.size() + 1) / 2 + 1;
+        diff.mOffset = size;
+        diff.mForward = new int[2 * size + 2];
+        diff.mBackward = new int[2 * size + 2];
+        diff.diff(0, oldItems.size(), 0, newItems.size());
+        diff.mForward = null;
+        diff.mBackward = null;
+        if (detectMoves) {
+            diff.detectMoves();
+        }
+        return diff;
+    }
+
+    private boolean same(int oldIndex, int newIndex) {
+        return mEquivalence.equivalent(mOldItems.get(oldIndex), mNewItems.get(newIndex));
+    }
+
+    private void match(int oldIndex, int newIndex) {
+        oldToNew[oldIndex] = newIndex;
+        newToOld[newIndex] = oldIndex;
+    }
+
+    private void diff(int oldStart, int oldEnd, int newStart, int newEnd) {
+        while (oldStart < oldEnd && newStart < newEnd && same(oldStart, newStart)) {
+            match(oldStart++, newStart++);
+        }
+        while (oldStart < oldEnd && newStart < newEnd && same(oldEnd - 1, newEnd - 1)) {
+            match(--oldEnd, --newEnd);
+        }
+        if (oldStart == oldEnd || newStart == newEnd) {
+            return;
+        }
+        findMiddleSnake(oldStart, oldEnd, newStart, newEnd);
+        final int startX = mSnakeStartX;
+        final int startY = mSnakeStartY;
+        final int endX = mSnakeEndX;
+        final int endY = mSnakeEndY;
+        for (int i = 0; i < endX - startX; i++) {
+            match(startX + i, startY + i);
+        }
+        // Both halves are strictly smaller than this range, so the recursion depth is
+        // logarithmic in the number of edits.
+        diff(oldStart, startX, newStart, startY);
+        diff(endX, oldEnd, endY, newEnd);
+    }
+
+    /**
+     * Finds the snake in the middle of a shortest edit script of the given ranges, whose
+     * first and last elements are known to differ.
+     */
+    private void findMiddleSnake(int oldStart, int oldEnd, int newStart, int newEnd) {
+        final int n = oldEnd - oldStart;
+        final int m = newEnd - newStart;
+        final int delta = n - m;
+        final boolean odd = (delta & 1) != 0;
+        final int max = (n + m + 1) / 2;
+        final int[] forward = mForward;
+        final int[] backward = mBackward;
+        final int offset = mOffset;
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        for (int d = 0; d <= max; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                    x = forward[offset + k + 1];
+                } else {
+                    x = forward[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                final int startX = x;
+                final int startY = y;
+                while (x < n && y < m && same(oldStart + x, newStart + y)) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                if (odd && k >= delta - (d - 1) && k <= delta + (d - 1)
+                        && x + backward[offset + delta - k] >= n) {
+                    mSnakeStartX = oldStart + startX;
+                    mSnakeStartY = newStart + startY;
+                    mSnakeEndX = oldStart + x;
+                    mSnakeEndY = newStart + y;
+                    return;
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])) {
+                    x = backward[offset + k + 1];
+                } else {
+                    x = backward[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                final int startX = x;
+                final int startY = y;
+                while (x < n && y < m && same(oldEnd - 1 - x, newEnd - 1 - y)) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                if (!odd && delta - k >= -d && delta - k <= d
+                        && x + forward[offset + delta - k] >= n) {
+                    mSnakeStartX = oldEnd - x;
+                    mSnakeStartY = newEnd - y;
+                    mSnakeEndX = oldEnd - startX;
+                    mSnakeEndY = newEnd - startY;
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("No middle snake found. Did a list change while "
+                + "it was compared or is the Equivalence inconsistent?");
+    }
+
+    /**
+     * Pairs each inserted element with the first removed element equivalent to it.
+     */
+    private void detectMoves() {
+        int removed = 0;
+        for (int i = 0; i < oldToNew.length; i++) {
+            if (oldToNew[i] == -1) {
+                removed++;
+            }
+        }
+        if (removed == 0 || newToOld.length == 0) {
+            return;
+        }
+        int bucketCount = 1;
+        while (bucketCount < removed * 2) {
+            bucketCount <<= 1;
+        }
+        final int[] heads = new int[bucketCount];
+        final int[] next = new int[oldToNew.length];
+        Arrays.fill(heads, -1);
+        // Added from the end so that each chain is in ascending order.
+        for (int i = oldToNew.length - 1; i >= 0; i--) {
+            if (oldToNew[i] == -1) {
+                final int bucket = mEquivalence.hash(mOldItems.get(i)) & (bucketCount - 1);
+                next[i] = heads[bucket];
+                heads[bucket] = i;
+            }
+        }
+        for (int j = 0; j < newToOld.length; j++) {
+            if (newToOld[j] != -1) {
+                continue;
+            }
+            final T item = mNewItems.get(j);
+            final int bucket = mEquivalence.hash(item) & (bucketCount - 1);
+            for (int i = heads[bucket]; i != -1; i = next[i]) {
+                if (oldToNew[i] == -1 && mEquivalence.equivalent(mOldItems.get(i), item)) {
+                    match(i, j);
+                    moved[j] = true;
+                    hasMoves = true;
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -34,6 +34,14 @@ public class MapChangeRegistry
         super(NOTIFIER_CALLBACK);
     }
 
+    /**
+     * @param copyOnWrite true to notify without locking, see
+     *                    {@link CallbackRegistry#CallbackRegistry(NotifierCallback, boolean)}.
+     */
+    public MapChangeRegistry(boolean copyOnWrite) {
+        super(NOTIFIER_CALLBACK, copyOnWrite);
+    }
+
     /**
      * Notifies registered callbacks that an element has been added, removed, or changed.
      *
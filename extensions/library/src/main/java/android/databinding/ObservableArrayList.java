@@ -15,8 +15,15 @@
  */
 package android.databinding;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * An {@link ObservableList} implementation using ArrayList as an implementation.
@@ -24,6 +31,12 @@ import java.util.Collection;
 public class ObservableArrayList<T> extends ArrayList<T> implements ObservableList<T> {
     private transient ListChangeRegistry mListeners = new ListChangeRegistry();
 
+    /**
+     * Incremented by each setAll so that a pending {@link #setAllAsync} can tell it has been
+     * superseded.
+     */
+    private transient int mSetAllGeneration;
+
     @Override
     public void addOnListChangedCallback(OnListChangedCallback listener) {
         if (mListeners == null) {
@@ -39,6 +52,35 @@ public class ObservableArrayList<T> extends ArrayList<T> implements ObservableLi
         }
     }
 
+    /**
+     * Holds back change notifications until the matching {@link #endBatchEdit()}. Changes
+     * made in the meantime are merged into as few range notifications as possible, so that,
+     * for example, a loop of {@link #add(Object)} calls is reported as a single insertion.
+     * Batches nest; only the outermost {@link #endBatchEdit()} notifies.
+     * <p>
+     * Call {@link #endBatchEdit()} in a <code>finally</code> block so that notifications are
+     * not held back forever.
+     */
+    public void beginBatchEdit() {
+        if (mListeners == null) {
+            mListeners = new ListChangeRegistry();
+        }
+        mListeners.beginBatch();
+    }
+
+    /**
+     * Ends the innermost batch started with {@link #beginBatchEdit()} and, if it was the
+     * outermost, notifies the changes made during the batch.
+     *
+     * @throws IllegalStateException if no batch was started.
+     */
+    public void endBatchEdit() {
+        if (mListeners == null) {
+            throw new IllegalStateException("endBatchEdit() called without beginBatchEdit()");
+        }
+        mListeners.endBatch();
+    }
+
     @Override
     public boolean add(T object) {
         super.add(object);
@@ -98,6 +140,97 @@ public class ObservableArrayList<T> extends ArrayList<T> implements ObservableLi
         }
     }
 
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return batchRemove(collection, false);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return batchRemove(collection, true);
+    }
+
+    /**
+     * Sorts this list and, if that changed the order of its elements, notifies a single
+     * {@link OnListChangedCallback#onChanged(ObservableList)}. The sort is stable.
+     * <p>
+     * On API 24 and later, this also replaces <code>ArrayList.sort</code>, so that
+     * <code>Collections.sort</code> notifies callbacks as well.
+     *
+     * @param comparator The Comparator to sort with, or null to sort by natural order.
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super T> comparator) {
+        final T[] sorted = (T[]) toArray();
+        Arrays.sort(sorted, comparator);
+        boolean changed = false;
+        for (int i = 0; i < sorted.length; i++) {
+            if (get(i) != sorted[i]) {
+                super.set(i, sorted[i]);
+                changed = true;
+            }
+        }
+        if (changed && mListeners != null) {
+            mListeners.notifyChanged(this);
+        }
+    }
+
+    /**
+     * Removes the elements that are, or with <code>retain</code> are not, in
+     * <code>collection</code>. The kept elements are compacted in one pass and the tail is
+     * removed at once, so the cost does not depend on the number of elements removed. One
+     * removal is notified per run of adjacent removed elements.
+     */
+    private boolean batchRemove(Collection<?> collection, boolean retain) {
+        if (collection == null) {
+            throw new NullPointerException();
+        }
+        final int size = size();
+        // Runs of removed elements as pairs of start and count, in old indices.
+        int[] runs = null;
+        int runCount = 0;
+        int read = 0;
+        int write = 0;
+        try {
+            for (; read < size; read++) {
+                final T item = get(read);
+                if (collection.contains(item) == retain) {
+                    if (write != read) {
+                        super.set(write, item);
+                    }
+                    write++;
+                } else if (mListeners != null) {
+                    if (runCount > 0 && runs[runCount - 2] + runs[runCount - 1] == read) {
+                        runs[runCount - 1]++;
+                    } else {
+                        if (runs == null) {
+                            runs = new int[8];
+                        } else if (runCount == runs.length) {
+                            final int[] grown = new int[runCount * 2];
+                            System.arraycopy(runs, 0, grown, 0, runCount);
+                            runs = grown;
+                        }
+                        runs[runCount++] = read;
+                        runs[runCount++] = 1;
+                    }
+                }
+            }
+        } finally {
+            // If contains() threw, keep everything that was not looked at.
+            for (; read < size; read++) {
+                super.set(write++, get(read));
+            }
+            if (write != size) {
+                super.removeRange(write, size);
+                // From the last run back, so that each run's start is still valid.
+                for (int i = runCount - 2; i >= 0; i -= 2) {
+                    notifyRemove(runs[i], runs[i + 1]);
+                }
+            }
+        }
+        return write != size;
+    }
+
     @Override
     public T set(int index, T object) {
         T val = super.set(index, object);
@@ -113,6 +246,194 @@ public class ObservableArrayList<T> extends ArrayList<T> implements ObservableLi
         notifyRemove(fromIndex, toIndex - fromIndex);
     }
 
+    /**
+     * Replaces the contents of this list with <code>newContents</code>, notifying only the
+     * elements that were actually inserted, removed or changed. Elements are matched by
+     * <code>equivalence</code>; the kept elements are the longest common subsequence of
+     * the old and new contents. A kept element that is not equal to its replacement is
+     * reported as changed.
+     *
+     * @param newContents The new contents of the list.
+     * @param equivalence Decides whether an old and a new element are the same item.
+     */
+    public void setAll(List<? extends T> newContents, Equivalence<? super T> equivalence) {
+        setAll(newContents, equivalence, false);
+    }
+
+    /**
+     * Replaces the contents of this list with <code>newContents</code>, like
+     * {@link #setAll(List, Equivalence)}.
+     *
+     * @param newContents The new contents of the list.
+     * @param equivalence Decides whether an old and a new element are the same item.
+     * @param detectMoves Whether a removed element equivalent to an inserted one should be
+     *                    reported as moved instead.
+     */
+    public void setAll(List<? extends T> newContents, Equivalence<? super T> equivalence,
+            boolean detectMoves) {
+        mSetAllGeneration++;
+        if (mListeners == null || mListeners.isEmpty()) {
+            super.clear();
+            super.addAll(newContents);
+            return;
+        }
+        ListDiff<T> diff = ListDiff.compute(this, newContents, equivalence, detectMoves);
+        applyDiff(diff, newContents);
+    }
+
+    /**
+     * Replaces the contents of this list with <code>newContents</code>, like
+     * {@link #setAll(List, Equivalence, boolean)}, but compares the old and new contents on
+     * <code>executor</code>. The list is changed and the callbacks are notified on the
+     * calling thread once the comparison is done. If this list was changed in the meantime,
+     * or the comparison threw an exception, the comparison is repeated on the calling thread.
+     * If setAll or setAllAsync is called again before that, this call has no effect.
+     * <p>
+     * Must be called on a thread with a Looper. <code>newContents</code> is copied, so it
+     * may be changed after this returns.
+     *
+     * @param newContents The new contents of the list.
+     * @param equivalence Decides whether an old and a new element are the same item. It is
+     *                    called on <code>executor</code>.
+     * @param detectMoves Whether a removed element equivalent to an inserted one should be
+     *                    reported as moved instead.
+     * @param executor The Executor to compare on.
+     */
+    public void setAllAsync(List<? extends T> newContents,
+            final Equivalence<? super T> equivalence, final boolean detectMoves,
+            Executor executor) {
+        final Looper looper = Looper.myLooper();
+        if (looper == null) {
+            throw new IllegalStateException("setAllAsync must be called on a Looper thread");
+        }
+        final Handler handler = new Handler(looper);
+        final ArrayList<T> oldContents = new ArrayList<T>(this);
+        final ArrayList<T> contents = new ArrayList<T>(newContents);
+        final int generation = ++mSetAllGeneration;
+        final int expectedModCount = modCount;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ListDiff<T> computed;
+                try {
+                    computed = ListDiff.compute(oldContents, contents, equivalence,
+                            detectMoves);
+                } catch (RuntimeException e) {
+                    // Compare again on the calling thread, where a failure is thrown to the
+                    // code that owns the list instead of the Executor's thread.
+                    computed = null;
+                }
+                final ListDiff<T> diff = computed;
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mSetAllGeneration) {
+                            return;
+                        }
+                        if (diff == null || modCount != expectedModCount) {
+                            setAll(contents, equivalence, detectMoves);
+                        } else {
+                            applyDiff(diff, contents);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Changes this list to <code>newContents</code> step by step, so that the list matches
+     * each notification at the time it is sent. Removals are made from the end first, then
+     * moves and insertions from the start, so the indices of elements not yet handled never
+     * shift.
+     */
+    private void applyDiff(ListDiff<T> diff, List<? extends T> newContents) {
+        final int[] oldToNew = diff.oldToNew;
+        final int[] newToOld = diff.newToOld;
+        for (int end = oldToNew.length; end > 0; end--) {
+            if (oldToNew[end - 1] == -1) {
+                int start = end - 1;
+                while (start > 0 && oldToNew[start - 1] == -1) {
+                    start--;
+                }
+                super.removeRange(start, end);
+                notifyRemove(start, end - start);
+                end = start;
+            }
+        }
+        if (diff.hasMoves) {
+            // The old indices of the remaining elements in their current order.
+            final int[] current = new int[size()];
+            for (int i = 0, j = 0; i < oldToNew.length; i++) {
+                if (oldToNew[i] != -1) {
+                    current[j++] = i;
+                }
+            }
+            int previous = -1;
+            for (int j = 0; j < newToOld.length; j++) {
+                final int oldIndex = newToOld[j];
+                if (oldIndex == -1) {
+                    continue;
+                }
+                if (diff.moved[j]) {
+                    final int from = indexOf(current, oldIndex);
+                    System.arraycopy(current, from + 1, current, from,
+                            current.length - from - 1);
+                    final int to = previous == -1 ? 0 : indexOf(current, previous) + 1;
+                    System.arraycopy(current, to, current, to + 1, current.length - to - 1);
+                    current[to] = oldIndex;
+                    if (from != to) {
+                        super.add(to, super.remove(from));
+                        if (mListeners != null) {
+                            mListeners.notifyMoved(this, from, to, 1);
+                        }
+                    }
+                }
+                previous = oldIndex;
+            }
+        }
+        for (int start = 0; start < newToOld.length; start++) {
+            if (newToOld[start] == -1) {
+                int end = start + 1;
+                while (end < newToOld.length && newToOld[end] == -1) {
+                    end++;
+                }
+                super.addAll(start, newContents.subList(start, end));
+                notifyAdd(start, end - start);
+                start = end;
+            }
+        }
+        int changedStart = -1;
+        for (int i = 0; i <= newToOld.length; i++) {
+            boolean changed = false;
+            if (i < newToOld.length && newToOld[i] != -1) {
+                final T oldItem = get(i);
+                final T newItem = newContents.get(i);
+                if (oldItem != newItem) {
+                    super.set(i, newItem);
+                    changed = oldItem == null || !oldItem.equals(newItem);
+                }
+            }
+            if (changed && changedStart == -1) {
+                changedStart = i;
+            } else if (!changed && changedStart != -1) {
+                if (mListeners != null) {
+                    mListeners.notifyChanged(this, changedStart, i - changedStart);
+                }
+                changedStart = -1;
+            }
+        }
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void notifyAdd(int start, int count) {
         if (mListeners != null) {
             mListeners.notifyInserted(this, start, count);
@@ -16,13 +16,32 @@
 package android.databinding;
 
 import android.support.v4.util.ArrayMap;
+import android.support.v4.util.SimpleArrayMap;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
 
 public class ObservableArrayMap<K, V> extends ArrayMap<K, V> implements ObservableMap<K, V> {
 
+    /**
+     * The default number of distinct keys a batch may change before a single notification
+     * with a null key is sent instead of one per key.
+     */
+    public static final int DEFAULT_BATCH_NOTIFY_ALL_THRESHOLD = 32;
+
     private transient MapChangeRegistry mListeners;
 
+    private transient int mBatchDepth;
+
+    private transient int mBatchNotifyAllThreshold = DEFAULT_BATCH_NOTIFY_ALL_THRESHOLD;
+
+    /** Whether the batch will end with a single notification with a null key. */
+    private transient boolean mBatchChangedAll;
+
+    /** The distinct keys changed during the batch, in the order they first changed. */
+    private transient LinkedHashSet<Object> mBatchKeys;
+
     @Override
     public void addOnMapChangedCallback(
             OnMapChangedCallback<? extends ObservableMap<K, V>, K, V> listener) {
@@ -40,6 +59,92 @@ public class ObservableArrayMap<K, V> extends ArrayMap<K, V> implements Observab
         }
     }
 
+    /**
+     * Holds back change notifications until the matching {@link #endBatchUpdate()}. When the
+     * batch ends, each key changed in the meantime is notified once. If more keys than the
+     * {@link #setBatchNotifyAllThreshold(int) threshold} changed, or the map was cleared,
+     * a single notification with a null key is sent instead. Batches nest; only the
+     * outermost {@link #endBatchUpdate()} notifies.
+     * <p>
+     * Call {@link #ensureCapacity(int)} before a batch of puts to grow the map only once.
+     */
+    public void beginBatchUpdate() {
+        mBatchDepth++;
+    }
+
+    /**
+     * Ends the innermost batch started with {@link #beginBatchUpdate()} and, if it was the
+     * outermost, notifies the changes made during the batch.
+     *
+     * @throws IllegalStateException if no batch was started.
+     */
+    public void endBatchUpdate() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("endBatchUpdate() called without "
+                    + "beginBatchUpdate()");
+        }
+        if (--mBatchDepth != 0) {
+            return;
+        }
+        if (mBatchChangedAll) {
+            mBatchChangedAll = false;
+            if (mBatchKeys != null) {
+                mBatchKeys.clear();
+            }
+            if (mListeners != null) {
+                mListeners.notifyCallbacks(this, 0, null);
+            }
+        } else if (mBatchKeys != null && !mBatchKeys.isEmpty()) {
+            final Object[] keys = mBatchKeys.toArray();
+            mBatchKeys.clear();
+            if (mListeners != null) {
+                for (Object key : keys) {
+                    mListeners.notifyCallbacks(this, 0, key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the number of distinct keys a batch may change before a single notification with
+     * a null key is sent instead of one per key.
+     *
+     * @param threshold The maximum number of notifications per batch. Must not be negative.
+     * @see #beginBatchUpdate()
+     */
+    public void setBatchNotifyAllThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold < 0: " + threshold);
+        }
+        mBatchNotifyAllThreshold = threshold;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        beginBatchUpdate();
+        try {
+            super.putAll(map);
+        } finally {
+            endBatchUpdate();
+        }
+    }
+
+    @Override
+    public void putAll(SimpleArrayMap<? extends K, ? extends V> array) {
+        // SimpleArrayMap copies into an empty map without calling put(), so the keys would
+        // not be notified.
+        beginBatchUpdate();
+        try {
+            final int count = array.size();
+            ensureCapacity(size() + count);
+            for (int i = 0; i < count; i++) {
+                put(array.keyAt(i), array.valueAt(i));
+            }
+        } finally {
+            endBatchUpdate();
+        }
+    }
+
     @Override
     public void clear() {
         boolean wasEmpty = isEmpty();
@@ -58,12 +163,17 @@ public class ObservableArrayMap<K, V> extends ArrayMap<K, V> implements Observab
     @Override
     public boolean removeAll(Collection<?> collection) {
         boolean removed = false;
-        for (Object key : collection) {
-            int index = indexOfKey(key);
-            if (index >= 0) {
-                removed = true;
-                removeAt(index);
+        beginBatchUpdate();
+        try {
+            for (Object key : collection) {
+                int index = indexOfKey(key);
+                if (index >= 0) {
+                    removed = true;
+                    removeAt(index);
+                }
             }
+        } finally {
+            endBatchUpdate();
         }
         return removed;
     }
@@ -71,12 +181,17 @@ public class ObservableArrayMap<K, V> extends ArrayMap<K, V> implements Observab
     @Override
     public boolean retainAll(Collection<?> collection) {
         boolean removed = false;
-        for (int i = size() - 1; i >= 0; i--) {
-            Object key = keyAt(i);
-            if (!collection.contains(key)) {
-                removeAt(i);
-                removed = true;
+        beginBatchUpdate();
+        try {
+            for (int i = size() - 1; i >= 0; i--) {
+                Object key = keyAt(i);
+                if (!collection.contains(key)) {
+                    removeAt(i);
+                    removed = true;
+                }
             }
+        } finally {
+            endBatchUpdate();
         }
         return removed;
     }
@@ -85,9 +200,7 @@ public class ObservableArrayMap<K, V> extends ArrayMap<K, V> implements Observab
     public V removeAt(int index) {
         K key = keyAt(index);
         V value = super.removeAt(index);
-        if (value != null) {
-            notifyChange(key);
-        }
+        notifyChange(key);
         return value;
     }
 
@@ -100,8 +213,26 @@ public class ObservableArrayMap<K, V> extends ArrayMap<K, V> implements Observab
     }
 
     private void notifyChange(Object key) {
-        if (mListeners != null) {
+        if (mListeners == null) {
+            return;
+        }
+        if (mBatchDepth == 0) {
             mListeners.notifyCallbacks(this, 0, key);
+        } else if (!mBatchChangedAll) {
+            if (key == null) {
+                // clear() and changes to the null key are reported with a null key, which
+                // means that anything may have changed.
+                mBatchChangedAll = true;
+                return;
+            }
+            if (mBatchKeys == null) {
+                mBatchKeys = new LinkedHashSet<Object>();
+            }
+            mBatchKeys.add(key);
+            if (mBatchKeys.size() > mBatchNotifyAllThreshold) {
+                mBatchChangedAll = true;
+                mBatchKeys.clear();
+            }
         }
     }
 }
@@ -61,10 +61,11 @@ public class ObservableDouble extends BaseObservable implements Parcelable, Seri
     }
 
     /**
-     * Set the stored value.
+     * Set the stored value. Values are compared by their bits, so setting NaN again does not
+     * notify while changing between 0 and -0 does.
      */
     public void set(double value) {
-        if (value != mValue) {
+        if (Double.doubleToLongBits(value) != Double.doubleToLongBits(mValue)) {
             mValue = value;
             notifyChange();
         }
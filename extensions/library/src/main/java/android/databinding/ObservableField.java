@@ -27,14 +27,45 @@ import java.io.Serializable;
  * }</code></pre>
  * Fields of this type should be declared final because bindings only detect changes in the
  * field's value, not of the field itself.
+ * <p>
+ * Setting a value that is equivalent to the stored one does not notify. By default, Strings and
+ * boxed primitives are compared with {@link Object#equals(Object)} and any other value only
+ * by reference, so that setting a mutated object again still notifies. A different
+ * {@link Equivalence} may be given to the constructor. It is not serialized; a deserialized
+ * field uses the default.
  *
  * @param <T> The type parameter for the actual object.
  * @see android.databinding.ObservableParcelable
  */
 public class ObservableField<T> extends BaseObservable implements Serializable {
     static final long serialVersionUID = 1L;
+
+    private static final Equivalence<Object> DEFAULT_EQUIVALENCE = new Equivalence<Object>() {
+        @Override
+        public boolean equivalent(Object a, Object b) {
+            if (a == b) {
+                return true;
+            }
+            if (a == null || b == null || a.getClass() != b.getClass()) {
+                return false;
+            }
+            return isImmutable(a.getClass()) && a.equals(b);
+        }
+
+        @Override
+        public int hash(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            return isImmutable(value.getClass()) ? value.hashCode() :
+                    System.identityHashCode(value);
+        }
+    };
+
     private T mValue;
 
+    private transient Equivalence<? super T> mEquivalence;
+
     /**
      * Wraps the given object and creates an observable object
      *
@@ -50,6 +81,18 @@ public class ObservableField<T> extends BaseObservable implements Serializable {
     public ObservableField() {
     }
 
+    /**
+     * Wraps the given object and creates an observable object that does not notify when
+     * a value equivalent to the stored one is set.
+     *
+     * @param value The value to be wrapped as an observable.
+     * @param equivalence Decides whether a new value is the same as the stored one.
+     */
+    public ObservableField(T value, Equivalence<? super T> equivalence) {
+        mValue = value;
+        mEquivalence = equivalence;
+    }
+
     /**
      * @return the stored value.
      */
@@ -58,12 +101,27 @@ public class ObservableField<T> extends BaseObservable implements Serializable {
     }
 
     /**
-     * Set the stored value.
+     * Set the stored value. Nothing is notified when the value is equivalent to the stored one.
      */
     public void set(T value) {
-        if (value != mValue) {
+        if (!getEquivalence().equivalent(value, mValue)) {
             mValue = value;
             notifyChange();
         }
     }
+
+    /**
+     * @return The Equivalence deciding whether a value passed to {@link #set(Object)} changes
+     * the stored value.
+     */
+    public Equivalence<? super T> getEquivalence() {
+        final Equivalence<? super T> equivalence = mEquivalence;
+        return equivalence == null ? DEFAULT_EQUIVALENCE : equivalence;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type == String.class || type == Integer.class || type == Long.class
+                || type == Boolean.class || type == Float.class || type == Double.class
+                || type == Character.class || type == Short.class || type == Byte.class;
+    }
 }
@@ -61,10 +61,11 @@ public class ObservableFloat extends BaseObservable implements Parcelable, Seria
     }
 
     /**
-     * Set the stored value.
+     * Set the stored value. Values are compared by their bits, so setting NaN again does not
+     * notify while changing between 0 and -0 does.
      */
     public void set(float value) {
-        if (value != mValue) {
+        if (Float.floatToIntBits(value) != Float.floatToIntBits(mValue)) {
             mValue = value;
             notifyChange();
         }
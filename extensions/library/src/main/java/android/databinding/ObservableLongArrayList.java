@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An {@link ObservableList} of long values, stored unboxed in a long[]. Use the primitive
+ * methods, such as {@link #getLong(int)} and {@link #setLong(int, long)}, to avoid boxing;
+ * the {@link java.util.List} methods box and unbox each value. In binding expressions,
+ * <code>list[index]</code> reads the value unboxed.
+ */
+public class ObservableLongArrayList extends AbstractList<Long>
+        implements ObservableList<Long>, RandomAccess {
+    private static final long[] EMPTY = new long[0];
+
+    private transient ListChangeRegistry mListeners = new ListChangeRegistry();
+
+    private long[] mValues;
+
+    private int mSize;
+
+    public ObservableLongArrayList() {
+        mValues = EMPTY;
+    }
+
+    /**
+     * @param capacity The number of values that can be added before the backing array grows.
+     */
+    public ObservableLongArrayList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        mValues = capacity == 0 ? EMPTY : new long[capacity];
+    }
+
+    /**
+     * @param values The initial values. The array is copied.
+     */
+    public ObservableLongArrayList(long[] values) {
+        mValues = values.length == 0 ? EMPTY : values.clone();
+        mSize = values.length;
+    }
+
+    @Override
+    public void addOnListChangedCallback(OnListChangedCallback listener) {
+        if (mListeners == null) {
+            mListeners = new ListChangeRegistry();
+        }
+        mListeners.add(listener);
+    }
+
+    @Override
+    public void removeOnListChangedCallback(OnListChangedCallback listener) {
+        if (mListeners != null) {
+            mListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Holds back change notifications until the matching {@link #endBatchEdit()}.
+     *
+     * @see ObservableArrayList#beginBatchEdit()
+     */
+    public void beginBatchEdit() {
+        if (mListeners == null) {
+            mListeners = new ListChangeRegistry();
+        }
+        mListeners.beginBatch();
+    }
+
+    /**
+     * Ends the innermost batch started with {@link #beginBatchEdit()}.
+     *
+     * @throws IllegalStateException if no batch was started.
+     * @see ObservableArrayList#endBatchEdit()
+     */
+    public void endBatchEdit() {
+        if (mListeners == null) {
+            throw new IllegalStateException("endBatchEdit() called without beginBatchEdit()");
+        }
+        mListeners.endBatch();
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return The value at <code>index</code>.
+     * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+     */
+    public long getLong(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Replaces the value at <code>index</code>. Callbacks are only notified if the value
+     * changes.
+     *
+     * @return The previous value.
+     * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+     */
+    public long setLong(int index, long value) {
+        checkIndex(index);
+        final long old = mValues[index];
+        if (old != value) {
+            mValues[index] = value;
+            if (mListeners != null) {
+                mListeners.notifyChanged(this, index, 1);
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Appends a value.
+     */
+    public void addLong(long value) {
+        addLong(mSize, value);
+    }
+
+    /**
+     * Inserts a value at <code>index</code>.
+     *
+     * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+     */
+    public void addLong(int index, long value) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+        ensureCapacity(mSize + 1);
+        System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+        mValues[index] = value;
+        mSize++;
+        modCount++;
+        notifyAdd(index, 1);
+    }
+
+    /**
+     * Appends all of <code>values</code> with a single notification.
+     */
+    public void addAll(long[] values) {
+        if (values.length == 0) {
+            return;
+        }
+        ensureCapacity(mSize + values.length);
+        System.arraycopy(values, 0, mValues, mSize, values.length);
+        final int start = mSize;
+        mSize += values.length;
+        modCount++;
+        notifyAdd(start, values.length);
+    }
+
+    /**
+     * Removes the value at <code>index</code>.
+     *
+     * @return The removed value.
+     * @throws IndexOutOfBoundsException if <code>index</code> is out of range.
+     */
+    public long removeLong(int index) {
+        checkIndex(index);
+        final long old = mValues[index];
+        removeRange(index, index + 1);
+        return old;
+    }
+
+    /**
+     * @return The index of the first occurrence of <code>value</code> or -1.
+     */
+    public int indexOfLong(long value) {
+        for (int i = 0; i < mSize; i++) {
+            if (mValues[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces all values, notifying one change for the range of values that differ and one
+     * insertion or removal for the difference in size.
+     *
+     * @param values The new values. The array is copied.
+     */
+    public void setAll(long[] values) {
+        final int common = Math.min(mSize, values.length);
+        int first = 0;
+        while (first < common && mValues[first] == values[first]) {
+            first++;
+        }
+        int last = common - 1;
+        while (last >= first && mValues[last] == values[last]) {
+            last--;
+        }
+        final int oldSize = mSize;
+        ensureCapacity(values.length);
+        System.arraycopy(values, 0, mValues, 0, values.length);
+        mSize = values.length;
+        if (oldSize != mSize) {
+            modCount++;
+        }
+        if (mListeners == null) {
+            return;
+        }
+        if (last >= first) {
+            mListeners.notifyChanged(this, first, last - first + 1);
+        }
+        if (mSize > oldSize) {
+            mListeners.notifyInserted(this, oldSize, mSize - oldSize);
+        } else if (mSize < oldSize) {
+            mListeners.notifyRemoved(this, mSize, oldSize - mSize);
+        }
+    }
+
+    /**
+     * @return A copy of the values in this list.
+     */
+    public long[] toLongArray() {
+        final long[] values = new long[mSize];
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        return values;
+    }
+
+    /**
+     * Makes sure that <code>capacity</code> values fit without growing the backing array.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > mValues.length) {
+            final long[] values = new long[Math.max(capacity, mValues.length * 3 / 2 + 4)];
+            System.arraycopy(mValues, 0, values, 0, mSize);
+            mValues = values;
+        }
+    }
+
+    @Override
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    @Override
+    public Long set(int index, Long value) {
+        return setLong(index, value);
+    }
+
+    @Override
+    public void add(int index, Long value) {
+        addLong(index, value);
+    }
+
+    @Override
+    public Long remove(int index) {
+        return removeLong(index);
+    }
+
+    @Override
+    public int indexOf(Object value) {
+        return value instanceof Long ? indexOfLong((Long) value) : -1;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return indexOf(value) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        if (mSize != 0) {
+            removeRange(0, mSize);
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return;
+        }
+        System.arraycopy(mValues, toIndex, mValues, fromIndex, mSize - toIndex);
+        mSize -= toIndex - fromIndex;
+        modCount++;
+        if (mListeners != null) {
+            mListeners.notifyRemoved(this, fromIndex, toIndex - fromIndex);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    private void notifyAdd(int start, int count) {
+        if (mListeners != null) {
+            mListeners.notifyInserted(this, start, count);
+        }
+    }
+}
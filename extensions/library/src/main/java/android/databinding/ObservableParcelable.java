@@ -55,6 +55,17 @@ public class ObservableParcelable<T extends Parcelable> extends ObservableField<
         super();
     }
 
+    /**
+     * Wraps the given object and creates an observable object that does not notify when
+     * a value equivalent to the stored one is set. The Equivalence is not parcelled.
+     *
+     * @param value The value to be wrapped as an observable.
+     * @param equivalence Decides whether a new value is the same as the stored one.
+     */
+    public ObservableParcelable(T value, Equivalence<? super T> equivalence) {
+        super(value, equivalence);
+    }
+
     @Override
     public int describeContents() {
         return 0;
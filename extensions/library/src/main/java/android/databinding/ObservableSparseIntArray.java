@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An {@link ObservableMap} from int keys to int values, stored unboxed in sorted arrays like
+ * {@link android.util.SparseIntArray}. Use the primitive methods, such as {@link #get(int)} and
+ * {@link #put(int, int)}, to avoid boxing; the {@link Map} methods box and unbox each key and
+ * value. In binding expressions, <code>map[key]</code> reads the value unboxed and is 0 for
+ * keys that are not mapped.
+ */
+public class ObservableSparseIntArray extends AbstractMap<Integer, Integer>
+        implements ObservableMap<Integer, Integer> {
+    private static final int[] EMPTY = new int[0];
+
+    private transient MapChangeRegistry mListeners;
+
+    private int[] mKeys;
+
+    private int[] mValues;
+
+    private int mSize;
+
+    private transient Set<Map.Entry<Integer, Integer>> mEntrySet;
+
+    public ObservableSparseIntArray() {
+        mKeys = EMPTY;
+        mValues = EMPTY;
+    }
+
+    /**
+     * @param capacity The number of mappings that can be added before the backing arrays
+     *                 grow.
+     */
+    public ObservableSparseIntArray(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        mKeys = capacity == 0 ? EMPTY : new int[capacity];
+        mValues = capacity == 0 ? EMPTY : new int[capacity];
+    }
+
+    @Override
+    public void addOnMapChangedCallback(
+            OnMapChangedCallback<? extends ObservableMap<Integer, Integer>, Integer, Integer>
+                    listener) {
+        if (mListeners == null) {
+            mListeners = new MapChangeRegistry();
+        }
+        mListeners.add(listener);
+    }
+
+    @Override
+    public void removeOnMapChangedCallback(
+            OnMapChangedCallback<? extends ObservableMap<Integer, Integer>, Integer, Integer>
+                    listener) {
+        if (mListeners != null) {
+            mListeners.remove(listener);
+        }
+    }
+
+    /**
+     * @return The value mapped to <code>key</code> or 0 if there is none.
+     */
+    public int get(int key) {
+        return get(key, 0);
+    }
+
+    /**
+     * @return The value mapped to <code>key</code> or <code>valueIfKeyNotFound</code> if there
+     * is none.
+     */
+    public int get(int key, int valueIfKeyNotFound) {
+        final int index = binarySearch(key);
+        return index < 0 ? valueIfKeyNotFound : mValues[index];
+    }
+
+    /**
+     * Maps <code>key</code> to <code>value</code>. Callbacks are only notified if the mapping
+     * is new or the value changes.
+     */
+    public void put(int key, int value) {
+        int index = binarySearch(key);
+        if (index >= 0) {
+            if (mValues[index] == value) {
+                return;
+            }
+            mValues[index] = value;
+        } else {
+            index = ~index;
+            if (mSize == mKeys.length) {
+                final int capacity = mSize * 3 / 2 + 4;
+                final int[] keys = new int[capacity];
+                final int[] values = new int[capacity];
+                System.arraycopy(mKeys, 0, keys, 0, mSize);
+                System.arraycopy(mValues, 0, values, 0, mSize);
+                mKeys = keys;
+                mValues = values;
+            }
+            System.arraycopy(mKeys, index, mKeys, index + 1, mSize - index);
+            System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+            mKeys[index] = key;
+            mValues[index] = value;
+            mSize++;
+        }
+        notifyChange(key);
+    }
+
+    /**
+     * Removes the mapping for <code>key</code>, if there is one.
+     */
+    public void delete(int key) {
+        final int index = binarySearch(key);
+        if (index >= 0) {
+            removeAt(index);
+        }
+    }
+
+    /**
+     * Removes the mapping at <code>index</code>.
+     */
+    public void removeAt(int index) {
+        checkIndex(index);
+        final int key = mKeys[index];
+        System.arraycopy(mKeys, index + 1, mKeys, index, mSize - index - 1);
+        System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+        mSize--;
+        notifyChange(key);
+    }
+
+    /**
+     * @return The key of the mapping at <code>index</code>, in ascending key order.
+     */
+    public int keyAt(int index) {
+        checkIndex(index);
+        return mKeys[index];
+    }
+
+    /**
+     * @return The value of the mapping at <code>index</code>, in ascending key order.
+     */
+    public int valueAt(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Replaces the value of the mapping at <code>index</code>. Callbacks are only notified if
+     * the value changes.
+     */
+    public void setValueAt(int index, int value) {
+        checkIndex(index);
+        if (mValues[index] != value) {
+            mValues[index] = value;
+            notifyChange(mKeys[index]);
+        }
+    }
+
+    /**
+     * @return The index of the mapping for <code>key</code> or a negative number if there is
+     * none.
+     */
+    public int indexOfKey(int key) {
+        return binarySearch(key);
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public void clear() {
+        if (mSize != 0) {
+            mSize = 0;
+            notifyChange(null);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && binarySearch((Integer) key) >= 0;
+    }
+
+    @Override
+    public Integer get(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        final int index = binarySearch((Integer) key);
+        return index < 0 ? null : mValues[index];
+    }
+
+    @Override
+    public Integer put(Integer key, Integer value) {
+        final Integer old = get(key);
+        put(key.intValue(), value.intValue());
+        return old;
+    }
+
+    @Override
+    public Integer remove(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        final int index = binarySearch((Integer) key);
+        if (index < 0) {
+            return null;
+        }
+        final int old = mValues[index];
+        removeAt(index);
+        return old;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, Integer>> entrySet() {
+        if (mEntrySet == null) {
+            mEntrySet = new EntrySet();
+        }
+        return mEntrySet;
+    }
+
+    private int binarySearch(int key) {
+        int low = 0;
+        int high = mSize - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midKey = mKeys[mid];
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return ~low;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    private void notifyChange(Object key) {
+        if (mListeners != null) {
+            mListeners.notifyCallbacks(this, 0, key);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<Integer, Integer>> {
+        @Override
+        public int size() {
+            return mSize;
+        }
+
+        @Override
+        public void clear() {
+            ObservableSparseIntArray.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<Integer, Integer>> iterator() {
+            return new Iterator<Map.Entry<Integer, Integer>>() {
+                private int mNext;
+                private int mLast = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return mNext < mSize;
+                }
+
+                @Override
+                public Map.Entry<Integer, Integer> next() {
+                    if (mNext >= mSize) {
+                        throw new NoSuchElementException();
+                    }
+                    mLast = mNext++;
+                    return new Entry(mKeys[mLast]);
+                }
+
+                @Override
+                public void remove() {
+                    if (mLast < 0) {
+                        throw new IllegalStateException();
+                    }
+                    removeAt(mLast);
+                    mNext = mLast;
+                    mLast = -1;
+                }
+            };
+        }
+    }
+
+    private class Entry implements Map.Entry<Integer, Integer> {
+        private final int mKey;
+
+        Entry(int key) {
+            mKey = key;
+        }
+
+        @Override
+        public Integer getKey() {
+            return mKey;
+        }
+
+        @Override
+        public Integer getValue() {
+            return ObservableSparseIntArray.this.get(mKey);
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            return ObservableSparseIntArray.this.put(Integer.valueOf(mKey), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return getKey().equals(other.getKey()) && getValue().equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return mKey ^ ObservableSparseIntArray.this.get(mKey);
+        }
+
+        @Override
+        public String toString() {
+            return mKey + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups changes to several observables into a single transaction on the calling thread.
+ * While a transaction is open, notifications from any {@link BaseObservable} changed on this
+ * thread are held back. When the outermost transaction ends, each observable notifies once
+ * per changed property, or once for the whole object if {@link BaseObservable#notifyChange()}
+ * was called.
+ * <pre>
+ * ObservableTransaction.begin();
+ * try {
+ *     user.setFirstName(first);
+ *     user.setLastName(last);
+ *     address.setCity(city);
+ * } finally {
+ *     ObservableTransaction.end();
+ * }
+ * </pre>
+ * Transactions nest. Notifications made on other threads are not affected.
+ *
+ * @see BaseObservable#beginBatch()
+ */
+public class ObservableTransaction {
+    private static final ThreadLocal<ObservableTransaction> sCurrent =
+            new ThreadLocal<ObservableTransaction>();
+
+    /**
+     * The number of threads with an open transaction. Lets notifications skip the
+     * ThreadLocal lookup when no transaction is open anywhere.
+     */
+    private static final AtomicInteger sOpenCount = new AtomicInteger();
+
+    private int mDepth;
+
+    /** The observables that deferred notifications to this transaction. */
+    private final ArrayList<Object> mParticipants = new ArrayList<Object>();
+
+    private ObservableTransaction() {
+    }
+
+    /**
+     * Opens a transaction on the calling thread, or nests in the one already open.
+     */
+    public static void begin() {
+        ObservableTransaction transaction = sCurrent.get();
+        if (transaction == null) {
+            transaction = new ObservableTransaction();
+            sCurrent.set(transaction);
+        }
+        if (transaction.mDepth++ == 0) {
+            sOpenCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ends the innermost transaction on the calling thread. When the outermost transaction
+     * ends, all held back notifications are sent.
+     *
+     * @throws IllegalStateException if no transaction is open on the calling thread.
+     */
+    public static void end() {
+        final ObservableTransaction transaction = sCurrent.get();
+        if (transaction == null || transaction.mDepth == 0) {
+            throw new IllegalStateException("end() called without a matching begin()");
+        }
+        if (--transaction.mDepth == 0) {
+            sOpenCount.decrementAndGet();
+            transaction.commit();
+        }
+    }
+
+    /**
+     * @return true if a transaction is open on the calling thread.
+     */
+    public static boolean isOpen() {
+        if (sOpenCount.get() == 0) {
+            return false;
+        }
+        final ObservableTransaction transaction = sCurrent.get();
+        return transaction != null && transaction.mDepth > 0;
+    }
+
+    /**
+     * Returns the transaction open on the calling thread or null if there is none.
+     */
+    static ObservableTransaction current() {
+        if (sOpenCount.get() == 0) {
+            return null;
+        }
+        final ObservableTransaction transaction = sCurrent.get();
+        return transaction == null || transaction.mDepth == 0 ? null : transaction;
+    }
+
+    /**
+     * Registers an observable to be committed when this transaction ends. Must be called only
+     * once per observable and transaction.
+     */
+    void enlist(Object participant) {
+        mParticipants.add(participant);
+    }
+
+    private void commit() {
+        if (mParticipants.isEmpty()) {
+            return;
+        }
+        // A callback may open and commit another transaction on this thread, so the
+        // participants are detached before they notify.
+        final Object[] participants = mParticipants.toArray();
+        mParticipants.clear();
+        RuntimeException error = null;
+        for (Object participant : participants) {
+            try {
+                if (participant instanceof BaseObservable) {
+                    ((BaseObservable) participant).commitTransaction();
+                }
+            } catch (RuntimeException e) {
+                // Commit the others anyway so that none of them stays enlisted.
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -15,12 +15,25 @@
  */
 package android.databinding;
 
+import android.util.SparseArray;
+
+import java.util.List;
+
 /**
  * Utility class for managing Observable callbacks.
+ * <p>
+ * Callbacks added with {@link #add(Object)} are notified of every change. Callbacks added
+ * with {@link #add(Observable.OnPropertyChangedCallback, int...)} are only notified of changes
+ * to the given properties and of changes to the whole Observable. They are kept in an index
+ * by property id, so notifying a property change does not visit callbacks that are not
+ * interested in it.
  */
 public class PropertyChangeRegistry extends
         CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void> {
 
+    /** The BR id used to notify that all properties have changed. */
+    private static final int ALL_PROPERTIES = 0;
+
     private static final CallbackRegistry.NotifierCallback<Observable.OnPropertyChangedCallback, Observable, Void> NOTIFIER_CALLBACK = new CallbackRegistry.NotifierCallback<Observable.OnPropertyChangedCallback, Observable, Void>() {
         @Override
         public void onNotifyCallback(Observable.OnPropertyChangedCallback callback, Observable sender,
@@ -29,10 +42,32 @@ public class PropertyChangeRegistry extends
         }
     };
 
+    /**
+     * All callbacks that subscribed to specific properties. They are notified once each when
+     * all properties change. null until the first subscription.
+     */
+    private volatile CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+            mSubscribed;
+
+    /**
+     * The subscribed callbacks by property id. Entries are only ever added, and the array is
+     * replaced rather than modified so that it can be read without locking.
+     */
+    private volatile SparseArray<CallbackRegistry<Observable.OnPropertyChangedCallback,
+            Observable, Void>> mSubscriptions;
+
     public PropertyChangeRegistry() {
         super(NOTIFIER_CALLBACK);
     }
 
+    /**
+     * @param copyOnWrite true to notify without locking, see
+     *                    {@link CallbackRegistry#CallbackRegistry(NotifierCallback, boolean)}.
+     */
+    public PropertyChangeRegistry(boolean copyOnWrite) {
+        super(NOTIFIER_CALLBACK, copyOnWrite);
+    }
+
     /**
      * Notifies registered callbacks that a specific property has changed.
      *
@@ -43,4 +78,178 @@ public class PropertyChangeRegistry extends
     public void notifyChange(Observable observable, int propertyId) {
         notifyCallbacks(observable, propertyId, null);
     }
+
+    /**
+     * Adds a callback that is only notified when one of <code>propertyIds</code> or the whole
+     * Observable changes. Adding the same callback again adds to the properties it is
+     * notified of. A callback that was added with {@link #add(Object)} is already notified
+     * of every property, so this has no effect on it.
+     *
+     * @param callback The callback to add.
+     * @param propertyIds The BR ids of the properties the callback is interested in. It may
+     *                    be empty to be notified only when all properties change.
+     */
+    public void add(Observable.OnPropertyChangedCallback callback, int... propertyIds) {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback cannot be null");
+        }
+        synchronized (this) {
+            if (super.contains(callback)) {
+                return;
+            }
+            if (mSubscribed == null) {
+                // mSubscriptions must be visible before notifyCallbacks sees mSubscribed.
+                mSubscriptions = new SparseArray<CallbackRegistry<
+                        Observable.OnPropertyChangedCallback, Observable, Void>>();
+                mSubscribed = newRegistry();
+            }
+            SparseArray<CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>>
+                    subscriptions = mSubscriptions;
+            boolean copied = false;
+            for (int propertyId : propertyIds) {
+                if (propertyId == ALL_PROPERTIES) {
+                    continue;
+                }
+                CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+                        registry = subscriptions.get(propertyId);
+                if (registry == null) {
+                    if (!copied) {
+                        subscriptions = copy(subscriptions);
+                        copied = true;
+                    }
+                    registry = newRegistry();
+                    subscriptions.put(propertyId, registry);
+                }
+                registry.add(callback);
+            }
+            if (copied) {
+                mSubscriptions = subscriptions;
+            }
+            mSubscribed.add(callback);
+        }
+    }
+
+    @Override
+    public void add(Observable.OnPropertyChangedCallback callback) {
+        super.add(callback);
+        if (mSubscribed != null) {
+            synchronized (this) {
+                // Now notified of everything, so it no longer needs its subscriptions.
+                removeSubscriptions(callback);
+            }
+        }
+    }
+
+    @Override
+    public void remove(Observable.OnPropertyChangedCallback callback) {
+        super.remove(callback);
+        if (mSubscribed != null) {
+            synchronized (this) {
+                removeSubscriptions(callback);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(Observable.OnPropertyChangedCallback callback) {
+        final CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+                subscribed = mSubscribed;
+        return super.contains(callback) || (subscribed != null && subscribed.contains(callback));
+    }
+
+    @Override
+    public void notifyCallbacks(Observable sender, int propertyId, Void arg) {
+        super.notifyCallbacks(sender, propertyId, arg);
+        final CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+                subscribed = mSubscribed;
+        if (subscribed != null) {
+            if (propertyId == ALL_PROPERTIES) {
+                subscribed.notifyCallbacks(sender, propertyId, arg);
+            } else {
+                final CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+                        registry = mSubscriptions.get(propertyId);
+                if (registry != null) {
+                    registry.notifyCallbacks(sender, propertyId, arg);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void copyCallbacks(List<Observable.OnPropertyChangedCallback> callbacks) {
+        super.copyCallbacks(callbacks);
+        final CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+                subscribed = mSubscribed;
+        if (subscribed != null) {
+            callbacks.addAll(subscribed.copyCallbacks());
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+                subscribed = mSubscribed;
+        return super.isEmpty() && (subscribed == null || subscribed.isEmpty());
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (mSubscribed != null) {
+            synchronized (this) {
+                mSubscribed.clear();
+                final SparseArray<CallbackRegistry<Observable.OnPropertyChangedCallback,
+                        Observable, Void>> subscriptions = mSubscriptions;
+                for (int i = subscriptions.size() - 1; i >= 0; i--) {
+                    subscriptions.valueAt(i).clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized PropertyChangeRegistry clone() {
+        final PropertyChangeRegistry clone = (PropertyChangeRegistry) super.clone();
+        if (clone != null && mSubscribed != null) {
+            clone.mSubscribed = mSubscribed.clone();
+            final SparseArray<CallbackRegistry<Observable.OnPropertyChangedCallback,
+                    Observable, Void>> subscriptions = new SparseArray<CallbackRegistry<
+                    Observable.OnPropertyChangedCallback, Observable, Void>>();
+            for (int i = 0; i < mSubscriptions.size(); i++) {
+                subscriptions.put(mSubscriptions.keyAt(i), mSubscriptions.valueAt(i).clone());
+            }
+            clone.mSubscriptions = subscriptions;
+        }
+        return clone;
+    }
+
+    private void removeSubscriptions(Observable.OnPropertyChangedCallback callback) {
+        mSubscribed.remove(callback);
+        final SparseArray<CallbackRegistry<Observable.OnPropertyChangedCallback,
+                Observable, Void>> subscriptions = mSubscriptions;
+        for (int i = subscriptions.size() - 1; i >= 0; i--) {
+            subscriptions.valueAt(i).remove(callback);
+        }
+    }
+
+    /**
+     * The registries of subscribed callbacks are always copy-on-write, so notifying them never
+     * holds their monitor. A locking one would be locked while its callbacks run, and a
+     * callback that subscribes would then take this registry's monitor, while a subscription
+     * on another thread takes them in the opposite order.
+     */
+    private static CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>
+            newRegistry() {
+        return new CallbackRegistry<Observable.OnPropertyChangedCallback, Observable, Void>(
+                NOTIFIER_CALLBACK, true);
+    }
+
+    private static <V> SparseArray<V> copy(SparseArray<V> array) {
+        final int size = array.size();
+        final SparseArray<V> copy = new SparseArray<V>(size + 1);
+        for (int i = 0; i < size; i++) {
+            copy.append(array.keyAt(i), array.valueAt(i));
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+/**
+ * Collects the bindings that belong to a Looper thread and have requested a rebind and executes
+ * them together on the next animation frame. Only one frame callback (or Handler message prior
+ * to API 16) is posted per frame, no matter how many bindings are dirty.
+ * <p>
+ * Included bindings never enter the queue themselves. They forward their rebind requests to
+ * their containing binding, which executes them as part of its own executeBindings, so
+ * parents always run before their children.
+ * <p>
+ * When a frame budget is set with {@link ViewDataBinding#setRebindFrameBudget(long)}, the
+ * queue stops executing once the budget is spent and leaves the remaining bindings at the
+ * front of the queue for the next frame.
+ */
+class RebindQueue {
+    private static final boolean USE_CHOREOGRAPHER = ViewDataBinding.SDK_INT >= 16;
+
+    private static final ThreadLocal<RebindQueue> sQueues = new ThreadLocal<RebindQueue>();
+
+    /**
+     * Queues by Looper. The values are weak so that a queue, and through its Handler the
+     * Looper, can be collected once no binding uses it anymore.
+     */
+    private static final WeakHashMap<Looper, WeakReference<RebindQueue>> sQueuesByLooper =
+            new WeakHashMap<Looper, WeakReference<RebindQueue>>();
+
+    /**
+     * Set while bindings are constructed on a thread other than the one they will run on.
+     */
+    private static final ThreadLocal<Looper> sTargetLooper = new ThreadLocal<Looper>();
+
+    /**
+     * Bindings waiting for the next frame.
+     */
+    private ArrayList<ViewDataBinding> mPending = new ArrayList<ViewDataBinding>();
+
+    /**
+     * Bindings being executed in the current frame. Swapped with mPending so that neither
+     * list is allocated per frame.
+     */
+    private ArrayList<ViewDataBinding> mExecuting = new ArrayList<ViewDataBinding>();
+
+    /**
+     * Whether a frame callback or message has been posted and not yet run.
+     */
+    private boolean mScheduled;
+
+    private final Looper mLooper;
+
+    private final Handler mUIThreadHandler;
+
+    // api >= 16. Choreographer is per thread, so it is acquired on mLooper's thread.
+    private volatile Choreographer mChoreographer;
+
+    private final Choreographer.FrameCallback mFrameCallback;
+
+    private final Runnable mScheduleRunnable;
+
+    // api < 16
+    private final Runnable mDrainRunnable;
+
+    // Statistics, guarded by this.
+    private long mFrameCount;
+    private long mOverBudgetFrameCount;
+    private long mTotalExecuted;
+    private long mTotalDeferred;
+    private int mLastFrameExecuted;
+    private int mLastFrameDeferred;
+    private long mLastFrameDurationNanos;
+
+    private RebindQueue(Looper looper) {
+        mLooper = looper;
+        mUIThreadHandler = new Handler(looper);
+        if (USE_CHOREOGRAPHER) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    drain();
+                }
+            };
+            mScheduleRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    schedule();
+                }
+            };
+            mDrainRunnable = null;
+        } else {
+            mFrameCallback = null;
+            mScheduleRunnable = null;
+            mDrainRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns the queue for the calling thread, creating it if necessary. The calling thread
+     * must have a Looper unless it is constructing bindings for another thread, see
+     * {@link #setTargetLooper(Looper)}.
+     */
+    static RebindQueue getInstance() {
+        final Looper target = sTargetLooper.get();
+        if (target != null) {
+            return getInstance(target);
+        }
+        RebindQueue queue = sQueues.get();
+        if (queue == null) {
+            final Looper looper = Looper.myLooper();
+            if (looper == null) {
+                throw new IllegalStateException("DataBinding must be created in view's UI Thread");
+            }
+            queue = getInstance(looper);
+            sQueues.set(queue);
+        }
+        return queue;
+    }
+
+    /**
+     * Returns the queue executing bindings on the given Looper's thread, creating it if
+     * necessary. This may be called from any thread.
+     */
+    static RebindQueue getInstance(Looper looper) {
+        synchronized (sQueuesByLooper) {
+            final WeakReference<RebindQueue> ref = sQueuesByLooper.get(looper);
+            RebindQueue queue = ref == null ? null : ref.get();
+            if (queue == null) {
+                queue = new RebindQueue(looper);
+                sQueuesByLooper.put(looper, new WeakReference<RebindQueue>(queue));
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * Makes bindings constructed on the calling thread use the queue of the given Looper
+     * instead of the calling thread's own. Pass null to restore the default.
+     *
+     * @param looper The Looper of the thread the bindings will be used on or null.
+     */
+    static void setTargetLooper(Looper looper) {
+        if (looper == null) {
+            sTargetLooper.remove();
+        } else {
+            sTargetLooper.set(looper);
+        }
+    }
+
+    /**
+     * @return The Looper of the thread this queue executes bindings on.
+     */
+    Looper getLooper() {
+        return mLooper;
+    }
+
+    /**
+     * Adds a binding to be executed on the next frame. The caller is responsible for making
+     * sure that a binding is not added again before it has been executed. This may be called
+     * from any thread.
+     *
+     * @param binding The binding that needs to be rebound.
+     */
+    void add(ViewDataBinding binding) {
+        final boolean schedule;
+        synchronized (this) {
+            mPending.add(binding);
+            schedule = !mScheduled;
+            mScheduled = true;
+        }
+        if (schedule) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!USE_CHOREOGRAPHER) {
+            mUIThreadHandler.post(mDrainRunnable);
+            return;
+        }
+        Choreographer choreographer = mChoreographer;
+        if (choreographer == null) {
+            if (Looper.myLooper() != mLooper) {
+                mUIThreadHandler.post(mScheduleRunnable);
+                return;
+            }
+            choreographer = Choreographer.getInstance();
+            mChoreographer = choreographer;
+        }
+        choreographer.postFrameCallback(mFrameCallback);
+    }
+
+    /**
+     * @return A snapshot of the statistics collected by this queue.
+     */
+    synchronized RebindStats getStats() {
+        return new RebindStats(ViewDataBinding.getRebindFrameBudget(), mFrameCount,
+                mOverBudgetFrameCount, mTotalExecuted, mTotalDeferred, mLastFrameExecuted,
+                mLastFrameDeferred, mLastFrameDurationNanos);
+    }
+
+    private void drain() {
+        final ArrayList<ViewDataBinding> executing;
+        synchronized (this) {
+            executing = mPending;
+            mPending = mExecuting;
+            mExecuting = executing;
+            mScheduled = false;
+        }
+        // Once per frame rather than per rebind request, because polling the queue locks it.
+        ViewDataBinding.processReferenceQueue();
+        // Bindings that request a rebind while we execute land in mPending and are
+        // scheduled for the next frame.
+        final long budget = ViewDataBinding.getRebindFrameBudget();
+        final long start = System.nanoTime();
+        final int count = executing.size();
+        int executed = 0;
+        try {
+            // With a budget, roots that are shown go first so that what the user sees is
+            // updated before anything off screen. Without one, everything runs in order.
+            for (int pass = budget > 0 ? 0 : 1; pass < 2; pass++) {
+                for (int i = 0; i < count; i++) {
+                    final ViewDataBinding binding = executing.get(i);
+                    if (binding == null || (pass == 0 && !binding.getRoot().isShown())) {
+                        continue;
+                    }
+                    // Always make progress, even if a single binding exceeds the budget.
+                    if (budget > 0 && executed > 0 && System.nanoTime() - start >= budget) {
+                        return;
+                    }
+                    executing.set(i, null);
+                    executed++;
+                    binding.executeQueuedRebind();
+                }
+            }
+        } finally {
+            // Anything not executed, because the budget ran out or a binding threw, is still
+            // marked pending and must go back to the front of the queue.
+            int deferred = 0;
+            for (int i = 0; i < count; i++) {
+                final ViewDataBinding binding = executing.get(i);
+                if (binding != null) {
+                    executing.set(deferred++, binding);
+                }
+            }
+            final long duration = System.nanoTime() - start;
+            final boolean schedule;
+            synchronized (this) {
+                if (deferred > 0) {
+                    mPending.addAll(0, executing.subList(0, deferred));
+                    mOverBudgetFrameCount++;
+                }
+                schedule = !mScheduled && !mPending.isEmpty();
+                mScheduled |= schedule;
+                mFrameCount++;
+                mTotalExecuted += executed;
+                mTotalDeferred += deferred;
+                mLastFrameExecuted = executed;
+                mLastFrameDeferred = deferred;
+                mLastFrameDurationNanos = duration;
+            }
+            executing.clear();
+            if (schedule) {
+                schedule();
+            }
+        }
+    }
+}
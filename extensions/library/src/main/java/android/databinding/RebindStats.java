@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding;
+
+/**
+ * A snapshot of the rebind statistics of the thread a binding was created on. Obtain one
+ * from {@link ViewDataBinding#getRebindStats()}.
+ *
+ * @see ViewDataBinding#setRebindFrameBudget(long)
+ */
+public class RebindStats {
+    private final long mFrameBudgetNanos;
+    private final long mFrameCount;
+    private final long mOverBudgetFrameCount;
+    private final long mTotalExecuted;
+    private final long mTotalDeferred;
+    private final int mLastFrameExecuted;
+    private final int mLastFrameDeferred;
+    private final long mLastFrameDurationNanos;
+
+    RebindStats(long frameBudgetNanos, long frameCount, long overBudgetFrameCount,
+            long totalExecuted, long totalDeferred, int lastFrameExecuted,
+            int lastFrameDeferred, long lastFrameDurationNanos) {
+        mFrameBudgetNanos = frameBudgetNanos;
+        mFrameCount = frameCount;
+        mOverBudgetFrameCount = overBudgetFrameCount;
+        mTotalExecuted = totalExecuted;
+        mTotalDeferred = totalDeferred;
+        mLastFrameExecuted = lastFrameExecuted;
+        mLastFrameDeferred = lastFrameDeferred;
+        mLastFrameDurationNanos = lastFrameDurationNanos;
+    }
+
+    /**
+     * @return The frame budget in nanoseconds at the time the snapshot was taken or 0 if
+     * rebinds are not limited.
+     */
+    public long getFrameBudgetNanos() {
+        return mFrameBudgetNanos;
+    }
+
+    /**
+     * @return The number of frames in which pending rebinds were executed.
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return The number of frames that ran out of budget and deferred bindings to the
+     * next frame.
+     */
+    public long getOverBudgetFrameCount() {
+        return mOverBudgetFrameCount;
+    }
+
+    /**
+     * @return The total number of bindings executed from the rebind queue.
+     */
+    public long getTotalExecuted() {
+        return mTotalExecuted;
+    }
+
+    /**
+     * @return The total number of times a binding was deferred to a later frame. A binding
+     * deferred in several consecutive frames is counted once per frame.
+     */
+    public long getTotalDeferred() {
+        return mTotalDeferred;
+    }
+
+    /**
+     * @return The number of bindings executed in the most recent frame.
+     */
+    public int getLastFrameExecuted() {
+        return mLastFrameExecuted;
+    }
+
+    /**
+     * @return The number of bindings deferred to the next frame in the most recent frame.
+     */
+    public int getLastFrameDeferred() {
+        return mLastFrameDeferred;
+    }
+
+    /**
+     * @return The time spent executing bindings in the most recent frame, in nanoseconds.
+     */
+    public long getLastFrameDurationNanos() {
+        return mLastFrameDurationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RebindStats{budget=" + mFrameBudgetNanos + "ns, frames=" + mFrameCount
+                + ", overBudget=" + mOverBudgetFrameCount + ", executed=" + mTotalExecuted
+                + ", deferred=" + mTotalDeferred + ", lastExecuted=" + mLastFrameExecuted
+                + ", lastDeferred=" + mLastFrameDeferred + ", lastDuration="
+                + mLastFrameDurationNanos + "ns}";
+    }
+}
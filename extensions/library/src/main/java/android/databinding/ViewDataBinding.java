@@ -18,19 +18,18 @@ package android.databinding;
 
 import android.annotation.TargetApi;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.databinding.CallbackRegistry.NotifierCallback;
 import android.graphics.drawable.Drawable;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.os.Handler;
-import android.os.Looper;
 import android.text.TextUtils;
 import android.util.LongSparseArray;
 import android.util.SparseArray;
 import android.util.SparseBooleanArray;
 import android.util.SparseIntArray;
 import android.util.SparseLongArray;
-import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.View.OnAttachStateChangeListener;
@@ -38,9 +37,17 @@ import android.view.ViewGroup;
 
 import com.android.databinding.library.R;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Base class for generated data binding classes. If possible, the generated binding should
@@ -74,7 +81,28 @@ public abstract class ViewDataBinding extends BaseObservable {
     // ICS (v 14) fixes a leak when using setTag(int, Object)
     private static final boolean USE_TAG_ID = DataBinderMapper.TARGET_MIN_SDK >= 14;
 
-    private static final boolean USE_CHOREOGRAPHER = SDK_INT >= 16;
+    /**
+     * The time in nanoseconds pending rebinds may take per frame. 0 means unlimited.
+     */
+    private static volatile long sRebindFrameBudgetNanos;
+
+    /**
+     * Whether bindings created from now on observe their fields through a single ObserverHub.
+     */
+    private static volatile boolean sCompactRegistration;
+
+    /**
+     * Receives the weak references to bindings that have been collected so that their
+     * listeners can be removed from the objects they observe.
+     */
+    private static final ReferenceQueue<ViewDataBinding> sReferenceQueue =
+            new ReferenceQueue<ViewDataBinding>();
+
+    /**
+     * Whether each BaseObservable class takes filtered subscriptions, guarded by itself.
+     */
+    private static final WeakHashMap<Class<?>, Boolean> sAcceptsPropertyIds =
+            new WeakHashMap<Class<?>, Boolean>();
 
     /**
      * Method object extracted out to attach a listener to a bound Observable object.
@@ -139,7 +167,7 @@ public abstract class ViewDataBinding extends BaseObservable {
                 public void onViewAttachedToWindow(View v) {
                     // execute the pending bindings.
                     final ViewDataBinding binding = getBinding(v);
-                    binding.mRebindRunnable.run();
+                    binding.executeQueuedRebind();
                     v.removeOnAttachStateChangeListener(this);
                 }
 
@@ -150,33 +178,10 @@ public abstract class ViewDataBinding extends BaseObservable {
         }
     }
 
-    /**
-     * Runnable executed on animation heartbeat to rebind the dirty Views.
-     */
-    private final Runnable mRebindRunnable = new Runnable() {
-        @Override
-        public void run() {
-            synchronized (this) {
-                mPendingRebind = false;
-            }
-            if (VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
-                // Nested so that we don't get a lint warning in IntelliJ
-                if (!mRoot.isAttachedToWindow()) {
-                    // Don't execute the pending bindings until the View
-                    // is attached again.
-                    mRoot.removeOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
-                    mRoot.addOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
-                    return;
-                }
-            }
-            executePendingBindings();
-        }
-    };
-
     /**
      * Flag indicates that there are pending bindings that need to be reevaluated.
      */
-    private boolean mPendingRebind = false;
+    private final AtomicBoolean mPendingRebind = new AtomicBoolean();
 
     /**
      * Indicates that a onPreBind has stopped the executePendingBindings call.
@@ -184,10 +189,15 @@ public abstract class ViewDataBinding extends BaseObservable {
     private boolean mRebindHalted = false;
 
     /**
-     * The observed expressions.
+     * The observed expressions. null when mObserverHub is used instead.
      */
     private WeakListener[] mLocalFieldObservers;
 
+    /**
+     * Observes all fields of this binding when compact registration is enabled, null otherwise.
+     */
+    private final ObserverHub mObserverHub;
+
     /**
      * The root View that this Binding is associated with.
      */
@@ -203,13 +213,74 @@ public abstract class ViewDataBinding extends BaseObservable {
      */
     private boolean mIsExecutingPendingBindings;
 
-    // null api < 16
-    private Choreographer mChoreographer;
+    /**
+     * The queue of the thread this binding was created on. Rebinds are executed from it.
+     */
+    private final RebindQueue mRebindQueue;
 
-    private final Choreographer.FrameCallback mFrameCallback;
+    /**
+     * The binding that includes this one or null if this is not an included binding. Rebind
+     * requests are forwarded to it because it executes this binding's pending bindings.
+     */
+    private ViewDataBinding mContainingBinding;
 
-    // null api >= 16
-    private Handler mUIThreadHandler;
+    /**
+     * Evaluates the expressions when the binding rebinds on its own or null to evaluate them
+     * on the UI thread.
+     */
+    private Executor mEvaluationExecutor;
+
+    /**
+     * Posts evaluated bindings back to the UI thread.
+     */
+    private Handler mEvaluationHandler;
+
+    /**
+     * Held while expressions are evaluated, so that at most one thread evaluates at a time.
+     */
+    private final Object mEvaluationLock = new Object();
+
+    /**
+     * Incremented on the UI thread whenever bindings are applied, so that results evaluated
+     * before are recognized as stale.
+     */
+    private int mEvaluationGeneration;
+
+    /**
+     * Whether an evaluation has been handed to mEvaluationExecutor and not returned yet.
+     */
+    private boolean mEvaluationPending;
+
+    /**
+     * Whether applyBindings is applying values evaluated on mEvaluationExecutor.
+     */
+    private boolean mIsApplyingEvaluatedBindings;
+
+    /**
+     * The nesting level of beginBatch() calls. Written with this held.
+     */
+    private volatile int mRebindBatchDepth;
+
+    /**
+     * Whether a rebind was requested while a batch was open. Guarded by this.
+     */
+    private boolean mRebindDeferred;
+
+    /**
+     * Two-way binding listeners that deliver at most one event per frame or null if there are
+     * none.
+     */
+    private ArrayList<CoalescedInverseBindingListener> mCoalescedInverseListeners;
+
+    /**
+     * A copy of the Configuration that cached resource values were last read with.
+     */
+    private Configuration mResourceConfiguration;
+
+    /**
+     * Incremented whenever the root's Configuration differs from mResourceConfiguration.
+     */
+    private int mResourceGeneration;
 
     /**
      * The DataBindingComponent used by this data binding. This is used for BindingAdapters
@@ -225,23 +296,24 @@ public abstract class ViewDataBinding extends BaseObservable {
      */
     protected ViewDataBinding(DataBindingComponent bindingComponent, View root, int localFieldCount) {
         mBindingComponent = bindingComponent;
-        mLocalFieldObservers = new WeakListener[localFieldCount];
-        this.mRoot = root;
-        if (Looper.myLooper() == null) {
-            throw new IllegalStateException("DataBinding must be created in view's UI Thread");
-        }
-        if (USE_CHOREOGRAPHER) {
-            mChoreographer = Choreographer.getInstance();
-            mFrameCallback = new Choreographer.FrameCallback() {
-                @Override
-                public void doFrame(long frameTimeNanos) {
-                    mRebindRunnable.run();
-                }
-            };
+        if (sCompactRegistration) {
+            mObserverHub = new ObserverHub(this, localFieldCount);
         } else {
-            mFrameCallback = null;
-            mUIThreadHandler = new Handler(Looper.myLooper());
+            mObserverHub = null;
+            mLocalFieldObservers = new WeakListener[localFieldCount];
         }
+        this.mRoot = root;
+        mRebindQueue = RebindQueue.getInstance();
+        processReferenceQueue();
+    }
+
+    /**
+     * Called by the generated binding of the layout that includes this binding's layout.
+     *
+     * @hide
+     */
+    protected void setContainingBinding(ViewDataBinding containingBinding) {
+        mContainingBinding = containingBinding;
     }
 
     /**
@@ -270,6 +342,97 @@ public abstract class ViewDataBinding extends BaseObservable {
         }
     }
 
+    /**
+     * Limits the time spent executing pending bindings in a single frame. Once the budget is
+     * spent, the remaining bindings are executed in the following frames, with bindings whose
+     * root is shown on screen going first. At least one binding is executed per frame, so a
+     * binding that takes longer than the budget is still executed.
+     * <p>
+     * This does not affect explicit calls to {@link #executePendingBindings()}.
+     *
+     * @param budgetNanos The budget in nanoseconds or 0 to execute all pending bindings in the
+     *                    frame they were requested. This is the default.
+     * @see #getRebindStats()
+     */
+    public static void setRebindFrameBudget(long budgetNanos) {
+        if (budgetNanos < 0) {
+            throw new IllegalArgumentException("Frame budget must not be negative: " + budgetNanos);
+        }
+        sRebindFrameBudgetNanos = budgetNanos;
+    }
+
+    /**
+     * @return The frame budget set in {@link #setRebindFrameBudget(long)} in nanoseconds or 0
+     * if pending bindings are not limited.
+     */
+    public static long getRebindFrameBudget() {
+        return sRebindFrameBudgetNanos;
+    }
+
+    /**
+     * Sets whether bindings created after this call observe their Observable, ObservableList
+     * and ObservableMap fields through a single listener per binding. By default, every
+     * observed field gets its own weak listener, which is allocated again whenever the
+     * observed object is replaced. In compact mode, a binding allocates one listener up
+     * front and replacing an observed object does not allocate.
+     * <p>
+     * Bindings that already exist keep the mode they were created with.
+     *
+     * @param compact true to use a single listener per binding or false to use one listener
+     *                per observed field. The default is false.
+     */
+    public static void setCompactObserverRegistration(boolean compact) {
+        sCompactRegistration = compact;
+    }
+
+    /**
+     * @return true if bindings created from now on use a single listener per binding.
+     * @see #setCompactObserverRegistration(boolean)
+     */
+    public static boolean isCompactObserverRegistration() {
+        return sCompactRegistration;
+    }
+
+    /**
+     * Returns the rebind statistics of the thread this binding was created on. All bindings
+     * created on the same thread share their statistics.
+     *
+     * @return A snapshot of the current statistics.
+     * @see #setRebindFrameBudget(long)
+     */
+    public RebindStats getRebindStats() {
+        return mRebindQueue.getStats();
+    }
+
+    /**
+     * Sets the Executor that evaluates this binding's expressions when it rebinds on its own.
+     * Only the View setters then run on the UI thread. Explicit calls to
+     * {@link #executePendingBindings()} still evaluate on the calling thread.
+     * <p>
+     * The layout must allow this with <code>&lt;data evaluateAsync="true"&gt;</code>, which
+     * declares that its expressions do not access Views and may be called from any thread.
+     * When variables or observed fields change while an evaluation runs, its results are
+     * discarded and the expressions are evaluated again.
+     *
+     * @param executor The Executor to evaluate expressions on or null to evaluate them on the
+     *                 UI thread.
+     * @throws IllegalStateException if the layout does not allow evaluating its expressions
+     * off the UI thread.
+     */
+    public void setEvaluationExecutor(Executor executor) {
+        if (executor != null) {
+            if (!supportsAsyncEvaluation()) {
+                throw new IllegalStateException("The layout of " + getClass().getSimpleName()
+                        + " must declare <data evaluateAsync=\"true\"> to evaluate its"
+                        + " expressions off the UI thread.");
+            }
+            if (mEvaluationHandler == null) {
+                mEvaluationHandler = new Handler(mRebindQueue.getLooper());
+            }
+        }
+        mEvaluationExecutor = executor;
+    }
+
     /**
      * @hide
      */
@@ -277,6 +440,56 @@ public abstract class ViewDataBinding extends BaseObservable {
         return SDK_INT;
     }
 
+    /**
+     * Returns the BR ids of the properties this binding reads from the BaseObservable in the
+     * given local field. The binding subscribes to only those properties, and to changes of
+     * the whole object.
+     *
+     * @param localFieldId The index into mLocalFieldObservers of the observed object.
+     * @return The BR ids or null to be notified of every property. The array is shared and
+     * must not be modified.
+     * @hide
+     */
+    protected int[] getObservedPropertyIds(int localFieldId) {
+        return null;
+    }
+
+    /**
+     * Returns the BR ids to subscribe to on <code>target</code> or null to add the callback
+     * with {@link Observable#addOnPropertyChangedCallback}. A subclass that overrides only
+     * that method would not see filtered subscriptions, so it is always used for such classes.
+     */
+    private int[] getObservedPropertyIds(BaseObservable target, int localFieldId) {
+        final int[] propertyIds = getObservedPropertyIds(localFieldId);
+        if (propertyIds == null || !acceptsPropertyIds(target.getClass())) {
+            return null;
+        }
+        return propertyIds;
+    }
+
+    private static boolean acceptsPropertyIds(Class<?> observableClass) {
+        synchronized (sAcceptsPropertyIds) {
+            Boolean accepts = sAcceptsPropertyIds.get(observableClass);
+            if (accepts == null) {
+                final String name = "addOnPropertyChangedCallback";
+                try {
+                    Class<?> unfiltered = observableClass.getMethod(name,
+                            Observable.OnPropertyChangedCallback.class).getDeclaringClass();
+                    Class<?> filtered = observableClass.getMethod(name,
+                            Observable.OnPropertyChangedCallback.class, int[].class)
+                            .getDeclaringClass();
+                    // the filtered method must be declared by the class that declares the
+                    // unfiltered one or by one of its subclasses
+                    accepts = unfiltered.isAssignableFrom(filtered);
+                } catch (NoSuchMethodException e) {
+                    accepts = false;
+                }
+                sAcceptsPropertyIds.put(observableClass, accepts);
+            }
+            return accepts;
+        }
+    }
+
     /**
      * Called when an observed object changes. Sets the appropriate dirty flag if applicable.
      * @param localFieldId The index into mLocalFieldObservers that this Object resides in.
@@ -338,6 +551,7 @@ public abstract class ViewDataBinding extends BaseObservable {
             requestRebind();
             return;
         }
+        flushCoalescedInverseBindings();
         if (!hasPendingBindings()) {
             return;
         }
@@ -352,6 +566,7 @@ public abstract class ViewDataBinding extends BaseObservable {
             }
         }
         if (!mRebindHalted) {
+            mEvaluationGeneration++;
             executeBindings();
             if (mRebindCallbacks != null) {
                 mRebindCallbacks.notifyCallbacks(this, REBOUND, null);
@@ -360,10 +575,281 @@ public abstract class ViewDataBinding extends BaseObservable {
         mIsExecutingPendingBindings = false;
     }
 
+    /**
+     * Called by the {@link RebindQueue} on animation heartbeat to rebind the dirty Views.
+     */
+    void executeQueuedRebind() {
+        mPendingRebind.set(false);
+        if (mContainingBinding != null) {
+            // Queued before it was included. The containing binding executes it.
+            mContainingBinding.requestRebind();
+            return;
+        }
+        if (VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
+            // Nested so that we don't get a lint warning in IntelliJ
+            if (!mRoot.isAttachedToWindow()) {
+                // Don't execute the pending bindings until the View
+                // is attached again.
+                mRoot.removeOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
+                mRoot.addOnAttachStateChangeListener(ROOT_REATTACHED_LISTENER);
+                return;
+            }
+        }
+        final Executor executor = mEvaluationExecutor;
+        if (executor != null && supportsAsyncEvaluation()) {
+            evaluatePendingBindingsAsync(executor);
+        } else {
+            executePendingBindings();
+        }
+    }
+
+    private void evaluatePendingBindingsAsync(Executor executor) {
+        if (mEvaluationPending || mIsExecutingPendingBindings) {
+            // The dirty flags stay set. The pending evaluation will find them and request
+            // another rebind.
+            return;
+        }
+        flushCoalescedInverseBindings();
+        if (!hasPendingBindings()) {
+            return;
+        }
+        mRebindHalted = false;
+        if (mRebindCallbacks != null) {
+            mRebindCallbacks.notifyCallbacks(this, REBIND, null);
+            if (mRebindHalted) {
+                mRebindCallbacks.notifyCallbacks(this, HALTED, null);
+                return;
+            }
+        }
+        mEvaluationPending = true;
+        final int generation = mEvaluationGeneration;
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Object[] values;
+                    try {
+                        values = evaluateBindingsExclusively();
+                    } catch (final RuntimeException e) {
+                        mEvaluationHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                mEvaluationPending = false;
+                                throw e;
+                            }
+                        });
+                        return;
+                    }
+                    mEvaluationHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            applyEvaluatedBindings(values, generation);
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The Executor was shut down or is full. Bind on the UI thread instead; the
+            // REBIND callbacks have already been notified.
+            mEvaluationPending = false;
+            mIsExecutingPendingBindings = true;
+            mEvaluationGeneration++;
+            executeBindings();
+            if (mRebindCallbacks != null) {
+                mRebindCallbacks.notifyCallbacks(this, REBOUND, null);
+            }
+            mIsExecutingPendingBindings = false;
+        }
+    }
+
+    private void applyEvaluatedBindings(Object[] values, int generation) {
+        mEvaluationPending = false;
+        if (generation != mEvaluationGeneration || hasPendingBindings()) {
+            // Bindings were applied or invalidated while evaluating, so the values may be
+            // out of date. Evaluate again, including what this evaluation consumed.
+            restoreDirtyFlags(values);
+            requestRebind();
+            return;
+        }
+        mEvaluationGeneration++;
+        mIsExecutingPendingBindings = true;
+        mIsApplyingEvaluatedBindings = true;
+        try {
+            applyBindings(values);
+        } finally {
+            mIsApplyingEvaluatedBindings = false;
+            mIsExecutingPendingBindings = false;
+        }
+        if (mRebindCallbacks != null) {
+            mRebindCallbacks.notifyCallbacks(this, REBOUND, null);
+        }
+        if (hasPendingBindings()) {
+            // Observables first registered while applying may have changed after they were
+            // read on the Executor.
+            requestRebind();
+        }
+    }
+
+    /**
+     * @return true while {@link #applyBindings(Object[])} applies values that were evaluated
+     * on the evaluation Executor. Observables registered then were read before they were
+     * observed, so changes made in the meantime were not notified.
+     * @hide
+     */
+    protected boolean isApplyingEvaluatedBindings() {
+        return mIsApplyingEvaluatedBindings;
+    }
+
+    /**
+     * Wraps a two-way binding listener so that it is called at most once per animation frame,
+     * however many events the View sends. The last value is always delivered, at the latest
+     * before this binding executes again. Used for events declared with
+     * {@link InverseBindingAdapter#coalesce()} or {@link InverseBindingMethod#coalesce()}.
+     *
+     * @param listener The listener that reads the View's value into the model.
+     * @return The listener to give to the View.
+     * @hide
+     */
+    protected InverseBindingListener coalesceInverseBinding(InverseBindingListener listener) {
+        final CoalescedInverseBindingListener coalesced =
+                new CoalescedInverseBindingListener(listener);
+        if (mCoalescedInverseListeners == null) {
+            mCoalescedInverseListeners = new ArrayList<CoalescedInverseBindingListener>();
+        }
+        mCoalescedInverseListeners.add(coalesced);
+        return coalesced;
+    }
+
+    private void flushCoalescedInverseBindings() {
+        if (mCoalescedInverseListeners != null) {
+            for (int i = 0; i < mCoalescedInverseListeners.size(); i++) {
+                mCoalescedInverseListeners.get(i).flush();
+            }
+        }
+    }
+
+    /**
+     * Evaluates the pending bindings right away, like {@link #executePendingBindings()}. When
+     * called inside a batch, the rebind request held back by the batch is dropped, so nothing
+     * is queued for the next frame. An adapter can assign a row's variables and bind it without
+     * posting a frame callback:
+     * <pre>
+     * binding.beginBatch();
+     * try {
+     *     binding.setVariables(item, position);
+     *     binding.executeBindingsNow();
+     * } finally {
+     *     binding.endBatch();
+     * }
+     * </pre>
+     * This <b>must</b> be run on the UI thread.
+     */
+    public void executeBindingsNow() {
+        synchronized (this) {
+            mRebindDeferred = false;
+        }
+        executePendingBindings();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rebind requests are held back as well. Generated setters and field changes only set
+     * dirty flags until the outermost {@link #endBatch()}, which requests a single rebind.
+     */
+    @Override
+    public synchronized void beginBatch() {
+        super.beginBatch();
+        mRebindBatchDepth++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Ending the outermost batch requests a rebind if one was requested during the batch.
+     */
+    @Override
+    public void endBatch() {
+        final boolean rebind;
+        synchronized (this) {
+            rebind = mRebindBatchDepth == 1 && mRebindDeferred;
+            if (mRebindBatchDepth != 0) {
+                mRebindBatchDepth--;
+            }
+            if (rebind) {
+                mRebindDeferred = false;
+            }
+        }
+        super.endBatch();
+        if (rebind) {
+            requestRebind();
+        }
+    }
+
+    private synchronized boolean deferRebind() {
+        if (mRebindBatchDepth == 0) {
+            return false;
+        }
+        mRebindDeferred = true;
+        return true;
+    }
+
     void forceExecuteBindings() {
+        mEvaluationGeneration++;
         executeBindings();
     }
 
+    /**
+     * Evaluates the expressions with the evaluation lock held, so that the UI thread and the
+     * evaluation Executor never evaluate at the same time.
+     *
+     * @hide
+     */
+    protected final Object[] evaluateBindingsExclusively() {
+        synchronized (mEvaluationLock) {
+            return evaluateBindings();
+        }
+    }
+
+    /**
+     * @return true if the generated binding splits executeBindings into
+     * {@link #evaluateBindings()} and {@link #applyBindings(Object[])}.
+     * @hide
+     */
+    protected boolean supportsAsyncEvaluation() {
+        return false;
+    }
+
+    /**
+     * Takes the dirty flags and variables and evaluates the dirty expressions without
+     * touching any View. This may run on any thread. Only called when
+     * {@link #supportsAsyncEvaluation()} returns true.
+     *
+     * @return The dirty flags and evaluated values to pass to {@link #applyBindings(Object[])}.
+     * @hide
+     */
+    protected Object[] evaluateBindings() {
+        return null;
+    }
+
+    /**
+     * Calls the View setters with values returned by {@link #evaluateBindings()}. This must
+     * run on the UI thread. Only called when {@link #supportsAsyncEvaluation()} returns true.
+     *
+     * @hide
+     */
+    protected void applyBindings(Object[] values) {
+    }
+
+    /**
+     * Marks the expressions evaluated into <code>values</code> dirty again, because the
+     * values are discarded. Only called when {@link #supportsAsyncEvaluation()} returns true.
+     *
+     * @hide
+     */
+    protected void restoreDirtyFlags(Object[] values) {
+    }
+
     /**
      * @hide
      */
@@ -374,6 +860,18 @@ public abstract class ViewDataBinding extends BaseObservable {
      */
     public abstract void invalidateAll();
 
+    /**
+     * Called when a ViewStub in this binding's layout has inflated, immediately before the
+     * bindings are executed. Generated bindings override this to invalidate only the
+     * expressions bound to the stub. The default invalidates all expressions.
+     *
+     * @param viewStub The proxy of the ViewStub that inflated.
+     * @hide
+     */
+    protected void invalidateViewStub(ViewStubProxy viewStub) {
+        invalidateAll();
+    }
+
     /**
      * Returns whether the UI needs to be refresh to represent the current data.
      *
@@ -385,6 +883,10 @@ public abstract class ViewDataBinding extends BaseObservable {
      * Removes binding listeners to expression variables.
      */
     public void unbind() {
+        if (mObserverHub != null) {
+            mObserverHub.unregisterAll();
+            return;
+        }
         for (WeakListener weakListener : mLocalFieldObservers) {
             if (weakListener != null) {
                 weakListener.unregister();
@@ -392,9 +894,21 @@ public abstract class ViewDataBinding extends BaseObservable {
         }
     }
 
-    @Override
-    protected void finalize() throws Throwable {
-        unbind();
+    /**
+     * Removes the listeners of bindings that have been garbage collected from the objects
+     * they observed. Called when a binding is created and once per frame by the
+     * {@link RebindQueue}, not on every rebind request: ReferenceQueue.poll() takes the
+     * queue's lock even when it is empty.
+     */
+    static void processReferenceQueue() {
+        Reference<? extends ViewDataBinding> ref;
+        while ((ref = sReferenceQueue.poll()) != null) {
+            if (ref instanceof WeakListener) {
+                ((WeakListener) ref).unregister();
+            } else if (ref instanceof HubReference) {
+                ((HubReference) ref).mHub.unregisterAll();
+            }
+        }
     }
 
     static ViewDataBinding getBinding(View v) {
@@ -421,6 +935,27 @@ public abstract class ViewDataBinding extends BaseObservable {
         return mRoot;
     }
 
+    /**
+     * Returns a number that changes whenever the Configuration of the root View's Resources
+     * has changed since the previous call. Generated bindings store it with the resource values
+     * they cache and read the resources again when it no longer matches. It is only called
+     * while bindings are evaluated.
+     *
+     * @return A number identifying the current Configuration, never 0.
+     * @hide
+     */
+    protected int getResourceGeneration() {
+        final Configuration configuration = mRoot.getResources().getConfiguration();
+        if (mResourceConfiguration == null) {
+            mResourceConfiguration = new Configuration(configuration);
+            mResourceGeneration = 1;
+        } else if (!mResourceConfiguration.equals(configuration)) {
+            mResourceConfiguration.setTo(configuration);
+            mResourceGeneration++;
+        }
+        return mResourceGeneration;
+    }
+
     private void handleFieldChange(int mLocalFieldId, Object object, int fieldId) {
         boolean result = onFieldChange(mLocalFieldId, object, fieldId);
         if (result) {
@@ -432,6 +967,9 @@ public abstract class ViewDataBinding extends BaseObservable {
      * @hide
      */
     protected boolean unregisterFrom(int localFieldId) {
+        if (mObserverHub != null) {
+            return mObserverHub.unregister(localFieldId);
+        }
         WeakListener listener = mLocalFieldObservers[localFieldId];
         if (listener != null) {
             return listener.unregister();
@@ -443,24 +981,25 @@ public abstract class ViewDataBinding extends BaseObservable {
      * @hide
      */
     protected void requestRebind() {
-        synchronized (this) {
-            if (mPendingRebind) {
-                return;
-            }
-            mPendingRebind = true;
+        if (mRebindBatchDepth != 0 && deferRebind()) {
+            return;
         }
-        if (USE_CHOREOGRAPHER) {
-            mChoreographer.postFrameCallback(mFrameCallback);
-        } else {
-            mUIThreadHandler.post(mRebindRunnable);
+        if (mContainingBinding != null) {
+            mContainingBinding.requestRebind();
+            return;
+        }
+        if (mPendingRebind.compareAndSet(false, true)) {
+            mRebindQueue.add(this);
         }
-
     }
 
     /**
      * @hide
      */
     protected Object getObservedField(int localFieldId) {
+        if (mObserverHub != null) {
+            return mObserverHub.getTarget(localFieldId);
+        }
         WeakListener listener = mLocalFieldObservers[localFieldId];
         if (listener == null) {
             return null;
@@ -470,6 +1009,10 @@ public abstract class ViewDataBinding extends BaseObservable {
 
     private boolean updateRegistration(int localFieldId, Object observable,
             CreateWeakListener listenerCreator) {
+        if (mObserverHub != null) {
+            return mObserverHub.update(localFieldId, observable,
+                    ObserverHub.kindOf(listenerCreator));
+        }
         if (observable == null) {
             return unregisterFrom(localFieldId);
         }
@@ -531,6 +1074,10 @@ public abstract class ViewDataBinding extends BaseObservable {
         if (observable == null) {
             return;
         }
+        if (mObserverHub != null) {
+            mObserverHub.update(localFieldId, observable, ObserverHub.kindOf(listenerCreator));
+            return;
+        }
         WeakListener listener = mLocalFieldObservers[localFieldId];
         if (listener == null) {
             listener = listenerCreator.create(this, localFieldId);
@@ -927,6 +1474,54 @@ public abstract class ViewDataBinding extends BaseObservable {
         list.put(index, value);
     }
 
+    /** @hide */
+    protected static int getFromList(ObservableIntArrayList list, int index) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return 0;
+        }
+        return list.getInt(index);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableIntArrayList list, int index, int value) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return;
+        }
+        list.setInt(index, value);
+    }
+
+    /** @hide */
+    protected static long getFromList(ObservableLongArrayList list, int index) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return 0;
+        }
+        return list.getLong(index);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableLongArrayList list, int index, long value) {
+        if (list == null || index < 0 || index >= list.size()) {
+            return;
+        }
+        list.setLong(index, value);
+    }
+
+    /** @hide */
+    protected static int getFromList(ObservableSparseIntArray list, int index) {
+        if (list == null) {
+            return 0;
+        }
+        return list.get(index);
+    }
+
+    /** @hide */
+    protected static void setTo(ObservableSparseIntArray list, int index, int value) {
+        if (list == null) {
+            return;
+        }
+        list.put(index, value);
+    }
+
     /** @hide */
     protected static <K, T> T getFrom(Map<K, T> map, K key) {
         if (map == null) {
@@ -943,6 +1538,26 @@ public abstract class ViewDataBinding extends BaseObservable {
         map.put(key, value);
     }
 
+    /**
+     * Sets the given bits in a dirty flag word of a generated binding. The word is updated with
+     * compare-and-set so that flags set concurrently from several threads are never lost and
+     * the binding is never locked. The compare-and-set is done even when the bits are already
+     * set, so that it publishes the values the caller stored before to the thread that takes
+     * the flags.
+     *
+     * @param updater The updater of the dirty flag word.
+     * @param binding The binding owning the dirty flag word.
+     * @param flags The bits to set.
+     * @hide
+     */
+    protected static <T> void setDirtyFlags(AtomicLongFieldUpdater<T> updater, T binding,
+            long flags) {
+        long current;
+        do {
+            current = updater.get(binding);
+        } while (!updater.compareAndSet(binding, current, current | flags));
+    }
+
     /** @hide */
     protected static void setBindingInverseListener(ViewDataBinding binder,
             InverseBindingListener oldListener, PropertyChangedInverseListener listener) {
@@ -1152,7 +1767,7 @@ public abstract class ViewDataBinding extends BaseObservable {
 
         public WeakListener(ViewDataBinding binder, int localFieldId,
                 ObservableReference<T> observable) {
-            super(binder);
+            super(binder, sReferenceQueue);
             mLocalFieldId = localFieldId;
             mObservable = observable;
         }
@@ -1203,7 +1818,17 @@ public abstract class ViewDataBinding extends BaseObservable {
 
         @Override
         public void addListener(Observable target) {
-            target.addOnPropertyChangedCallback(this);
+            ViewDataBinding binder = mListener.get();
+            int[] propertyIds = null;
+            if (binder != null && target instanceof BaseObservable) {
+                propertyIds = binder.getObservedPropertyIds((BaseObservable) target,
+                        mListener.mLocalFieldId);
+            }
+            if (propertyIds == null) {
+                target.addOnPropertyChangedCallback(this);
+            } else {
+                ((BaseObservable) target).addOnPropertyChangedCallback(this, propertyIds);
+            }
         }
 
         @Override
@@ -1320,6 +1945,206 @@ public abstract class ViewDataBinding extends BaseObservable {
         WeakListener create(ViewDataBinding viewDataBinding, int localFieldId);
     }
 
+    private static class HubReference extends WeakReference<ViewDataBinding> {
+        final ObserverHub mHub;
+
+        HubReference(ViewDataBinding binder, ObserverHub hub) {
+            super(binder, sReferenceQueue);
+            mHub = hub;
+        }
+    }
+
+    /**
+     * Observes every field of a binding with a single set of callbacks instead of one
+     * WeakListener per field. The observed objects are kept in a table indexed by local field
+     * id. An object observed by more than one local field is registered once and notifies
+     * each of them.
+     */
+    private static class ObserverHub extends Observable.OnPropertyChangedCallback {
+        private static final byte PROPERTY = 0;
+        private static final byte LIST = 1;
+        private static final byte MAP = 2;
+
+        private final HubReference mBinder;
+        private final Object[] mTargets;
+        private final byte[] mKinds;
+        private HubListListener mListListener;
+        private HubMapListener mMapListener;
+
+        ObserverHub(ViewDataBinding binder, int localFieldCount) {
+            mBinder = new HubReference(binder, this);
+            mTargets = new Object[localFieldCount];
+            mKinds = new byte[localFieldCount];
+        }
+
+        static byte kindOf(CreateWeakListener listenerCreator) {
+            if (listenerCreator == CREATE_LIST_LISTENER) {
+                return LIST;
+            } else if (listenerCreator == CREATE_MAP_LISTENER) {
+                return MAP;
+            }
+            return PROPERTY;
+        }
+
+        Object getTarget(int localFieldId) {
+            return mTargets[localFieldId];
+        }
+
+        /**
+         * Same contract as ViewDataBinding#updateRegistration: returns true if the observed
+         * object changed.
+         */
+        boolean update(int localFieldId, Object target, byte kind) {
+            if (target == null) {
+                return unregister(localFieldId);
+            }
+            if (mTargets[localFieldId] == target && mKinds[localFieldId] == kind) {
+                return false; // nothing to do, same object
+            }
+            unregister(localFieldId);
+            final boolean alreadyObserved = isObserved(target, kind);
+            mTargets[localFieldId] = target;
+            mKinds[localFieldId] = kind;
+            if (kind == PROPERTY && target instanceof BaseObservable) {
+                // Subscriptions are additive, so this field's properties are added to the
+                // ones of any other field observing the same object.
+                subscribe((BaseObservable) target, localFieldId);
+            } else if (!alreadyObserved) {
+                addListener(target, kind);
+            }
+            return true;
+        }
+
+        boolean unregister(int localFieldId) {
+            final Object target = mTargets[localFieldId];
+            if (target == null) {
+                return false;
+            }
+            mTargets[localFieldId] = null;
+            final byte kind = mKinds[localFieldId];
+            if (!isObserved(target, kind)) {
+                removeListener(target, kind);
+            }
+            return true;
+        }
+
+        void unregisterAll() {
+            for (int i = 0; i < mTargets.length; i++) {
+                unregister(i);
+            }
+        }
+
+        private boolean isObserved(Object target, byte kind) {
+            for (int i = 0; i < mTargets.length; i++) {
+                if (mTargets[i] == target && mKinds[i] == kind) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void addListener(Object target, byte kind) {
+            switch (kind) {
+                case LIST:
+                    if (mListListener == null) {
+                        mListListener = new HubListListener();
+                    }
+                    ((ObservableList) target).addOnListChangedCallback(mListListener);
+                    break;
+                case MAP:
+                    if (mMapListener == null) {
+                        mMapListener = new HubMapListener();
+                    }
+                    ((ObservableMap) target).addOnMapChangedCallback(mMapListener);
+                    break;
+                default:
+                    ((Observable) target).addOnPropertyChangedCallback(this);
+                    break;
+            }
+        }
+
+        private void subscribe(BaseObservable target, int localFieldId) {
+            ViewDataBinding binder = mBinder.get();
+            int[] propertyIds = binder == null ? null
+                    : binder.getObservedPropertyIds(target, localFieldId);
+            if (propertyIds == null) {
+                target.addOnPropertyChangedCallback(this);
+            } else {
+                target.addOnPropertyChangedCallback(this, propertyIds);
+            }
+        }
+
+        private void removeListener(Object target, byte kind) {
+            switch (kind) {
+                case LIST:
+                    ((ObservableList) target).removeOnListChangedCallback(mListListener);
+                    break;
+                case MAP:
+                    ((ObservableMap) target).removeOnMapChangedCallback(mMapListener);
+                    break;
+                default:
+                    ((Observable) target).removeOnPropertyChangedCallback(this);
+                    break;
+            }
+        }
+
+        private void dispatch(Object sender, byte kind, int fieldId) {
+            ViewDataBinding binder = mBinder.get();
+            if (binder == null) {
+                unregisterAll(); // The binder is dead
+                return;
+            }
+            for (int i = 0; i < mTargets.length; i++) {
+                if (mTargets[i] == sender && mKinds[i] == kind) {
+                    binder.handleFieldChange(i, sender, fieldId);
+                }
+            }
+        }
+
+        @Override
+        public void onPropertyChanged(Observable sender, int propertyId) {
+            dispatch(sender, PROPERTY, propertyId);
+        }
+
+        private class HubListListener extends ObservableList.OnListChangedCallback {
+            @Override
+            public void onChanged(ObservableList sender) {
+                dispatch(sender, LIST, 0);
+            }
+
+            @Override
+            public void onItemRangeChanged(ObservableList sender, int positionStart,
+                    int itemCount) {
+                dispatch(sender, LIST, 0);
+            }
+
+            @Override
+            public void onItemRangeInserted(ObservableList sender, int positionStart,
+                    int itemCount) {
+                dispatch(sender, LIST, 0);
+            }
+
+            @Override
+            public void onItemRangeMoved(ObservableList sender, int fromPosition, int toPosition,
+                    int itemCount) {
+                dispatch(sender, LIST, 0);
+            }
+
+            @Override
+            public void onItemRangeRemoved(ObservableList sender, int positionStart,
+                    int itemCount) {
+                dispatch(sender, LIST, 0);
+            }
+        }
+
+        private class HubMapListener extends ObservableMap.OnMapChangedCallback {
+            @Override
+            public void onMapChanged(ObservableMap sender, Object key) {
+                dispatch(sender, MAP, 0);
+            }
+        }
+    }
+
     /**
      * This class is used by generated subclasses of {@link ViewDataBinding} to track the
      * included layouts contained in the bound layout. This class is an implementation
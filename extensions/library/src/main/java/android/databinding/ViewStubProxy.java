@@ -44,7 +44,7 @@ public class ViewStubProxy {
                 mOnInflateListener.onInflate(stub, inflated);
                 mOnInflateListener = null;
             }
-            mContainingBinding.invalidateAll();
+            mContainingBinding.invalidateViewStub(ViewStubProxy.this);
             mContainingBinding.forceExecuteBindings();
         }
     };
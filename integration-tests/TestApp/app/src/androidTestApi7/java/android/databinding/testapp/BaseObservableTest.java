@@ -16,12 +16,14 @@
 package android.databinding.testapp;
 
 import android.databinding.BaseObservable;
+import android.databinding.ObservableTransaction;
 import android.databinding.testapp.databinding.BasicBindingBinding;
 
 import android.databinding.Observable;
 import android.databinding.Observable.OnPropertyChangedCallback;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class BaseObservableTest extends BaseDataBinderTest<BasicBindingBinding> {
     private BaseObservable mObservable;
@@ -82,4 +84,77 @@ public class BaseObservableTest extends BaseDataBinderTest<BasicBindingBinding>
         assertEquals(1, mNotifications.size());
         assertEquals(expectedId, (int) mNotifications.get(0));
     }
+
+    public void testBatch() {
+        mObservable.addOnPropertyChangedCallback(mCallback);
+        mObservable.beginBatch();
+        mObservable.notifyPropertyChanged(200);
+        mObservable.notifyPropertyChanged(3);
+        mObservable.beginBatch();
+        mObservable.notifyPropertyChanged(200);
+        mObservable.endBatch();
+        assertTrue(mNotifications.isEmpty());
+        mObservable.notifyPropertyChanged(3);
+        mObservable.endBatch();
+        assertEquals(Arrays.asList(3, 200), mNotifications);
+
+        mNotifications.clear();
+        mObservable.notifyPropertyChanged(3);
+        assertEquals(Arrays.asList(3), mNotifications);
+    }
+
+    public void testBatchNotifyChange() {
+        mObservable.addOnPropertyChangedCallback(mCallback);
+        mObservable.beginBatch();
+        mObservable.notifyPropertyChanged(1);
+        mObservable.notifyChange();
+        mObservable.notifyPropertyChanged(2);
+        mObservable.endBatch();
+        assertEquals(Arrays.asList(0), mNotifications);
+    }
+
+    public void testUnmatchedEndBatch() {
+        try {
+            mObservable.endBatch();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testTransaction() {
+        final ArrayList<Object> notified = new ArrayList<>();
+        OnPropertyChangedCallback callback = new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable observable, int i) {
+                notified.add(observable);
+                notified.add(i);
+            }
+        };
+        BaseObservable other = new BaseObservable();
+        mObservable.addOnPropertyChangedCallback(callback);
+        other.addOnPropertyChangedCallback(callback);
+
+        ObservableTransaction.begin();
+        assertTrue(ObservableTransaction.isOpen());
+        mObservable.notifyPropertyChanged(1);
+        other.notifyPropertyChanged(2);
+        mObservable.beginBatch();
+        mObservable.notifyPropertyChanged(1);
+        mObservable.endBatch();
+        ObservableTransaction.begin();
+        other.notifyPropertyChanged(2);
+        ObservableTransaction.end();
+        assertTrue(notified.isEmpty());
+        ObservableTransaction.end();
+        assertFalse(ObservableTransaction.isOpen());
+        assertEquals(Arrays.<Object>asList(mObservable, 1, other, 2), notified);
+
+        try {
+            ObservableTransaction.end();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
 }
@@ -15,6 +15,8 @@ package android.databinding.testapp;
 
 import android.databinding.DataBindingUtil;
 import android.databinding.OnRebindCallback;
+import android.databinding.RebindStats;
+import android.databinding.ViewDataBinding;
 import android.databinding.testapp.databinding.BasicBindingBinding;
 import android.databinding.testapp.databinding.NoExpressionsBinding;
 import android.databinding.testapp.databinding.NoDataElementBinding;
@@ -118,6 +120,63 @@ public class BasicBindingTest extends BaseDataBinderTest<BasicBindingBinding> {
         });
     }
 
+    public void testFrameBudget() throws Throwable {
+        final BasicBindingBinding[] offScreen = new BasicBindingBinding[2];
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertAB("X", "Y");
+                ViewGroup viewGroup = (ViewGroup) mBinder.getRoot();
+                for (int i = 0; i < offScreen.length; i++) {
+                    offScreen[i] = BasicBindingBinding.inflate(getActivity().getLayoutInflater(),
+                            viewGroup, true);
+                    offScreen[i].getRoot().setVisibility(View.INVISIBLE);
+                    offScreen[i].executePendingBindings();
+                }
+                ViewDataBinding.setRebindFrameBudget(1);
+                // request the hidden bindings first, the shown one should still go first
+                for (BasicBindingBinding binding : offScreen) {
+                    binding.setA("Q");
+                }
+                mBinder.setA("Q");
+            }
+        });
+        try {
+            WaitForRun waitForRun = new WaitForRun();
+            View root = mBinder.getRoot();
+            root.postOnAnimation(waitForRun);
+            waitForRun.waitForRun();
+            runTestOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    RebindStats stats = mBinder.getRebindStats();
+                    assertEquals(1, stats.getFrameBudgetNanos());
+                    assertEquals(1, stats.getLastFrameExecuted());
+                    assertEquals(2, stats.getLastFrameDeferred());
+                    assertEquals("QY", mBinder.textView.getText().toString());
+                    assertFalse(mBinder.hasPendingBindings());
+                    assertTrue(offScreen[0].hasPendingBindings());
+                    assertTrue(offScreen[1].hasPendingBindings());
+                }
+            });
+            for (int i = 0; i < offScreen.length; i++) {
+                root.postOnAnimation(waitForRun);
+                waitForRun.waitForRun();
+            }
+            runTestOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    for (BasicBindingBinding binding : offScreen) {
+                        assertFalse(binding.hasPendingBindings());
+                        assertEquals("Qnull", binding.textView.getText().toString());
+                    }
+                }
+            });
+        } finally {
+            ViewDataBinding.setRebindFrameBudget(0);
+        }
+    }
+
     @UiThreadTest
     public void testNoExpressionBinding() throws Throwable {
         NoExpressionsBinding binding = NoExpressionsBinding.inflate(getActivity().getLayoutInflater());
@@ -13,6 +13,9 @@
 
 package android.databinding.testapp;
 
+import android.databinding.ObservableIntArrayList;
+import android.databinding.ObservableLongArrayList;
+import android.databinding.ObservableSparseIntArray;
 import android.databinding.testapp.databinding.BracketTestBinding;
 
 import android.test.UiThreadTest;
@@ -32,6 +35,10 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
     private SparseBooleanArray mSparseBooleanArray = new SparseBooleanArray();
     private SparseLongArray mSparseLongArray = new SparseLongArray();
     private LongSparseArray<String> mLongSparseArray = new LongSparseArray<>();
+    private ObservableIntArrayList mIntList = new ObservableIntArrayList(new int[] {41});
+    private ObservableLongArrayList mLongList =
+            new ObservableLongArrayList(new long[] {Long.MAX_VALUE});
+    private ObservableSparseIntArray mObservableSparseIntArray = new ObservableSparseIntArray();
 
     public BracketTest() {
         super(BracketTestBinding.class);
@@ -40,6 +47,7 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         mSparseIntArray.put(0, 100);
         mSparseBooleanArray.put(0, true);
         mSparseLongArray.put(0, 5);
+        mObservableSparseIntArray.put(0, 7);
     }
 
     @Override
@@ -55,6 +63,9 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
                 mBinder.setSparseLongArray(mSparseLongArray);
                 mBinder.setLongSparseArray(mLongSparseArray);
                 mBinder.setIndexObj((Integer) 0);
+                mBinder.setIntList(mIntList);
+                mBinder.setLongList(mLongList);
+                mBinder.setObservableSparseIntArray(mObservableSparseIntArray);
 
                 mBinder.executePendingBindings();
             }
@@ -69,6 +80,27 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         assertEquals("100", mBinder.sparseIntArrayText.getText().toString());
         assertEquals("true", mBinder.sparseBooleanArrayText.getText().toString());
         assertEquals("5", mBinder.sparseLongArrayText.getText().toString());
+        assertEquals("42", mBinder.intListText.getText().toString());
+        assertEquals(String.valueOf(Long.MAX_VALUE),
+                mBinder.longListText.getText().toString());
+        assertEquals("7", mBinder.observableSparseIntArrayText.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testPrimitiveCollectionChanges() {
+        mIntList.setInt(0, 1);
+        mLongList.setLong(0, 3);
+        mObservableSparseIntArray.put(0, 4);
+        mBinder.executePendingBindings();
+        assertEquals("2", mBinder.intListText.getText().toString());
+        assertEquals("3", mBinder.longListText.getText().toString());
+        assertEquals("4", mBinder.observableSparseIntArrayText.getText().toString());
+
+        mIntList.clear();
+        mObservableSparseIntArray.delete(0);
+        mBinder.executePendingBindings();
+        assertEquals("1", mBinder.intListText.getText().toString());
+        assertEquals("0", mBinder.observableSparseIntArrayText.getText().toString());
     }
 
     @UiThreadTest
@@ -81,6 +113,9 @@ public class BracketTest extends BaseDataBinderTest<BracketTestBinding> {
         assertEquals("0", mBinder.sparseIntArrayText.getText().toString());
         assertEquals("false", mBinder.sparseBooleanArrayText.getText().toString());
         assertEquals("0", mBinder.sparseLongArrayText.getText().toString());
+        assertEquals("1", mBinder.intListText.getText().toString());
+        assertEquals("0", mBinder.longListText.getText().toString());
+        assertEquals("0", mBinder.observableSparseIntArrayText.getText().toString());
         mBinder.setIndex(-1);
         mBinder.executePendingBindings();
         assertEquals("", mBinder.arrayText.getText().toString());
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.Observable;
+import android.databinding.testapp.databinding.BulkVariablesBinding;
+import android.test.UiThreadTest;
+
+import java.util.ArrayList;
+
+public class BulkVariablesTest extends BaseDataBinderTest<BulkVariablesBinding> {
+    public BulkVariablesTest() {
+        super(BulkVariablesBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        initBinder();
+    }
+
+    @UiThreadTest
+    public void testSetVariables() {
+        mBinder.setVariables(3, "Jane", "Doe");
+        assertTrue(mBinder.hasPendingBindings());
+        assertEquals("Jane", mBinder.getFirst());
+        assertEquals("Doe", mBinder.getLast());
+        assertEquals(3, mBinder.getCount());
+
+        mBinder.executePendingBindings();
+        assertEquals("Jane Doe", mBinder.name.getText().toString());
+        assertEquals("3", mBinder.countView.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testSetVariablesNotifiesEachProperty() {
+        final ArrayList<Integer> notified = new ArrayList<>();
+        mBinder.addOnPropertyChangedCallback(new Observable.OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable sender, int propertyId) {
+                notified.add(propertyId);
+            }
+        });
+        mBinder.setVariables(1, "a", "b");
+        assertEquals(3, notified.size());
+        assertTrue(notified.contains(BR.count));
+        assertTrue(notified.contains(BR.first));
+        assertTrue(notified.contains(BR.last));
+    }
+
+    @UiThreadTest
+    public void testBatchHoldsBackNotifications() {
+        final ArrayList<Integer> notified = new ArrayList<>();
+        mBinder.addOnPropertyChangedCallback(new Observable.OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable sender, int propertyId) {
+                notified.add(propertyId);
+            }
+        });
+        mBinder.beginBatch();
+        try {
+            mBinder.setFirst("John");
+            mBinder.setLast("Smith");
+            assertTrue(notified.isEmpty());
+        } finally {
+            mBinder.endBatch();
+        }
+        assertEquals(2, notified.size());
+        mBinder.executePendingBindings();
+        assertEquals("John Smith", mBinder.name.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testExecuteBindingsNowInBatch() {
+        mBinder.beginBatch();
+        try {
+            mBinder.setVariables(7, "Ada", "Lovelace");
+            mBinder.executeBindingsNow();
+            assertFalse(mBinder.hasPendingBindings());
+            assertEquals("Ada Lovelace", mBinder.name.getText().toString());
+            assertEquals("7", mBinder.countView.getText().toString());
+        } finally {
+            mBinder.endBatch();
+        }
+        assertFalse(mBinder.hasPendingBindings());
+    }
+}
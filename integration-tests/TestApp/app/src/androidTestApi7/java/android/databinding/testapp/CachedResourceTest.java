@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.databinding.testapp.databinding.CachedResourceBinding;
+import android.graphics.drawable.Drawable;
+import android.test.UiThreadTest;
+
+public class CachedResourceTest extends BaseDataBinderTest<CachedResourceBinding> {
+    public CachedResourceTest() {
+        super(CachedResourceBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        initBinder();
+    }
+
+    @UiThreadTest
+    public void testDrawableIsReadOnce() {
+        mBinder.setSelected(true);
+        mBinder.executePendingBindings();
+        Drawable circle = mBinder.icon.getBackground();
+        assertNotNull(circle);
+
+        mBinder.setSelected(false);
+        mBinder.executePendingBindings();
+        Drawable launcher = mBinder.icon.getBackground();
+        assertNotSame(circle, launcher);
+
+        mBinder.setSelected(true);
+        mBinder.executePendingBindings();
+        assertSame(circle, mBinder.icon.getBackground());
+    }
+
+    @UiThreadTest
+    public void testStrings() {
+        Resources resources = getActivity().getResources();
+        mBinder.setSuffix("Hello");
+        mBinder.executePendingBindings();
+        assertEquals(resources.getString(R.string.rain) + "Hello",
+                mBinder.title.getText().toString());
+        assertEquals(resources.getString(R.string.nameWithTitle, "Hello", "Hello"),
+                mBinder.formatted.getText().toString());
+
+        mBinder.setSuffix("World");
+        mBinder.executePendingBindings();
+        assertEquals(resources.getString(R.string.rain) + "World",
+                mBinder.title.getText().toString());
+        assertEquals(resources.getString(R.string.nameWithTitle, "World", "World"),
+                mBinder.formatted.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testConfigurationChangeReadsAgain() {
+        mBinder.setSelected(true);
+        mBinder.executePendingBindings();
+        Drawable circle = mBinder.icon.getBackground();
+
+        Resources resources = mBinder.getRoot().getResources();
+        Configuration original = new Configuration(resources.getConfiguration());
+        Configuration changed = new Configuration(original);
+        changed.fontScale = original.fontScale * 2;
+        try {
+            resources.updateConfiguration(changed, resources.getDisplayMetrics());
+            mBinder.invalidateAll();
+            mBinder.executePendingBindings();
+            Drawable reloaded = mBinder.icon.getBackground();
+            assertNotNull(reloaded);
+            assertNotSame(circle, reloaded);
+
+            mBinder.invalidateAll();
+            mBinder.executePendingBindings();
+            assertSame(reloaded, mBinder.icon.getBackground());
+        } finally {
+            resources.updateConfiguration(original, resources.getDisplayMetrics());
+        }
+    }
+}
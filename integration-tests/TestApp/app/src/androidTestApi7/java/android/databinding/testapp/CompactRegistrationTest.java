@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.databinding.testapp;
+
+import android.databinding.ObservableArrayList;
+import android.databinding.ObservableArrayMap;
+import android.databinding.ObservableField;
+import android.databinding.ViewDataBinding;
+import android.databinding.testapp.databinding.CompactRegistrationBinding;
+import android.test.UiThreadTest;
+
+public class CompactRegistrationTest extends BaseDataBinderTest<CompactRegistrationBinding> {
+    private boolean mWasCompact;
+
+    public CompactRegistrationTest() {
+        super(CompactRegistrationBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mWasCompact = ViewDataBinding.isCompactObserverRegistration();
+        ViewDataBinding.setCompactObserverRegistration(true);
+        initBinder();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ViewDataBinding.setCompactObserverRegistration(mWasCompact);
+        super.tearDown();
+    }
+
+    @UiThreadTest
+    public void testObserveAllKinds() {
+        ObservableField<String> first = new ObservableField<>("a");
+        ObservableField<String> second = new ObservableField<>("b");
+        ObservableArrayList<String> list = new ObservableArrayList<>();
+        list.add("c");
+        ObservableArrayMap<String, String> map = new ObservableArrayMap<>();
+        map.put("key", "d");
+        mBinder.setFirst(first);
+        mBinder.setSecond(second);
+        mBinder.setList(list);
+        mBinder.setMap(map);
+        mBinder.executePendingBindings();
+        assertTexts("a", "b", "c", "d");
+
+        first.set("A");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        list.set(0, "C");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        map.put("key", "D");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertTexts("A", "b", "C", "D");
+    }
+
+    @UiThreadTest
+    public void testSameObjectInTwoFields() {
+        ObservableField<String> shared = new ObservableField<>("a");
+        mBinder.setFirst(shared);
+        mBinder.setSecond(shared);
+        mBinder.executePendingBindings();
+        assertTexts("a", "a", null, null);
+
+        shared.set("b");
+        mBinder.executePendingBindings();
+        assertTexts("b", "b", null, null);
+
+        // Still observed through the second field after the first one moves on.
+        mBinder.setFirst(new ObservableField<>("x"));
+        mBinder.executePendingBindings();
+        shared.set("c");
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertTexts("x", "c", null, null);
+
+        mBinder.setSecond(null);
+        mBinder.executePendingBindings();
+        shared.set("d");
+        assertFalse(mBinder.hasPendingBindings());
+    }
+
+    @UiThreadTest
+    public void testUnbind() {
+        ObservableField<String> first = new ObservableField<>("a");
+        mBinder.setFirst(first);
+        mBinder.executePendingBindings();
+        mBinder.unbind();
+        first.set("b");
+        assertFalse(mBinder.hasPendingBindings());
+    }
+
+    private void assertTexts(String first, String second, String list, String map) {
+        assertEquals(first == null ? "" : first, mBinder.firstView.getText().toString());
+        assertEquals(second == null ? "" : second, mBinder.secondView.getText().toString());
+        assertEquals(list == null ? "" : list, mBinder.listView.getText().toString());
+        assertEquals(map == null ? "" : map, mBinder.mapView.getText().toString());
+    }
+}
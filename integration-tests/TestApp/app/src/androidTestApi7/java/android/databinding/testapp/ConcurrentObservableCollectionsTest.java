@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.ConcurrentObservableArrayList;
+import android.databinding.ConcurrentObservableArrayMap;
+import android.databinding.ObservableList;
+import android.databinding.ObservableList.OnListChangedCallback;
+import android.databinding.ObservableMap;
+import android.databinding.ObservableMap.OnMapChangedCallback;
+import android.databinding.testapp.databinding.BasicBindingBinding;
+import android.os.Looper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentObservableCollectionsTest extends BaseDataBinderTest<BasicBindingBinding> {
+    private static final int COUNT = 100;
+
+    public ConcurrentObservableCollectionsTest() {
+        super(BasicBindingBinding.class);
+    }
+
+    public void testListNotifiesOnMainThread() throws Throwable {
+        final ConcurrentObservableArrayList<Integer> list = new ConcurrentObservableArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(COUNT);
+        final Thread[] notifiedOn = new Thread[1];
+        final int[] sizeWhenNotified = new int[1];
+        list.addOnListChangedCallback(new OnListChangedCallback() {
+            @Override
+            public void onChanged(ObservableList sender) {
+                fail("Only insertions are expected");
+            }
+
+            @Override
+            public void onItemRangeChanged(ObservableList sender, int start, int count) {
+                fail("Only insertions are expected");
+            }
+
+            @Override
+            public void onItemRangeInserted(ObservableList sender, int start, int count) {
+                notifiedOn[0] = Thread.currentThread();
+                sizeWhenNotified[0] = sender.size();
+                assertEquals(start + count, sender.size());
+                for (int i = 0; i < count; i++) {
+                    latch.countDown();
+                }
+            }
+
+            @Override
+            public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+                fail("Only insertions are expected");
+            }
+
+            @Override
+            public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+                fail("Only insertions are expected");
+            }
+        });
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    list.add(i);
+                }
+            }
+        };
+        writer.start();
+        writer.join();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertSame(Looper.getMainLooper().getThread(), notifiedOn[0]);
+        assertEquals(COUNT, list.size());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i, (int) list.get(i));
+        }
+    }
+
+    public void testListIndicesReferToPendingContents() throws Throwable {
+        final ConcurrentObservableArrayList<Integer> list = new ConcurrentObservableArrayList<>();
+        final CountDownLatch published = new CountDownLatch(1);
+        list.addOnListChangedCallback(new OnListChangedCallback() {
+            @Override
+            public void onChanged(ObservableList sender) {
+            }
+
+            @Override
+            public void onItemRangeChanged(ObservableList sender, int start, int count) {
+            }
+
+            @Override
+            public void onItemRangeInserted(ObservableList sender, int start, int count) {
+                published.countDown();
+            }
+
+            @Override
+            public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+            }
+
+            @Override
+            public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+            }
+        });
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                list.add(1);
+                list.add(3);
+                list.add(1, 2);
+                // not published until the next frame
+                assertEquals(0, list.size());
+                assertEquals(3, list.pendingSize());
+                assertEquals(2, (int) list.getPending(1));
+                assertEquals(3, (int) list.remove(2));
+                assertEquals(2, list.pendingSize());
+            }
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(2, list.size());
+                try {
+                    list.listIterator().set(5);
+                    fail("Iterators must be read-only");
+                } catch (UnsupportedOperationException e) {
+                }
+                try {
+                    list.subList(0, 1).clear();
+                    fail("Sub lists must be read-only");
+                } catch (UnsupportedOperationException e) {
+                }
+                assertEquals(2, list.pendingSize());
+            }
+        });
+    }
+
+    public void testMapNotifiesEachKeyOnce() throws Throwable {
+        final ConcurrentObservableArrayMap<String, Integer> map =
+                new ConcurrentObservableArrayMap<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final int[] notifications = new int[1];
+        map.addOnMapChangedCallback(new OnMapChangedCallback() {
+            @Override
+            public void onMapChanged(ObservableMap sender, Object key) {
+                assertSame(Looper.getMainLooper().getThread(), Thread.currentThread());
+                assertEquals("Hello", key);
+                notifications[0]++;
+                latch.countDown();
+            }
+        });
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    map.put("Hello", i);
+                }
+                // not published until the next frame
+                assertTrue(map.isEmpty());
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, notifications[0]);
+        assertEquals(COUNT - 1, (int) map.get("Hello"));
+    }
+}
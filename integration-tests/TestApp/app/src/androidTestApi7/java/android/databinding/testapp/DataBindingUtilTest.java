@@ -14,9 +14,11 @@
 package android.databinding.testapp;
 
 import android.databinding.DataBindingUtil;
+import android.databinding.ViewDataBinding;
 import android.databinding.testapp.databinding.BasicBindingBinding;
 import android.databinding.testapp.databinding.CenteredContentBinding;
 import android.databinding.testapp.databinding.MergeLayoutBinding;
+import android.os.Looper;
 import android.test.ActivityInstrumentationTestCase2;
 import android.test.UiThreadTest;
 import android.view.InflateException;
@@ -24,6 +26,11 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewGroup.LayoutParams;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 public class DataBindingUtilTest
         extends ActivityInstrumentationTestCase2<TestActivity> {
 
@@ -102,4 +109,62 @@ public class DataBindingUtilTest
             // You can't inflate a merge layout without a root.
         }
     }
+
+    public void testInflateAsync() throws Throwable {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final Object[] results = new Object[2];
+        final Thread[] deliveredOn = new Thread[2];
+        try {
+            runTestOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    getActivity().getWindow().getDecorView(); // force a content to exist.
+                    ViewGroup content = (ViewGroup) getActivity().findViewById(
+                            android.R.id.content);
+                    DataBindingUtil.inflateAsync(getActivity().getLayoutInflater(),
+                            R.layout.basic_binding, content, executor,
+                            new DataBindingUtil.OnInflateFinishedListener<BasicBindingBinding>() {
+                                @Override
+                                public void onInflateFinished(BasicBindingBinding binding) {
+                                    results[0] = binding;
+                                    deliveredOn[0] = Thread.currentThread();
+                                    latch.countDown();
+                                }
+                            });
+                    DataBindingUtil.inflateAsync(getActivity().getLayoutInflater(),
+                            R.layout.plain_layout, null, executor,
+                            new DataBindingUtil.OnInflateFinishedListener<ViewDataBinding>() {
+                                @Override
+                                public void onInflateFinished(ViewDataBinding binding) {
+                                    results[1] = binding;
+                                    deliveredOn[1] = Thread.currentThread();
+                                    latch.countDown();
+                                }
+                            });
+                }
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        assertNull(results[1]);
+        assertSame(Looper.getMainLooper().getThread(), deliveredOn[0]);
+        assertSame(Looper.getMainLooper().getThread(), deliveredOn[1]);
+        final BasicBindingBinding binding = (BasicBindingBinding) results[0];
+        assertNotNull(binding);
+        assertNotNull(binding.getRoot().getLayoutParams());
+        assertNull(binding.getRoot().getParent());
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertSame(binding, DataBindingUtil.getBinding(binding.getRoot()));
+                getActivity().setContentView(binding.getRoot());
+                binding.setA("a");
+                binding.setB("b");
+                binding.executePendingBindings();
+                assertEquals("ab", binding.textView.getText().toString());
+            }
+        });
+    }
 }
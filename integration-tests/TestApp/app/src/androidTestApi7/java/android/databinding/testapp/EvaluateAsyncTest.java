@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.OnRebindCallback;
+import android.databinding.ViewDataBinding;
+import android.databinding.testapp.databinding.BasicBindingBinding;
+import android.databinding.testapp.databinding.EvaluateAsyncBinding;
+import android.databinding.testapp.vo.ObservableFieldBindingObject;
+import android.os.Looper;
+import android.test.UiThreadTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EvaluateAsyncTest extends BaseDataBinderTest<EvaluateAsyncBinding> {
+    private final Semaphore mBound = new Semaphore(0);
+
+    public EvaluateAsyncTest() {
+        super(EvaluateAsyncBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        initBinder(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setName("a");
+                mBinder.setCount(1);
+                mBinder.executePendingBindings();
+                mBinder.addOnRebindCallback(new OnRebindCallback() {
+                    @Override
+                    public void onBound(ViewDataBinding binding) {
+                        mBound.release();
+                    }
+                });
+            }
+        });
+    }
+
+    public void testEvaluatesOnExecutor() throws Throwable {
+        final Thread[] evaluatedOn = new Thread[1];
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                new Thread() {
+                    @Override
+                    public void run() {
+                        evaluatedOn[0] = Thread.currentThread();
+                        command.run();
+                    }
+                }.start();
+            }
+        };
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setEvaluationExecutor(executor);
+                mBinder.setName("hello");
+                mBinder.setCount(21);
+            }
+        });
+        assertTrue(mBound.tryAcquire(2, TimeUnit.SECONDS));
+        assertNotNull(evaluatedOn[0]);
+        assertNotSame(Looper.getMainLooper().getThread(), evaluatedOn[0]);
+        assertEquals("HELLO", mBinder.nameText.getText().toString());
+        assertEquals("42", mBinder.countText.getText().toString());
+    }
+
+    public void testDiscardsStaleEvaluation() throws Throwable {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch uiBlocked = new CountDownLatch(1);
+        final CountDownLatch evaluated = new CountDownLatch(1);
+        final AtomicInteger evaluations = new AtomicInteger();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                started.countDown();
+                new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            // deliver the result while the UI thread is busy
+                            uiBlocked.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        evaluations.incrementAndGet();
+                        command.run();
+                        evaluated.countDown();
+                    }
+                }.start();
+            }
+        };
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setEvaluationExecutor(executor);
+                mBinder.setName("first");
+                mBinder.setCount(5);
+            }
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                uiBlocked.countDown();
+                try {
+                    assertTrue(evaluated.await(2, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                // the evaluation of "first" is waiting to be applied and is now stale
+                mBinder.setName("second");
+            }
+        });
+        assertTrue(mBound.tryAcquire(2, TimeUnit.SECONDS));
+        // the discarded evaluation is not applied, the one after it is
+        assertFalse(mBound.tryAcquire(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, evaluations.get());
+        assertEquals("SECOND", mBinder.nameText.getText().toString());
+        // count was only dirty in the discarded evaluation, so its flag must have been restored
+        assertEquals("10", mBinder.countText.getText().toString());
+    }
+
+    public void testObservableChangedWhileEvaluating() throws Throwable {
+        final ObservableFieldBindingObject obj = new ObservableFieldBindingObject();
+        obj.oField.set("one");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch uiBlocked = new CountDownLatch(1);
+        final CountDownLatch evaluated = new CountDownLatch(1);
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                started.countDown();
+                new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            uiBlocked.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        command.run();
+                        evaluated.countDown();
+                    }
+                }.start();
+            }
+        };
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setEvaluationExecutor(executor);
+                mBinder.setObj(obj);
+            }
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                uiBlocked.countDown();
+                try {
+                    assertTrue(evaluated.await(2, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                // read as "one", but not observed until the evaluation is applied
+                obj.oField.set("two");
+            }
+        });
+        assertTrue(mBound.tryAcquire(2, TimeUnit.SECONDS));
+        assertTrue(mBound.tryAcquire(2, TimeUnit.SECONDS));
+        assertEquals("two", mBinder.fieldText.getText().toString());
+    }
+
+    public void testRejectedEvaluationBindsOnUiThread() throws Throwable {
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        };
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setEvaluationExecutor(executor);
+                mBinder.setName("first");
+            }
+        });
+        assertTrue(mBound.tryAcquire(2, TimeUnit.SECONDS));
+        assertEquals("FIRST", mBinder.nameText.getText().toString());
+        // later rebinds are not blocked by the rejected evaluation
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setName("second");
+            }
+        });
+        assertTrue(mBound.tryAcquire(2, TimeUnit.SECONDS));
+        assertEquals("SECOND", mBinder.nameText.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testExecutePendingBindingsIsSynchronous() {
+        mBinder.setEvaluationExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                fail("executePendingBindings must not use the executor");
+            }
+        });
+        mBinder.setName("now");
+        mBinder.executePendingBindings();
+        assertEquals("NOW", mBinder.nameText.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testRequiresEvaluateAsyncLayout() {
+        BasicBindingBinding binding =
+                BasicBindingBinding.inflate(getActivity().getLayoutInflater());
+        try {
+            binding.setEvaluationExecutor(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            });
+            fail("Layouts without evaluateAsync cannot evaluate on an executor");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.testapp.databinding.GoneContainerBinding;
+import android.test.UiThreadTest;
+import android.view.View;
+
+public class GoneContainerTest extends BaseDataBinderTest<GoneContainerBinding> {
+
+    public GoneContainerTest() {
+        super(GoneContainerBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        initBinder(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setContainerVisibility(View.GONE);
+                mBinder.setInside("inside");
+                mBinder.setOutside("outside");
+                mBinder.setShared("shared");
+                mBinder.executePendingBindings();
+            }
+        });
+    }
+
+    @UiThreadTest
+    public void testGoneContainerDefersBindings() {
+        assertEquals(View.GONE, mBinder.container.getVisibility());
+        assertEquals("inside", mBinder.insideText.getText().toString());
+
+        mBinder.setInside("changed");
+        mBinder.executePendingBindings();
+        assertEquals("inside", mBinder.insideText.getText().toString());
+        assertFalse(mBinder.hasPendingBindings());
+
+        mBinder.setOutside("outside changed");
+        mBinder.executePendingBindings();
+        assertEquals("outside changed", mBinder.outsideText.getText().toString());
+        assertEquals("inside", mBinder.insideText.getText().toString());
+
+        mBinder.setContainerVisibility(View.VISIBLE);
+        mBinder.executePendingBindings();
+        assertEquals(View.VISIBLE, mBinder.container.getVisibility());
+        assertEquals("changed", mBinder.insideText.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testSharedValuesAreNotDeferred() {
+        mBinder.setShared("shared changed");
+        mBinder.executePendingBindings();
+        assertEquals("shared changed", mBinder.sharedOutsideText.getText().toString());
+        assertEquals("shared changed", mBinder.sharedInsideText.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testVisibleContainerIsBound() {
+        mBinder.setContainerVisibility(View.INVISIBLE);
+        mBinder.executePendingBindings();
+        mBinder.setInside("changed");
+        mBinder.executePendingBindings();
+        assertEquals("changed", mBinder.insideText.getText().toString());
+    }
+
+    @UiThreadTest
+    public void testInvalidateAllBindsGoneContainer() {
+        mBinder.setInside("changed");
+        mBinder.executePendingBindings();
+        mBinder.invalidateAll();
+        mBinder.executePendingBindings();
+        assertEquals("changed", mBinder.insideText.getText().toString());
+    }
+}
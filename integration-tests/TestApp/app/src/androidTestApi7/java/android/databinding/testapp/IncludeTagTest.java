@@ -74,4 +74,20 @@ public class IncludeTagTest extends BaseDataBinderTest<LayoutWithIncludeBinding>
         assertEquals("a 2 third 5b", merge2.innerTextView1.getText().toString());
         assertEquals("b 2 third 5b", merge2.innerTextView2.getText().toString());
     }
+
+    @UiThreadTest
+    public void testIncludedRebindGoesThroughParent() {
+        initBinder();
+        mBinder.setOuterObject(new NotBindableVo(3, "a"));
+        mBinder.executePendingBindings();
+        assertFalse(mBinder.hasPendingBindings());
+
+        mBinder.includedLayout.setInnerValue("changed ");
+        assertTrue(mBinder.includedLayout.hasPendingBindings());
+        assertTrue(mBinder.hasPendingBindings());
+        mBinder.executePendingBindings();
+        assertFalse(mBinder.includedLayout.hasPendingBindings());
+        final TextView innerText = (TextView) mBinder.getRoot().findViewById(R.id.innerTextView);
+        assertEquals("changed a", innerText.getText().toString());
+    }
 }
@@ -13,6 +13,9 @@
 
 package android.databinding.testapp;
 
+import android.databinding.ObservableField;
+import android.databinding.ViewDataBinding;
+import android.databinding.testapp.databinding.CompactRegistrationBinding;
 import android.databinding.testapp.databinding.LeakTestBinding;
 import android.test.ActivityInstrumentationTestCase2;
 import android.util.Log;
@@ -20,6 +23,7 @@ import android.widget.FrameLayout;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashSet;
 
 public class LeakTest extends ActivityInstrumentationTestCase2<TestActivity> {
     WeakReference<LeakTestBinding> mWeakReference = new WeakReference<LeakTestBinding>(null);
@@ -72,6 +76,55 @@ public class LeakTest extends ActivityInstrumentationTestCase2<TestActivity> {
         assertNull(mWeakReference.get());
     }
 
+    public void testObserversRemovedAfterCollection() throws Throwable {
+        assertObserversRemovedAfterCollection(false);
+    }
+
+    public void testCompactObserversRemovedAfterCollection() throws Throwable {
+        assertObserversRemovedAfterCollection(true);
+    }
+
+    private void assertObserversRemovedAfterCollection(final boolean compact) throws Throwable {
+        final CountingField field = new CountingField();
+        final WeakReference<?>[] bindingRef = new WeakReference<?>[1];
+        final boolean wasCompact = ViewDataBinding.isCompactObserverRegistration();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                ViewDataBinding.setCompactObserverRegistration(compact);
+                try {
+                    CompactRegistrationBinding binding = CompactRegistrationBinding.inflate(
+                            getActivity().getLayoutInflater());
+                    binding.setFirst(field);
+                    binding.setSecond(field);
+                    binding.executePendingBindings();
+                    bindingRef[0] = new WeakReference<Object>(binding);
+                } finally {
+                    ViewDataBinding.setCompactObserverRegistration(wasCompact);
+                }
+            }
+        });
+        assertTrue(field.callbackCount() > 0);
+        WeakReference<Object> canary = new WeakReference<Object>(new Object());
+        ArrayList<WeakReference<byte[]>> leak = new ArrayList<>();
+        while (canary.get() != null || bindingRef[0].get() != null) {
+            leak.add(new WeakReference<byte[]>(new byte[100]));
+            System.gc();
+        }
+        // References are enqueued asynchronously after collection. Creating a binding
+        // processes the queue.
+        for (int i = 0; i < 100 && field.callbackCount() > 0; i++) {
+            runTestOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    LeakTestBinding.inflate(getActivity().getLayoutInflater());
+                }
+            });
+            Thread.sleep(10);
+        }
+        assertEquals(0, field.callbackCount());
+    }
+
     // Test to ensure that when the View is detached that it doesn't rebind
     // the dirty Views. The rebind should happen only after the root view is
     // reattached.
@@ -130,4 +183,25 @@ public class LeakTest extends ActivityInstrumentationTestCase2<TestActivity> {
             }
         }
     }
+
+    private static class CountingField extends ObservableField<String> {
+        private final HashSet<OnPropertyChangedCallback> mRegistered = new HashSet<>();
+
+        synchronized int callbackCount() {
+            return mRegistered.size();
+        }
+
+        @Override
+        public synchronized void addOnPropertyChangedCallback(OnPropertyChangedCallback callback) {
+            super.addOnPropertyChangedCallback(callback);
+            mRegistered.add(callback);
+        }
+
+        @Override
+        public synchronized void removeOnPropertyChangedCallback(
+                OnPropertyChangedCallback callback) {
+            super.removeOnPropertyChangedCallback(callback);
+            mRegistered.remove(callback);
+        }
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.ObservableInt;
+import android.databinding.testapp.databinding.MultiThreadFlagsBinding;
+import android.widget.TextView;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The dirty flags of multi_thread_flags.xml span more than one word.
+ */
+public class MultiThreadFlagsTest extends BaseDataBinderTest<MultiThreadFlagsBinding> {
+    private static final int FIELDS = 12;
+    private static final int THREADS = 4;
+    private static final int ITERATIONS = 2000;
+
+    public MultiThreadFlagsTest() {
+        super(MultiThreadFlagsBinding.class);
+    }
+
+    public void testObservablesChangedFromManyThreads() throws Throwable {
+        initBinder();
+        final ObservableInt[] fields = new ObservableInt[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = new ObservableInt();
+        }
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setV0(fields[0]);
+                mBinder.setV1(fields[1]);
+                mBinder.setV2(fields[2]);
+                mBinder.setV3(fields[3]);
+                mBinder.setV4(fields[4]);
+                mBinder.setV5(fields[5]);
+                mBinder.setV6(fields[6]);
+                mBinder.setV7(fields[7]);
+                mBinder.setV8(fields[8]);
+                mBinder.setV9(fields[9]);
+                mBinder.setV10(fields[10]);
+                mBinder.setV11(fields[11]);
+                mBinder.executePendingBindings();
+            }
+        });
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            new Thread() {
+                @Override
+                public void run() {
+                    // each thread owns every THREADS-th field, so the threads race on the
+                    // same flag words but never on the same field
+                    for (int j = 1; j <= ITERATIONS; j++) {
+                        for (int k = thread; k < FIELDS; k += THREADS) {
+                            fields[k].set(j);
+                        }
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        final Runnable execute = new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+            }
+        };
+        while (done.getCount() > 0) {
+            runTestOnUiThread(execute);
+        }
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+                final TextView[] views = new TextView[] {
+                        mBinder.text0, mBinder.text1, mBinder.text2, mBinder.text3,
+                        mBinder.text4, mBinder.text5, mBinder.text6, mBinder.text7,
+                        mBinder.text8, mBinder.text9, mBinder.text10, mBinder.text11
+                };
+                for (int i = 0; i < FIELDS; i++) {
+                    assertEquals("field " + i, "big " + ITERATIONS, views[i].getText().toString());
+                }
+            }
+        });
+    }
+}
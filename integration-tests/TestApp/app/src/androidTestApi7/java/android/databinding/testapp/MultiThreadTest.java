@@ -6,6 +6,9 @@ import android.test.UiThreadTest;
 import java.util.concurrent.CountDownLatch;
 
 public class MultiThreadTest extends BaseDataBinderTest<MultiThreadLayoutBinding> {
+    private static final int THREADS = 4;
+    private static final int ITERATIONS = 2000;
+
     public MultiThreadTest() {
         super(MultiThreadLayoutBinding.class);
     }
@@ -31,4 +34,38 @@ public class MultiThreadTest extends BaseDataBinderTest<MultiThreadLayoutBinding
             }
         });
     }
+
+    public void testSetFromManyThreadsWhileExecuting() throws Throwable {
+        initBinder();
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final String prefix = "t" + i + "-";
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        mBinder.setText(prefix + j);
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        final Runnable execute = new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+            }
+        };
+        while (done.getCount() > 0) {
+            runTestOnUiThread(execute);
+        }
+        // A flag lost to a concurrent update would leave the last value unbound
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.executePendingBindings();
+                assertEquals(mBinder.getText(), mBinder.myTextView.getText().toString());
+            }
+        });
+    }
 }
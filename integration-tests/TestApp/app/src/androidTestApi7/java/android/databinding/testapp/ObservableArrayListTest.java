@@ -15,16 +15,34 @@
  */
 package android.databinding.testapp;
 
+import android.databinding.Equivalence;
 import android.databinding.ObservableArrayList;
 import android.databinding.testapp.databinding.BasicBindingBinding;
 
 import android.databinding.ObservableList;
 import android.databinding.ObservableList.OnListChangedCallback;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class ObservableArrayListTest extends BaseDataBinderTest<BasicBindingBinding> {
 
+    private static final String TAG = "ObservableArrayListTest";
+
+    /** The size of the lists in the benchmarks. */
+    private static final int LARGE_SIZE = 100000;
+
     private static final int ALL = 0;
 
     private static final int CHANGE = 1;
@@ -272,4 +290,385 @@ public class ObservableArrayListTest extends BaseDataBinderTest<BasicBindingBind
         assertEquals(0, change.start);
         assertEquals(1, change.count);
     }
+
+    public void testBatchEdit() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.add("Hello");
+        list.add("World");
+        list.addOnListChangedCallback(mListener);
+        list.beginBatchEdit();
+        for (int i = 0; i < 100; i++) {
+            list.add("Item" + i);
+        }
+        list.set(1, "Goodbye");
+        list.set(0, "Hi");
+        list.beginBatchEdit();
+        list.remove(50);
+        list.endBatchEdit();
+        assertTrue(mNotifications.isEmpty());
+        list.endBatchEdit();
+        assertEquals(101, list.size());
+        assertEquals(2, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(INSERT, change.change);
+        assertEquals(2, change.start);
+        assertEquals(99, change.count);
+        change = mNotifications.get(1);
+        assertEquals(CHANGE, change.change);
+        assertEquals(0, change.start);
+        assertEquals(2, change.count);
+    }
+
+    public void testBatchEditRemoveAfterChanges() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        for (int i = 0; i < 10; i++) {
+            list.add("Item" + i);
+        }
+        list.addOnListChangedCallback(mListener);
+        list.beginBatchEdit();
+        list.add(5, "a");
+        list.add(6, "b");
+        list.add(7, "c");
+        list.set(0, "x");
+        list.set(9, "y");
+        list.remove(6);
+        list.endBatchEdit();
+        assertEquals(12, list.size());
+        assertEquals("c", list.get(6));
+        assertEquals("y", list.get(8));
+        assertEquals(3, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(INSERT, change.change);
+        assertEquals(5, change.start);
+        assertEquals(2, change.count);
+        change = mNotifications.get(1);
+        assertEquals(CHANGE, change.change);
+        assertEquals(0, change.start);
+        assertEquals(1, change.count);
+        change = mNotifications.get(2);
+        assertEquals(CHANGE, change.change);
+        assertEquals(8, change.start);
+        assertEquals(1, change.count);
+    }
+
+    public void testBatchEditRemove() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        for (int i = 0; i < 10; i++) {
+            list.add("Item" + i);
+        }
+        list.addOnListChangedCallback(mListener);
+        list.beginBatchEdit();
+        list.set(4, "Changed");
+        list.remove(4);
+        list.remove(4);
+        list.remove(3);
+        list.endBatchEdit();
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(REMOVE, change.change);
+        assertEquals(3, change.start);
+        assertEquals(3, change.count);
+
+        try {
+            list.endBatchEdit();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testSetAll() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+        list.addOnListChangedCallback(mListener);
+        list.setAll(Arrays.asList("a", "c", "x", "y", "d", "e"), Equivalence.<String>equality());
+        assertEquals(Arrays.asList("a", "c", "x", "y", "d", "e"), list);
+        assertEquals(2, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(REMOVE, change.change);
+        assertEquals(1, change.start);
+        assertEquals(1, change.count);
+        change = mNotifications.get(1);
+        assertEquals(INSERT, change.change);
+        assertEquals(2, change.start);
+        assertEquals(2, change.count);
+
+        mNotifications.clear();
+        list.setAll(Arrays.asList("a", "c", "x", "y", "d", "e"), Equivalence.<String>equality());
+        assertTrue(mNotifications.isEmpty());
+    }
+
+    public void testSetAllMoves() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+        list.addOnListChangedCallback(mListener);
+        list.setAll(Arrays.asList("b", "c", "d", "a"), Equivalence.<String>equality(), true);
+        assertEquals(Arrays.asList("b", "c", "d", "a"), list);
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(MOVE, change.change);
+        assertEquals(0, change.from);
+        assertEquals(3, change.to);
+        assertEquals(1, change.count);
+    }
+
+    public void testSetAllChanged() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("a1", "b1", "c1"));
+        list.addOnListChangedCallback(mListener);
+        // Items are the same if their first letter is.
+        Equivalence<String> sameLetter = new Equivalence<String>() {
+            @Override
+            public boolean equivalent(String a, String b) {
+                return a.charAt(0) == b.charAt(0);
+            }
+
+            @Override
+            public int hash(String value) {
+                return value.charAt(0);
+            }
+        };
+        list.setAll(Arrays.asList("a1", "b2", "c2"), sameLetter);
+        assertEquals(Arrays.asList("a1", "b2", "c2"), list);
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(CHANGE, change.change);
+        assertEquals(1, change.start);
+        assertEquals(2, change.count);
+    }
+
+    public void testSetAllAsync() throws Throwable {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch latch = new CountDownLatch(1);
+        list.addAll(Arrays.asList("a", "b", "c"));
+        list.addOnListChangedCallback(new OnListChangedCallback() {
+            @Override
+            public void onChanged(ObservableList sender) {
+            }
+
+            @Override
+            public void onItemRangeChanged(ObservableList sender, int start, int count) {
+            }
+
+            @Override
+            public void onItemRangeInserted(ObservableList sender, int start, int count) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+            }
+
+            @Override
+            public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+            }
+        });
+        list.addOnListChangedCallback(mListener);
+        try {
+            runTestOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    list.setAllAsync(Arrays.asList("a", "b", "c", "d"),
+                            Equivalence.<String>equality(), false, executor);
+                    assertEquals(3, list.size());
+                }
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(Arrays.asList("a", "b", "c", "d"), list);
+        assertEquals(1, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(INSERT, change.change);
+        assertEquals(3, change.start);
+        assertEquals(1, change.count);
+    }
+
+    public void testSetAllAsyncComparisonThrows() throws Throwable {
+        final ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Throwable[] uncaught = new Throwable[1];
+        final Thread[] worker = new Thread[1];
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                worker[0] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            command.run();
+                        } catch (Throwable t) {
+                            uncaught[0] = t;
+                        }
+                    }
+                };
+                worker[0].start();
+            }
+        };
+        // fails on the Executor, but works when compared again on the main thread
+        final Equivalence<String> mainThreadOnly = new Equivalence<String>() {
+            @Override
+            public boolean equivalent(String a, String b) {
+                if (Looper.myLooper() != Looper.getMainLooper()) {
+                    throw new IllegalStateException("not on the main thread");
+                }
+                return a.equals(b);
+            }
+
+            @Override
+            public int hash(String value) {
+                return value.hashCode();
+            }
+        };
+        list.addAll(Arrays.asList("a", "b", "c"));
+        list.addOnListChangedCallback(new OnListChangedCallback() {
+            @Override
+            public void onChanged(ObservableList sender) {
+            }
+
+            @Override
+            public void onItemRangeChanged(ObservableList sender, int start, int count) {
+            }
+
+            @Override
+            public void onItemRangeInserted(ObservableList sender, int start, int count) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+            }
+
+            @Override
+            public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+            }
+        });
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                list.setAllAsync(Arrays.asList("a", "b", "c", "d"), mainThreadOnly, false,
+                        executor);
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        worker[0].join(2000);
+        assertNull(uncaught[0]);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), list);
+    }
+
+    public void testRemoveAll() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        list.addOnListChangedCallback(mListener);
+        assertTrue(list.removeAll(Arrays.asList("b", "c", "e")));
+        assertEquals(Arrays.asList("a", "d", "f"), list);
+        assertEquals(2, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(REMOVE, change.change);
+        assertEquals(4, change.start);
+        assertEquals(1, change.count);
+        change = mNotifications.get(1);
+        assertEquals(REMOVE, change.change);
+        assertEquals(1, change.start);
+        assertEquals(2, change.count);
+
+        mNotifications.clear();
+        assertFalse(list.removeAll(Arrays.asList("x")));
+        assertTrue(mNotifications.isEmpty());
+    }
+
+    public void testRetainAll() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+        list.addOnListChangedCallback(mListener);
+        assertTrue(list.retainAll(Arrays.asList("b", "c")));
+        assertEquals(Arrays.asList("b", "c"), list);
+        assertEquals(2, mNotifications.size());
+        ListChange change = mNotifications.get(0);
+        assertEquals(REMOVE, change.change);
+        assertEquals(3, change.start);
+        assertEquals(1, change.count);
+        change = mNotifications.get(1);
+        assertEquals(REMOVE, change.change);
+        assertEquals(0, change.start);
+        assertEquals(1, change.count);
+    }
+
+    public void testSort() {
+        ObservableArrayList<String> list = (ObservableArrayList<String>) mObservable;
+        list.addAll(Arrays.asList("c", "a", "b"));
+        list.addOnListChangedCallback(mListener);
+        list.sort(null);
+        assertEquals(Arrays.asList("a", "b", "c"), list);
+        assertEquals(1, mNotifications.size());
+        assertEquals(ALL, mNotifications.get(0).change);
+
+        mNotifications.clear();
+        list.sort(Collections.<String>reverseOrder());
+        assertEquals(Arrays.asList("c", "b", "a"), list);
+        assertEquals(1, mNotifications.size());
+
+        mNotifications.clear();
+        list.sort(Collections.<String>reverseOrder());
+        assertTrue(mNotifications.isEmpty());
+    }
+
+    public void testRemoveAllBenchmark() {
+        ObservableArrayList<String> list = createLargeList();
+        ArrayList<String> odd = new ArrayList<>();
+        for (int i = 1; i < LARGE_SIZE; i += 2) {
+            odd.add(list.get(i));
+        }
+        // HashSet so that the benchmark measures the list, not contains()
+        HashSet<String> removed = new HashSet<>(odd);
+        list.addOnListChangedCallback(mListener);
+        long start = SystemClock.elapsedRealtime();
+        assertTrue(list.removeAll(removed));
+        logDuration("removeAll", start);
+        assertEquals(LARGE_SIZE / 2, list.size());
+        assertEquals(LARGE_SIZE / 2, mNotifications.size());
+        for (ListChange change : mNotifications) {
+            assertEquals(REMOVE, change.change);
+        }
+    }
+
+    public void testRetainAllBenchmark() {
+        ObservableArrayList<String> list = createLargeList();
+        HashSet<String> retained = new HashSet<>(list.subList(LARGE_SIZE / 4, LARGE_SIZE / 2));
+        list.addOnListChangedCallback(mListener);
+        long start = SystemClock.elapsedRealtime();
+        assertTrue(list.retainAll(retained));
+        logDuration("retainAll", start);
+        assertEquals(LARGE_SIZE / 4, list.size());
+        assertEquals(2, mNotifications.size());
+    }
+
+    public void testSortBenchmark() {
+        ObservableArrayList<String> list = createLargeList();
+        Collections.shuffle(list, new Random(0));
+        list.addOnListChangedCallback(mListener);
+        long start = SystemClock.elapsedRealtime();
+        list.sort(null);
+        logDuration("sort", start);
+        assertEquals(1, mNotifications.size());
+        assertEquals(ALL, mNotifications.get(0).change);
+        for (int i = 1; i < LARGE_SIZE; i++) {
+            assertTrue(list.get(i - 1).compareTo(list.get(i)) < 0);
+        }
+    }
+
+    private static ObservableArrayList<String> createLargeList() {
+        ObservableArrayList<String> list = new ObservableArrayList<>();
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            list.add(String.format("%06d", i));
+        }
+        return list;
+    }
+
+    private static void logDuration(String operation, long start) {
+        Log.d(TAG, operation + " of " + LARGE_SIZE + " elements took "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
 }
@@ -20,14 +20,24 @@ import android.databinding.testapp.databinding.BasicBindingBinding;
 
 import android.databinding.ObservableMap;
 import android.databinding.ObservableMap.OnMapChangedCallback;
+import android.os.SystemClock;
 import android.support.v4.util.ArrayMap;
 import android.support.v4.util.SimpleArrayMap;
+import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 public class ObservableArrayMapTest extends BaseDataBinderTest<BasicBindingBinding> {
 
+    private static final String TAG = "ObservableArrayMapTest";
+
+    /** The number of keys in the benchmarks. */
+    private static final int LARGE_SIZE = 10000;
+
     private ObservableArrayMap<String, String> mObservable;
 
     private ArrayList<String> mNotifications = new ArrayList<>();
@@ -210,4 +220,108 @@ public class ObservableArrayMapTest extends BaseDataBinderTest<BasicBindingBindi
         assertEquals(1, mNotifications.size());
         assertEquals("Hello", mNotifications.get(0));
     }
+
+    public void testPutAllSimpleArrayMapIntoEmpty() {
+        SimpleArrayMap<String, String> toAdd = new ArrayMap<>();
+        toAdd.put("Hello", "World");
+        toAdd.put("Goodbye", "Cruel World");
+        mObservable.addOnMapChangedCallback(mListener);
+        mObservable.putAll(toAdd);
+        assertEquals(2, mObservable.size());
+        assertEquals(2, mNotifications.size());
+        assertTrue(mNotifications.contains("Hello"));
+        assertTrue(mNotifications.contains("Goodbye"));
+    }
+
+    public void testRemoveNullValue() {
+        mObservable.put("Hello", null);
+        mObservable.addOnMapChangedCallback(mListener);
+        assertNull(mObservable.removeAt(0));
+        assertEquals(Arrays.asList("Hello"), mNotifications);
+    }
+
+    public void testBatchUpdate() {
+        mObservable.addOnMapChangedCallback(mListener);
+        mObservable.beginBatchUpdate();
+        mObservable.put("Hello", "World");
+        mObservable.put("Goodbye", "World");
+        mObservable.beginBatchUpdate();
+        mObservable.put("Hello", "Cruel World");
+        mObservable.endBatchUpdate();
+        mObservable.remove("Goodbye");
+        assertTrue(mNotifications.isEmpty());
+        mObservable.endBatchUpdate();
+        assertEquals(Arrays.asList("Hello", "Goodbye"), mNotifications);
+
+        try {
+            mObservable.endBatchUpdate();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testBatchUpdateThreshold() {
+        mObservable.addOnMapChangedCallback(mListener);
+        mObservable.setBatchNotifyAllThreshold(2);
+        mObservable.beginBatchUpdate();
+        mObservable.put("a", "1");
+        mObservable.put("b", "2");
+        mObservable.put("a", "3");
+        mObservable.endBatchUpdate();
+        assertEquals(Arrays.asList("a", "b"), mNotifications);
+
+        mNotifications.clear();
+        mObservable.beginBatchUpdate();
+        mObservable.put("a", "1");
+        mObservable.put("b", "2");
+        mObservable.put("c", "3");
+        mObservable.endBatchUpdate();
+        assertEquals(1, mNotifications.size());
+        assertNull(mNotifications.get(0));
+    }
+
+    public void testPutAllBenchmark() {
+        HashMap<String, String> toAdd = new HashMap<>();
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            toAdd.put(createKey(i), "World");
+        }
+        mObservable.addOnMapChangedCallback(mListener);
+        long start = SystemClock.elapsedRealtime();
+        mObservable.putAll(toAdd);
+        logDuration("putAll", start);
+        assertEquals(LARGE_SIZE, mObservable.size());
+        // more keys than the threshold, so everything changed
+        assertEquals(1, mNotifications.size());
+        assertNull(mNotifications.get(0));
+    }
+
+    public void testBatchUpdateBenchmark() {
+        mObservable.addOnMapChangedCallback(mListener);
+        mObservable.setBatchNotifyAllThreshold(LARGE_SIZE);
+        long start = SystemClock.elapsedRealtime();
+        mObservable.beginBatchUpdate();
+        mObservable.ensureCapacity(LARGE_SIZE);
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            mObservable.put(createKey(i), "Hello");
+        }
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            mObservable.put(createKey(i), "World");
+        }
+        mObservable.endBatchUpdate();
+        logDuration("batch update", start);
+        assertEquals(LARGE_SIZE, mObservable.size());
+        // each key is notified once although it was put twice
+        assertEquals(LARGE_SIZE, mNotifications.size());
+        assertEquals(LARGE_SIZE, new HashSet<>(mNotifications).size());
+    }
+
+    private static String createKey(int i) {
+        return String.format("%05d", i);
+    }
+
+    private static void logDuration(String operation, long start) {
+        Log.d(TAG, operation + " of " + LARGE_SIZE + " keys took "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
 }
@@ -13,12 +13,23 @@
 
 package android.databinding.testapp;
 
+import android.databinding.Equivalence;
+import android.databinding.Observable;
+import android.databinding.ObservableDouble;
+import android.databinding.ObservableField;
+import android.databinding.ObservableFloat;
 import android.databinding.testapp.databinding.ObservableFieldTestBinding;
 import android.databinding.testapp.vo.ObservableFieldBindingObject;
 
 import android.test.UiThreadTest;
 import android.widget.TextView;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
 public class ObservableFieldTest extends BaseDataBinderTest<ObservableFieldTestBinding> {
     private ObservableFieldBindingObject mObj;
 
@@ -152,4 +163,98 @@ public class ObservableFieldTest extends BaseDataBinderTest<ObservableFieldTestB
         assertEquals(x.getText().toString(), String.valueOf(mObj.pField.get().getX()));
         assertEquals(y.getText().toString(), mObj.pField.get().getY());
     }
+
+    public void testEqualValueDoesNotNotify() {
+        ObservableField<String> field = new ObservableField<>("Hello");
+        int[] notifications = countNotifications(field);
+        field.set(new String("Hello"));
+        assertEquals(0, notifications[0]);
+        field.set("World");
+        assertEquals(1, notifications[0]);
+        field.set(null);
+        assertEquals(2, notifications[0]);
+        field.set(null);
+        assertEquals(2, notifications[0]);
+    }
+
+    public void testMutableValueComparedByReference() {
+        ObservableField<ArrayList<String>> field = new ObservableField<>(new ArrayList<String>());
+        int[] notifications = countNotifications(field);
+        field.set(field.get());
+        assertEquals(0, notifications[0]);
+        field.set(new ArrayList<String>());
+        assertEquals(1, notifications[0]);
+    }
+
+    public void testCustomEquivalence() {
+        ObservableField<String> field = new ObservableField<>("Hello",
+                new Equivalence<String>() {
+                    @Override
+                    public boolean equivalent(String a, String b) {
+                        return a == null ? b == null : a.equalsIgnoreCase(b);
+                    }
+
+                    @Override
+                    public int hash(String value) {
+                        return value == null ? 0 : value.toLowerCase().hashCode();
+                    }
+                });
+        int[] notifications = countNotifications(field);
+        field.set("HELLO");
+        assertEquals(0, notifications[0]);
+        assertEquals("Hello", field.get());
+        field.set("World");
+        assertEquals(1, notifications[0]);
+
+        field = new ObservableField<>("Hello", Equivalence.<String>identity());
+        notifications = countNotifications(field);
+        field.set(new String("Hello"));
+        assertEquals(1, notifications[0]);
+    }
+
+    public void testNaN() {
+        ObservableFloat f = new ObservableFloat(Float.NaN);
+        int[] notifications = countNotifications(f);
+        f.set(Float.NaN);
+        assertEquals(0, notifications[0]);
+        f.set(-0f);
+        assertEquals(1, notifications[0]);
+        f.set(0f);
+        assertEquals(2, notifications[0]);
+
+        ObservableDouble d = new ObservableDouble(Double.NaN);
+        notifications = countNotifications(d);
+        d.set(Double.NaN);
+        assertEquals(0, notifications[0]);
+        d.set(1);
+        assertEquals(1, notifications[0]);
+    }
+
+    public void testSerializeKeepsDefaultEquivalence() throws Exception {
+        ObservableField<String> field =
+                new ObservableField<>("Hello", Equivalence.<String>identity());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(field);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()));
+        @SuppressWarnings("unchecked")
+        ObservableField<String> copy = (ObservableField<String>) in.readObject();
+        assertEquals("Hello", copy.get());
+        int[] notifications = countNotifications(copy);
+        copy.set(new String("Hello"));
+        assertEquals(0, notifications[0]);
+    }
+
+    private static int[] countNotifications(Observable observable) {
+        final int[] notifications = new int[1];
+        observable.addOnPropertyChangedCallback(new Observable.OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable sender, int propertyId) {
+                notifications[0]++;
+            }
+        });
+        return notifications;
+    }
 }
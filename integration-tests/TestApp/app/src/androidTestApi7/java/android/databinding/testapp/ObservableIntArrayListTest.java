@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.ObservableIntArrayList;
+import android.databinding.ObservableList;
+import android.databinding.ObservableList.OnListChangedCallback;
+import android.databinding.testapp.databinding.BasicBindingBinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ObservableIntArrayListTest extends BaseDataBinderTest<BasicBindingBinding> {
+    private ObservableIntArrayList mList;
+
+    private ArrayList<String> mNotifications = new ArrayList<>();
+
+    private OnListChangedCallback mListener = new OnListChangedCallback() {
+        @Override
+        public void onChanged(ObservableList sender) {
+            mNotifications.add("changed");
+        }
+
+        @Override
+        public void onItemRangeChanged(ObservableList sender, int start, int count) {
+            mNotifications.add("changed " + start + " " + count);
+        }
+
+        @Override
+        public void onItemRangeInserted(ObservableList sender, int start, int count) {
+            mNotifications.add("inserted " + start + " " + count);
+        }
+
+        @Override
+        public void onItemRangeMoved(ObservableList sender, int from, int to, int count) {
+            mNotifications.add("moved " + from + " " + to + " " + count);
+        }
+
+        @Override
+        public void onItemRangeRemoved(ObservableList sender, int start, int count) {
+            mNotifications.add("removed " + start + " " + count);
+        }
+    };
+
+    public ObservableIntArrayListTest() {
+        super(BasicBindingBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        mNotifications.clear();
+        mList = new ObservableIntArrayList();
+        mList.addOnListChangedCallback(mListener);
+    }
+
+    public void testAddAndRemove() {
+        mList.addInt(1);
+        mList.addInt(0, 2);
+        mList.add(3);
+        assertEquals(Arrays.asList(2, 1, 3), mList);
+        assertEquals(1, mList.removeInt(1));
+        mList.clear();
+        assertEquals(0, mList.size());
+        assertEquals(Arrays.asList("inserted 0 1", "inserted 0 1", "inserted 2 1",
+                "removed 1 1", "removed 0 2"), mNotifications);
+    }
+
+    public void testSetInt() {
+        mList.addAll(new int[] {1, 2, 3});
+        mNotifications.clear();
+        assertEquals(2, mList.setInt(1, 5));
+        assertEquals(5, mList.getInt(1));
+        // setting the same value doesn't notify
+        mList.setInt(1, 5);
+        assertEquals(Arrays.asList("changed 1 1"), mNotifications);
+    }
+
+    public void testSetAll() {
+        mList.addAll(new int[] {1, 2, 3, 4, 5});
+        mNotifications.clear();
+        mList.setAll(new int[] {1, 9, 3, 8});
+        assertEquals(Arrays.asList(1, 9, 3, 8), mList);
+        assertEquals(Arrays.asList("changed 1 3", "removed 4 1"), mNotifications);
+    }
+
+    public void testOutOfBounds() {
+        try {
+            mList.getInt(0);
+            fail("IndexOutOfBoundsException expected");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.DataBindingUtil;
+import android.databinding.ObservableArrayList;
+import android.databinding.testapp.databinding.ListBindingAdapterBinding;
+import android.databinding.testapp.databinding.ListBindingRowBinding;
+import android.view.View.MeasureSpec;
+import android.widget.ListAdapter;
+import android.widget.ListView;
+import android.widget.TextView;
+
+public class ObservableListBindingAdapterTest
+        extends BaseDataBinderTest<ListBindingAdapterBinding> {
+    private final ObservableArrayList<String> mList = new ObservableArrayList<>();
+
+    public ObservableListBindingAdapterTest() {
+        super(ListBindingAdapterBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mList.add("a");
+        mList.add("b");
+        mList.add("c");
+        initBinder(new Runnable() {
+            @Override
+            public void run() {
+                mBinder.setList(mList);
+                mBinder.executePendingBindings();
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+    }
+
+    public void testIdsFollowItems() throws Throwable {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                ListAdapter adapter = mBinder.listView.getAdapter();
+                assertTrue(adapter.hasStableIds());
+                final long idOfB = adapter.getItemId(1);
+                final long idOfC = adapter.getItemId(2);
+                mList.add(0, "z");
+                assertEquals(idOfB, adapter.getItemId(2));
+                mList.remove(1);
+                assertEquals(idOfB, adapter.getItemId(1));
+                assertEquals(idOfC, adapter.getItemId(2));
+                assertFalse(idOfB == adapter.getItemId(0));
+            }
+        });
+    }
+
+    public void testChangeRebindsRowInPlace() throws Throwable {
+        final TextView[] row = new TextView[1];
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                row[0] = (TextView) mBinder.listView.getChildAt(1);
+                assertEquals("b", row[0].getText().toString());
+                mList.set(1, "x");
+                mList.set(1, "y");
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertSame(row[0], mBinder.listView.getChildAt(1));
+                assertEquals("y", row[0].getText().toString());
+                ListBindingRowBinding binding = DataBindingUtil.getBinding(row[0]);
+                assertEquals("y", binding.getItem());
+            }
+        });
+    }
+
+    public void testInsertShowsNewRow() throws Throwable {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mList.add(0, "z");
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(4, mBinder.listView.getCount());
+                TextView first = (TextView) mBinder.listView.getChildAt(0);
+                assertEquals("z", first.getText().toString());
+            }
+        });
+    }
+
+    public void testLayoutBeforeNextFrame() throws Throwable {
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                ListView listView = mBinder.listView;
+                mList.add(0, "z");
+                mList.remove(3);
+                mList.add("y");
+                // something else lays the ListView out before the next frame
+                listView.requestLayout();
+                listView.measure(
+                        MeasureSpec.makeMeasureSpec(listView.getWidth(), MeasureSpec.EXACTLY),
+                        MeasureSpec.makeMeasureSpec(listView.getHeight(), MeasureSpec.EXACTLY));
+                listView.layout(listView.getLeft(), listView.getTop(), listView.getRight(),
+                        listView.getBottom());
+                assertEquals(4, listView.getCount());
+                TextView first = (TextView) listView.getChildAt(0);
+                assertEquals("z", first.getText().toString());
+            }
+        });
+    }
+}
@@ -15,12 +15,18 @@
  */
 package android.databinding.testapp;
 
+import android.databinding.BaseObservable;
 import android.databinding.PropertyChangeRegistry;
 import android.databinding.testapp.databinding.BasicBindingBinding;
 
 import android.databinding.Observable;
 import android.databinding.Observable.OnPropertyChangedCallback;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 public class PropertyChangeRegistryTest extends BaseDataBinderTest<BasicBindingBinding> {
 
     private int notificationCount = 0;
@@ -59,4 +65,108 @@ public class PropertyChangeRegistryTest extends BaseDataBinderTest<BasicBindingB
         propertyChangeRegistry.notifyChange(observableObj, expectedId);
         assertEquals(1, notificationCount);
     }
+
+    public void testSubscribedProperties() {
+        PropertyChangeRegistry registry = new PropertyChangeRegistry();
+        Observable observable = new BaseObservable();
+        RecordingCallback all = new RecordingCallback();
+        RecordingCallback subscribed = new RecordingCallback();
+        registry.add(all);
+        registry.add(subscribed, 1, 2);
+        assertTrue(registry.contains(subscribed));
+
+        registry.notifyChange(observable, 1);
+        registry.notifyChange(observable, 3);
+        registry.notifyChange(observable, 0);
+        assertEquals(Arrays.asList(1, 3, 0), all.ids);
+        assertEquals(Arrays.asList(1, 0), subscribed.ids);
+
+        // subscriptions are a union
+        registry.add(subscribed, 3);
+        registry.notifyChange(observable, 3);
+        registry.notifyChange(observable, 2);
+        assertEquals(Arrays.asList(1, 0, 3, 2), subscribed.ids);
+
+        // subscribing a callback that gets everything has no effect
+        registry.add(all, 5);
+        registry.notifyChange(observable, 4);
+        assertEquals(Arrays.asList(1, 3, 0, 3, 2, 4), all.ids);
+
+        registry.remove(subscribed);
+        assertFalse(registry.contains(subscribed));
+        registry.notifyChange(observable, 1);
+        registry.notifyChange(observable, 0);
+        assertEquals(Arrays.asList(1, 0, 3, 2), subscribed.ids);
+        assertEquals(1, registry.copyCallbacks().size());
+    }
+
+    public void testSubscribeThenAddAll() {
+        PropertyChangeRegistry registry = new PropertyChangeRegistry();
+        Observable observable = new BaseObservable();
+        RecordingCallback callback = new RecordingCallback();
+        registry.add(callback, 1);
+        registry.add(callback);
+        registry.notifyChange(observable, 1);
+        registry.notifyChange(observable, 2);
+        registry.notifyChange(observable, 0);
+        assertEquals(Arrays.asList(1, 2, 0), callback.ids);
+        assertEquals(1, registry.copyCallbacks().size());
+        registry.clear();
+        assertTrue(registry.isEmpty());
+    }
+
+    public void testSubscribeFromCallbackWhileSubscribingOnAnotherThread() throws Exception {
+        final PropertyChangeRegistry registry = new PropertyChangeRegistry();
+        final Observable observable = new BaseObservable();
+        final CountDownLatch inCallback = new CountDownLatch(1);
+        final CountDownLatch subscribing = new CountDownLatch(1);
+        registry.add(new OnPropertyChangedCallback() {
+            @Override
+            public void onPropertyChanged(Observable sender, int propertyId) {
+                inCallback.countDown();
+                try {
+                    assertTrue(subscribing.await(2, TimeUnit.SECONDS));
+                    // let the other thread take the registry's lock first
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                registry.add(new RecordingCallback(), 1);
+            }
+        }, 1);
+        Thread notifier = new Thread() {
+            @Override
+            public void run() {
+                registry.notifyChange(observable, 1);
+            }
+        };
+        Thread subscriber = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    inCallback.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                subscribing.countDown();
+                registry.add(new RecordingCallback(), 1);
+            }
+        };
+        notifier.start();
+        subscriber.start();
+        notifier.join(2000);
+        subscriber.join(2000);
+        assertFalse(notifier.isAlive());
+        assertFalse(subscriber.isAlive());
+        assertEquals(3, registry.copyCallbacks().size());
+    }
+
+    private static class RecordingCallback extends OnPropertyChangedCallback {
+        final ArrayList<Integer> ids = new ArrayList<>();
+
+        @Override
+        public void onPropertyChanged(Observable sender, int propertyId) {
+            ids.add(propertyId);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.databinding.testapp;
+
+import android.databinding.testapp.databinding.PureConversionBinding;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.test.UiThreadTest;
+
+public class PureConversionTest extends BaseDataBinderTest<PureConversionBinding> {
+    public PureConversionTest() {
+        super(PureConversionBinding.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        initBinder();
+    }
+
+    @UiThreadTest
+    public void testResultIsReusedForSameValue() {
+        mBinder.setColor(Color.RED);
+        mBinder.executePendingBindings();
+        Drawable background = mBinder.colored.getBackground();
+        assertTrue(background instanceof ColorDrawable);
+
+        mBinder.invalidateAll();
+        mBinder.executePendingBindings();
+        assertSame(background, mBinder.colored.getBackground());
+
+        mBinder.setColor(Color.RED);
+        mBinder.setText("hello");
+        mBinder.executePendingBindings();
+        assertSame(background, mBinder.colored.getBackground());
+    }
+
+    @UiThreadTest
+    public void testResultIsRecomputedForNewValue() {
+        mBinder.setColor(Color.RED);
+        mBinder.executePendingBindings();
+        Drawable red = mBinder.colored.getBackground();
+
+        mBinder.setColor(Color.BLUE);
+        mBinder.executePendingBindings();
+        Drawable blue = mBinder.colored.getBackground();
+        assertNotSame(red, blue);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            assertEquals(Color.BLUE, ((ColorDrawable) blue).getColor());
+        }
+    }
+}
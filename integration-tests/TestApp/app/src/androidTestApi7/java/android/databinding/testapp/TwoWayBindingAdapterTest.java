@@ -324,6 +324,50 @@ public class TwoWayBindingAdapterTest extends BaseDataBinderTest<TwoWayBinding>
         });
     }
 
+    public void testSeekBarProgressCoalesced() throws Throwable {
+        makeVisible(mBinder.seekBar, mBinder.coalescedSeekBar);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, mBindingObject.progress.get());
+                // android:progress is not coalesced
+                mBinder.seekBar.setProgress(5);
+                assertEquals(5, mBindingObject.progress.get());
+
+                mBinder.coalescedSeekBar.setProgress(10);
+                mBinder.coalescedSeekBar.setProgress(20);
+                mBinder.coalescedSeekBar.setProgress(30);
+                // delivered on the next frame
+                assertEquals(5, mBindingObject.progress.get());
+
+                // or when the binding executes
+                mBinder.executePendingBindings();
+                assertEquals(30, mBindingObject.progress.get());
+                assertEquals(30, mBinder.coalescedSeekBar.getProgress());
+                assertEquals(30, mBinder.seekBar.getProgress());
+            }
+        });
+    }
+
+    public void testTextCoalesced() throws Throwable {
+        makeVisible(mBinder.coalescedEditText);
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mBindingObject.text.set("a");
+                mBinder.executePendingBindings();
+                mBinder.coalescedEditText.setText("ab");
+                mBinder.coalescedEditText.setText("abc");
+                // delivered on the next frame
+                assertEquals("a", mBindingObject.text.get());
+
+                // or when the binding executes
+                mBinder.executePendingBindings();
+                assertEquals("abc", mBindingObject.text.get());
+            }
+        });
+    }
+
     public void testTabHostCurrentTab() throws Throwable {
         makeVisible(mBinder.tabhost);
         runTestOnUiThread(new Runnable() {
@@ -780,6 +824,7 @@ public class TwoWayBindingAdapterTest extends BaseDataBinderTest<TwoWayBinding>
                 mBinder.numberPicker.setVisibility(View.GONE);
                 mBinder.ratingBar.setVisibility(View.GONE);
                 mBinder.seekBar.setVisibility(View.GONE);
+                mBinder.coalescedSeekBar.setVisibility(View.GONE);
                 mBinder.tabhost.setVisibility(View.GONE);
                 mBinder.textView.setVisibility(View.GONE);
                 mBinder.timePicker.setVisibility(View.GONE);
@@ -791,6 +836,7 @@ public class TwoWayBindingAdapterTest extends BaseDataBinderTest<TwoWayBinding>
                 mBinder.checkBox2.setVisibility(View.GONE);
                 mBinder.checkBox3.setVisibility(View.GONE);
                 mBinder.checkBox4.setVisibility(View.GONE);
+                mBinder.coalescedEditText.setVisibility(View.GONE);
                 mBinder.editText1.setVisibility(View.GONE);
                 mBinder.editText2.setVisibility(View.GONE);
                 mBinder.included.editText1.setVisibility(View.GONE);
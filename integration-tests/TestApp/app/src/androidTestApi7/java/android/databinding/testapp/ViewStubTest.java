@@ -78,4 +78,18 @@ public class ViewStubTest extends BaseDataBinderTest<ViewStubBinding> {
         mBinder.executePendingBindings();
         assertEquals("Goodbye", contentsBinding.firstNameContents.getText().toString());
     }
+
+    @UiThreadTest
+    public void testInflationOnlyRebindsStub() throws Throwable {
+        mBinder.setUnrelated("Bound");
+        mBinder.executePendingBindings();
+        // Bypass the binding, so that rebinding the TextView would be noticed.
+        mBinder.unrelatedText.setText("Untouched");
+        mBinder.viewStub.getViewStub().inflate();
+        ViewStubContentsBinding contentsBinding = (ViewStubContentsBinding)
+                mBinder.viewStub.getBinding();
+        assertEquals("Hello", contentsBinding.firstNameContents.getText().toString());
+        assertEquals("World", contentsBinding.lastNameContents.getText().toString());
+        assertEquals("Untouched", mBinder.unrelatedText.getText().toString());
+    }
 }